@@ -0,0 +1,63 @@
+package com.app.order_service.kafka.consumer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * OrderConsumer.readEventData on a stock reply, for the plain payload (expanded JSON without
+ * schemas) and the schema + payload envelope, followed by the orderId read every reply does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplyEnvelopeParsingBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    @Param({ "false", "true" })
+    private boolean envelope;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        StringBuilder payload = new StringBuilder("{\"orderId\":1234567,\"requestId\":\"REQ-0DZK3W8Q9M1XA\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append("{\"productId\":").append(1_000 + i).append(",\"quantity\":").append(1 + i % 3).append('}');
+        }
+        payload.append("]}");
+
+        message = envelope
+                ? "{\"schema\":{\"type\":\"struct\",\"optional\":false},\"payload\":" + payload + "}"
+                : payload.toString();
+    }
+
+    @Benchmark
+    public int orderConsumerReply() throws JsonProcessingException {
+        return OrderConsumer.readEventData(objectMapper, message).path("orderId").asInt();
+    }
+}
@@ -0,0 +1,97 @@
+package com.app.order_service.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.kafka.producer.OutboxPayloadEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ORDER_CREATED / ORDER_STATUS_UPDATED payload built by OutboxServiceImpl for every order
+ * transition, by number of order lines.
+ *
+ * hashMapBaseline is the encoding buildOrderPayload replaced (a Map per event and per line,
+ * then ObjectMapper to a String); compare their gc.alloc.rate.norm for the bytes allocated
+ * per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderOutboxPayloadBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    private OutboxServiceImpl outboxService;
+
+    private ObjectMapper objectMapper;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        // Only the encoder is used to build payloads; ObjectMapper configured as Spring Boot does
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        outboxService = new OutboxServiceImpl(null, new OutboxPayloadEncoder(objectMapper), null, null);
+
+        order = Order.builder()
+                .id(1_234_567)
+                .userId(42)
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("1249.90"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        for (int i = 0; i < items; i++) {
+            order.addOrderItem(1_000 + i, 1 + i % 3);
+        }
+    }
+
+    @Benchmark
+    public byte[] buildOrderPayload() {
+        return outboxService.buildOrderPayload(order, "REQ-7301823740125184");
+    }
+
+    @Benchmark
+    public String hashMapBaseline() throws JsonProcessingException {
+        Map<String, Object> payloadMap = new HashMap<>();
+        payloadMap.put("orderId", order.getId());
+        payloadMap.put("userId", order.getUserId());
+        payloadMap.put("status", order.getStatus().name());
+        payloadMap.put("totalAmount", order.getTotalAmount());
+        payloadMap.put("failReason", order.getFailReason());
+        payloadMap.put("requestId", "REQ-7301823740125184");
+        List<Map<String, Integer>> lines = order.getOrderItems().stream()
+                .map(item -> {
+                    Map<String, Integer> itemMap = new HashMap<>();
+                    itemMap.put("productId", item.getProductId());
+                    itemMap.put("quantity", item.getQuantity());
+                    return itemMap;
+                })
+                .toList();
+        payloadMap.put("items", lines);
+        return objectMapper.writeValueAsString(payloadMap);
+    }
+}
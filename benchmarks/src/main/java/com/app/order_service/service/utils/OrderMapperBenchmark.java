@@ -0,0 +1,52 @@
+package com.app.order_service.service.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.order_service.dto.request.CreateOrderForm;
+import com.app.order_service.dto.request.Item;
+import com.app.order_service.entity.Order;
+
+/**
+ * Request form to Order entity mapping done on every POST /api/v1/orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    private CreateOrderForm form;
+
+    @Setup
+    public void setUp() {
+        List<Item> formItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            formItems.add(new Item(1_000 + i, 1 + i % 3));
+        }
+        form = new CreateOrderForm(42, formItems);
+    }
+
+    @Benchmark
+    public Order createOrderFormToOrder() {
+        return OrderMapper.createOrderFormToOrder(form);
+    }
+}
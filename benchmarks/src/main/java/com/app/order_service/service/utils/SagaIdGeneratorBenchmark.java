@@ -0,0 +1,57 @@
+package com.app.order_service.service.utils;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of id generation against the previous "REQ-" + epoch millis request id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SagaIdGeneratorBenchmark {
+
+    private final SagaIdGenerator generator = new SagaIdGenerator(1);
+
+    @Benchmark
+    public String legacyRequestId() {
+        return "REQ-" + ZonedDateTime.now(ZoneId.of("UTC+7")).toInstant().toEpochMilli();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String requestId() {
+        return "REQ-" + generator.nextIdString();
+    }
+
+    @Benchmark
+    public UUID nextUuid() {
+        return generator.nextUuid();
+    }
+}
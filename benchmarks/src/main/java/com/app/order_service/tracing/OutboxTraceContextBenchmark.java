@@ -0,0 +1,88 @@
+package com.app.order_service.tracing;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+/**
+ * Per-event cost of carrying the trace across the outbox hop. The target is under 5µs per
+ * event for spanAndTraceParent, which is the whole added work: one child span plus the
+ * traceparent written to the outbox row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxTraceContextBenchmark {
+
+    @Param({ "sampled", "unsampled" })
+    private String sampling;
+
+    private Tracer tracer;
+    private OutboxTraceContext traceContext;
+    private Span parent;
+    private Tracer.SpanInScope parentScope;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tracer = tracer("sampled".equals(sampling) ? Sampler.alwaysOn() : Sampler.alwaysOff());
+        traceContext = new OutboxTraceContext(tracer);
+        parent = tracer.nextSpan().name("order-request").start();
+        parentScope = tracer.withSpan(parent);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parentScope.close();
+        parent.end();
+    }
+
+    @Benchmark
+    public String traceParent() {
+        return traceContext.currentTraceParent();
+    }
+
+    @Benchmark
+    public String spanAndTraceParent() {
+        Span span = tracer.nextSpan().name("outbox").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return traceContext.currentTraceParent();
+        } finally {
+            span.end();
+        }
+    }
+
+    // Same wiring as OutboxTraceContextTests in order-server, without an exporter
+    private static Tracer tracer(Sampler sampler) {
+        io.opentelemetry.api.trace.Tracer otelTracer = SdkTracerProvider.builder()
+                .setSampler(sampler)
+                .build()
+                .get("outbox-trace-context");
+        OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+        return new OtelTracer(otelTracer, currentTraceContext, event -> {
+        }, new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.distribute.notifications.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.distribute.notifications.dto.NotificationDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Per-record work of the notification batch listener: NOTIFICATION_SEND parsing (plain
+ * payload and the schema + payload envelope) and the type mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationEventListenerBenchmark {
+
+    private static final String PAYLOAD = "{\"orderId\":1234567,\"type\":\"PAYMENT_SUCCESS\","
+            + "\"message\":\"Payment successful for order #1234567. Total amount: 1249.90. "
+            + "Your order is being processed.\",\"requestId\":\"system\"}";
+
+    private static final String ENVELOPE = "{\"schema\":{\"type\":\"struct\",\"optional\":false},"
+            + "\"payload\":" + PAYLOAD + "}";
+
+    @Param({ "ORDER_CREATED", "PAYMENT_SUCCEEDED", "PAYMENT_SUCCESS" })
+    private String type;
+
+    private final NotificationEventListener listener = new NotificationEventListener();
+
+    @Benchmark
+    public String mapNotificationType() {
+        return listener.mapNotificationType(type);
+    }
+
+    @Benchmark
+    public NotificationDto parsePayload() throws JsonProcessingException {
+        return listener.toNotification(PAYLOAD);
+    }
+
+    @Benchmark
+    public NotificationDto parseEnvelope() throws JsonProcessingException {
+        return listener.toNotification(ENVELOPE);
+    }
+}
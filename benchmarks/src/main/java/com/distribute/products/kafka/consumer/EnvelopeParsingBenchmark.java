@@ -0,0 +1,66 @@
+package com.distribute.products.kafka.consumer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.distribute.products.kafka.event.CreateOrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ProductConsumer.readEvent on an ORDER_CREATED record, for the plain payload (expanded JSON
+ * without schemas) and the schema + payload envelope. The tree-only parsing of the replies
+ * is in ReplyEnvelopeParsingBenchmark (order-service).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeParsingBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    @Param({ "false", "true" })
+    private boolean envelope;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        StringBuilder payload = new StringBuilder("{\"orderId\":1234567,\"userId\":42,\"status\":\"PENDING\","
+                + "\"totalAmount\":1249.90,\"failReason\":null,\"requestId\":\"REQ-7301823740125184\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append("{\"productId\":").append(1_000 + i).append(",\"quantity\":").append(1 + i % 3).append('}');
+        }
+        payload.append("]}");
+
+        message = envelope
+                ? "{\"schema\":{\"type\":\"struct\",\"optional\":false},\"payload\":" + payload + "}"
+                : payload.toString();
+    }
+
+    @Benchmark
+    public CreateOrderEvent productConsumerOrderCreated() throws JsonProcessingException {
+        return ProductConsumer.readEvent(objectMapper, message, CreateOrderEvent.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.distribute.products.service;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.distribute.products.entity.Product;
+import com.distribute.products.kafka.event.Item;
+import com.distribute.products.repository.ProductRepository;
+
+/**
+ * Stock check and decrement of ProductService for one ORDER_CREATED, with the database
+ * replaced by an in-memory map: measures the service's own per-line work, not the row locks.
+ * Every reservation is released again so stock never runs out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockCheckBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    private ProductService productService;
+
+    private List<Item> orderItems;
+
+    private List<Item> oversold;
+
+    @Setup
+    public void setUp() {
+        Map<Integer, Product> products = new HashMap<>();
+        orderItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            int productId = 1_000 + i;
+            products.put(productId, Product.builder()
+                    .id(productId)
+                    .name("Product " + i)
+                    .price(new BigDecimal("19.99"))
+                    .stock(1_000_000)
+                    .build());
+            orderItems.add(new Item(productId, 1 + i % 3));
+        }
+        // Last line asks for more than is in stock, so the whole reservation fails there
+        oversold = new ArrayList<>(orderItems);
+        oversold.set(items - 1, new Item(1_000 + items - 1, 2_000_000));
+
+        productService = new ProductService(inMemoryRepository(products), new NoOpOutboxService());
+    }
+
+    @Benchmark
+    public void reserveAndRelease() {
+        productService.updateStocks(1_234_567, orderItems);
+        productService.releaseStocks(1_234_567, orderItems);
+    }
+
+    @Benchmark
+    public void rejectInsufficientStock(Blackhole blackhole) {
+        try {
+            productService.updateStocks(1_234_567, oversold);
+        } catch (RuntimeException e) {
+            blackhole.consume(e);
+        }
+        // Lines before the failing one were decremented (the transaction would roll them back)
+        productService.releaseStocks(1_234_567, oversold.subList(0, items - 1));
+    }
+
+    private static ProductRepository inMemoryRepository(Map<Integer, Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[] { ProductRepository.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByIdForUpdate", "findById" -> Optional.ofNullable(products.get((Integer) args[0]));
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class NoOpOutboxService implements OutboxService {
+
+        @Override
+        public void saveStockUpdatedEvent(Integer orderId, List<Item> items, String eventType, String requestId) {
+        }
+
+        @Override
+        public void saveStockReleasedEvent(Integer orderId, List<Item> items, String requestId) {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.distribute.products.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.distribute.products.kafka.event.Item;
+import com.distribute.products.kafka.producer.OutboxPayloadEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * STOCK_RESERVE_SUCCEEDED / FAILED / RELEASED payload built by OutboxServiceImpl for every
+ * reservation, by number of order lines.
+ *
+ * hashMapBaseline is the encoding buildStockPayload replaced; compare their
+ * gc.alloc.rate.norm for the bytes allocated per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockPayloadBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int items;
+
+    private OutboxServiceImpl outboxService;
+
+    private ObjectMapper objectMapper;
+
+    private List<Item> orderItems;
+
+    @Setup
+    public void setUp() {
+        // Only the encoder is used to build payloads; ObjectMapper configured as Spring Boot does
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        outboxService = new OutboxServiceImpl(null, new OutboxPayloadEncoder(objectMapper), null, null);
+
+        orderItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            orderItems.add(new Item(1_000 + i, 1 + i % 3));
+        }
+    }
+
+    @Benchmark
+    public byte[] buildStockPayload() {
+        return outboxService.buildStockPayload(1_234_567, orderItems, "1234567");
+    }
+
+    @Benchmark
+    public String hashMapBaseline() throws JsonProcessingException {
+        Map<String, Object> payloadMap = new HashMap<>();
+        payloadMap.put("orderId", 1_234_567);
+        payloadMap.put("requestId", "1234567");
+        List<Map<String, Integer>> lines = orderItems.stream()
+                .map(item -> {
+                    Map<String, Integer> itemMap = new HashMap<>();
+                    itemMap.put("productId", item.getProductId());
+                    itemMap.put("quantity", item.getQuantity());
+                    return itemMap;
+                })
+                .toList();
+        payloadMap.put("items", lines);
+        return objectMapper.writeValueAsString(payloadMap);
+    }
+}
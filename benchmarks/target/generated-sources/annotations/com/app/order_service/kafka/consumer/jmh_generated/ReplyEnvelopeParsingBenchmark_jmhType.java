@@ -0,0 +1,4 @@
+package com.app.order_service.kafka.consumer.jmh_generated;
+public class ReplyEnvelopeParsingBenchmark_jmhType extends ReplyEnvelopeParsingBenchmark_jmhType_B3 {
+}
+
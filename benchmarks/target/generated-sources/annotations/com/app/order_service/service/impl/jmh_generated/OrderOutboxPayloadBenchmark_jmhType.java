@@ -0,0 +1,4 @@
+package com.app.order_service.service.impl.jmh_generated;
+public class OrderOutboxPayloadBenchmark_jmhType extends OrderOutboxPayloadBenchmark_jmhType_B3 {
+}
+
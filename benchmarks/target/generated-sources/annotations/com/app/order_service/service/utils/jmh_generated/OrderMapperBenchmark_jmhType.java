@@ -0,0 +1,4 @@
+package com.app.order_service.service.utils.jmh_generated;
+public class OrderMapperBenchmark_jmhType extends OrderMapperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.app.order_service.service.utils.jmh_generated;
+public class SagaIdGeneratorBenchmark_jmhType extends SagaIdGeneratorBenchmark_jmhType_B3 {
+}
+
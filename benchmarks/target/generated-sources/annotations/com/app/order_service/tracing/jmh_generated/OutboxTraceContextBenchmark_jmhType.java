@@ -0,0 +1,4 @@
+package com.app.order_service.tracing.jmh_generated;
+public class OutboxTraceContextBenchmark_jmhType extends OutboxTraceContextBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.distribute.notifications.service.jmh_generated;
+public class NotificationEventListenerBenchmark_jmhType extends NotificationEventListenerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.distribute.products.kafka.consumer.jmh_generated;
+public class EnvelopeParsingBenchmark_jmhType extends EnvelopeParsingBenchmark_jmhType_B3 {
+}
+
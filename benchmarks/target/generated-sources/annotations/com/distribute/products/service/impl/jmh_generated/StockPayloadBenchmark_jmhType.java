@@ -0,0 +1,4 @@
+package com.distribute.products.service.impl.jmh_generated;
+public class StockPayloadBenchmark_jmhType extends StockPayloadBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.distribute.products.service.jmh_generated;
+public class StockCheckBenchmark_jmhType extends StockCheckBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,145 @@
+package com.app.eureka_server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Time from a new instance registering to a client sending it its first request, with the
+ * client refresh settings the services use (5s delta fetch).
+ *
+ * The client is a separate Spring context running the real Eureka client; the new
+ * instance is a stub HTTP server registered through the Eureka REST API.
+ */
+@SpringBootTest(classes = EurekaServerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TimeToFirstRequestTests {
+
+	private static final int FETCH_INTERVAL_SECONDS = 5;
+
+	@LocalServerPort
+	private int port;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	private HttpServer backend;
+
+	private ConfigurableApplicationContext client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		backend.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		backend.start();
+
+		client = new SpringApplicationBuilder(RegistryClient.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.config.name=registry-client",
+						"spring.application.name=registry-client",
+						"eureka.client.register-with-eureka=false",
+						"eureka.client.fetch-registry=true",
+						"eureka.client.registry-fetch-interval-seconds=" + FETCH_INTERVAL_SECONDS,
+						"eureka.client.service-url.defaultZone=http://localhost:" + port + "/eureka/")
+				.run();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (client != null) {
+			client.close();
+		}
+		if (backend != null) {
+			backend.stop(0);
+		}
+	}
+
+	@Test
+	void newInstanceReceivesTrafficWithinOneFetchInterval(TestReporter reporter) throws Exception {
+		DiscoveryClient discoveryClient = client.getBean(DiscoveryClient.class);
+		int backendPort = backend.getAddress().getPort();
+
+		long registeredAt = System.nanoTime();
+		register("STUB-SERVICE", backendPort);
+
+		Duration timeToFirstRequest = null;
+		long deadline = registeredAt + Duration.ofSeconds(FETCH_INTERVAL_SECONDS * 4L).toNanos();
+		while (timeToFirstRequest == null && System.nanoTime() < deadline) {
+			List<ServiceInstance> instances = discoveryClient.getInstances("stub-service");
+			if (!instances.isEmpty() && send(instances.get(0).getUri()) == 200) {
+				timeToFirstRequest = Duration.ofNanos(System.nanoTime() - registeredAt);
+			} else {
+				Thread.sleep(50);
+			}
+		}
+
+		reporter.publishEntry("discovery.time-to-first-request", String.valueOf(timeToFirstRequest));
+		assertThat(timeToFirstRequest).isNotNull()
+				.isLessThan(Duration.ofSeconds(FETCH_INTERVAL_SECONDS + 2));
+	}
+
+	private void register(String app, int instancePort) throws Exception {
+		String body = """
+				{"instance": {
+				  "instanceId": "stub-%1$d",
+				  "hostName": "127.0.0.1",
+				  "app": "%2$s",
+				  "ipAddr": "127.0.0.1",
+				  "status": "UP",
+				  "port": {"$": %1$d, "@enabled": "true"},
+				  "securePort": {"$": 443, "@enabled": "false"},
+				  "vipAddress": "stub-service",
+				  "dataCenterInfo": {
+				    "@class": "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo",
+				    "name": "MyOwn"
+				  }
+				}}
+				""".formatted(instancePort, app);
+
+		HttpResponse<Void> response = http.send(HttpRequest.newBuilder()
+				.uri(URI.create("http://localhost:" + port + "/eureka/apps/" + app))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build(), HttpResponse.BodyHandlers.discarding());
+		assertThat(response.statusCode()).isEqualTo(204);
+	}
+
+	private int send(URI uri) {
+		try {
+			return http.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding())
+					.statusCode();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Not a @Configuration, so it is neither picked up as this test's configuration nor scanned
+	 */
+	@EnableAutoConfiguration
+	static class RegistryClient {
+	}
+}
@@ -0,0 +1,16 @@
+package com.app.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A fully buffered 200 response, replayed verbatim on a cache hit.
+ */
+public record CachedResponse(int status, HttpHeaders headers, byte[] body, long ttlNanos) {
+
+    /**
+     * Approximate heap cost, used to bound the cache by size rather than entry count.
+     */
+    public int weight() {
+        return body.length + 64 * headers.size() + 128;
+    }
+}
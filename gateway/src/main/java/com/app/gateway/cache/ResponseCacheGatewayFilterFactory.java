@@ -0,0 +1,247 @@
+package com.app.gateway.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.app.gateway.cache.ResponseCacheStore.Outcome;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches GET 200 responses of a route in the gateway, keyed by route id, path and query.
+ *
+ * Usage: filters: - ResponseCache=30s
+ *
+ * Concurrent misses for the same key are coalesced: the first request goes to the backend,
+ * the others wait for its response instead of sending their own (single flight).
+ * Runs before NettyWriteResponseFilter so the proxied body can be captured, and before the
+ * load balancer so a hit never touches a backend.
+ *
+ * The body streams to the client as it arrives and is copied on the side. Responses whose
+ * Content-Length exceeds max-entry-bytes are not copied at all, and the copy is dropped as
+ * soon as a body without Content-Length grows past it, so at most max-entry-bytes are held
+ * per miss.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final String CACHE_HEADER = "X-Cache";
+
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.DATE, "Keep-Alive");
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long ttlNanos = DurationStyle.detectAndParse(config.getTtl()).toNanos();
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, ttlNanos),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, long ttlNanos) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+
+        if (!HttpMethod.GET.equals(request.getMethod())
+                || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            store.record(routeId, Outcome.BYPASS);
+            return chain.filter(exchange);
+        }
+
+        String rawQuery = request.getURI().getRawQuery();
+        String key = routeId + ' ' + request.getURI().getRawPath() + (rawQuery != null ? '?' + rawQuery : "");
+
+        CachedResponse cached = store.get(key);
+        if (cached != null) {
+            store.record(routeId, Outcome.HIT);
+            return writeCached(exchange.getResponse(), cached, "HIT");
+        }
+
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = store.joinInFlight(key, mine);
+        if (leader != null) {
+            store.record(routeId, Outcome.COALESCED);
+            // Replay the leader's response, or go to the backend if it was not cacheable
+            return Mono.fromFuture(leader)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(result -> result.isPresent()
+                            ? writeCached(exchange.getResponse(), result.get(), "COALESCED")
+                            : chain.filter(exchange));
+        }
+
+        store.record(routeId, Outcome.MISS);
+        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), routeId, key, ttlNanos, mine);
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    // Releases followers if the response was never written (error, cancel, streaming)
+                    mine.complete(null);
+                    store.leaveInFlight(key, mine);
+                });
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, String outcome) {
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        response.getHeaders().set(CACHE_HEADER, outcome);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private boolean isCacheable(ServerHttpResponse response) {
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        String cacheControl = headers.getCacheControl();
+        return !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")));
+    }
+
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+        private final String key;
+        private final long ttlNanos;
+        private final CompletableFuture<CachedResponse> result;
+
+        CapturingResponse(ServerHttpResponse delegate, String routeId, String key, long ttlNanos,
+                CompletableFuture<CachedResponse> result) {
+            super(delegate);
+            this.routeId = routeId;
+            this.key = key;
+            this.ttlNanos = ttlNanos;
+            this.result = result;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable(getDelegate())) {
+                result.complete(null);
+                return super.writeWith(body);
+            }
+            long contentLength = getDelegate().getHeaders().getContentLength();
+            if (contentLength >= 0 && !store.fits(contentLength)) {
+                store.record(routeId, Outcome.OVERSIZE);
+                result.complete(null);
+                return super.writeWith(body);
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(getDelegate().getHeaders());
+            UNCACHED_HEADERS.forEach(headers::remove);
+            getDelegate().getHeaders().set(CACHE_HEADER, "MISS");
+
+            BodyCopy copy = new BodyCopy();
+            Flux<DataBuffer> teed = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        if (copy.isDiscarded()) {
+                            return;
+                        }
+                        if (store.fits((long) copy.size() + buffer.readableByteCount())) {
+                            copy.add(buffer);
+                        } else {
+                            // Too large to cache: stop copying and let waiting requests go to the backend
+                            copy.discard();
+                            store.record(routeId, Outcome.OVERSIZE);
+                            result.complete(null);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!copy.isDiscarded()) {
+                            CachedResponse response = new CachedResponse(HttpStatus.OK.value(),
+                                    HttpHeaders.readOnlyHttpHeaders(headers), copy.toByteArray(), ttlNanos);
+                            store.put(key, response);
+                            result.complete(response);
+                        }
+                    });
+            return super.writeWith(teed);
+        }
+    }
+
+    /**
+     * Bytes of a body seen so far, read without moving the buffers' read position.
+     */
+    private static final class BodyCopy {
+
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        void add(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer chunk = iterator.next();
+                    byte[] array = new byte[chunk.remaining()];
+                    chunk.get(array);
+                    bytes.write(array, 0, array.length);
+                }
+            }
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void discard() {
+            bytes = null;
+        }
+
+        boolean isDiscarded() {
+            return bytes == null;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    public static class Config {
+
+        private String ttl = "30s";
+
+        public String getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(String ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.app.gateway.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Shared storage behind every ResponseCache route filter: a size-bounded Caffeine cache
+ * whose entries expire after their route's TTL, the in-flight misses used for single flight,
+ * and per route hit/miss counters.
+ */
+@Component
+public class ResponseCacheStore {
+
+    // OVERSIZE is counted on top of the MISS whose body was too large to keep
+    public enum Outcome { HIT, MISS, COALESCED, BYPASS, OVERSIZE }
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxEntryBytes;
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+            @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime,
+                            long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response.cache");
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (fits(response.body().length)) {
+            cache.put(key, response);
+        }
+    }
+
+    /**
+     * Whether a body of this many bytes may be cached at all.
+     */
+    public boolean fits(long bodyBytes) {
+        return bodyBytes <= maxEntryBytes;
+    }
+
+    /**
+     * Register the caller as the one request fetching key.
+     * @return null if the caller leads the fetch, otherwise the leader's pending result
+     */
+    public CompletableFuture<CachedResponse> joinInFlight(String key, CompletableFuture<CachedResponse> mine) {
+        return inFlight.putIfAbsent(key, mine);
+    }
+
+    public void leaveInFlight(String key, CompletableFuture<CachedResponse> mine) {
+        inFlight.remove(key, mine);
+    }
+
+    public void record(String routeId, Outcome outcome) {
+        counters.computeIfAbsent(routeId + ':' + outcome, k -> Counter.builder("gateway.response.cache.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,66 @@
+package com.app.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load of one backend instance as seen from this gateway: requests in flight and a
+ * peak-sensitive EWMA of response time.
+ *
+ * A sample above the current cost replaces it at once (peak), lower samples pull it
+ * down with weight exp(-elapsed / decayTime). The cost also decays while the instance
+ * gets no traffic, so an instance that was slow once is probed again later instead of
+ * being starved forever.
+ */
+public class InstanceStats {
+
+    private final double decayNanos;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private volatile double costNanos;
+
+    private volatile long stampNanos;
+
+    public InstanceStats(long decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.stampNanos = nowNanos;
+    }
+
+    public void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * A request that was abandoned before it completed: frees its slot without a latency sample.
+     */
+    public void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    public synchronized void complete(long latencyNanos, long nowNanos) {
+        outstanding.decrementAndGet();
+        double cost = costNanos;
+        if (latencyNanos > cost) {
+            costNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+            costNanos = cost * weight + latencyNanos * (1 - weight);
+        }
+        stampNanos = nowNanos;
+    }
+
+    /**
+     * Lower is better. Expected wait for a new request: latency times the queue in front of it.
+     */
+    public double score(long nowNanos) {
+        return (latencyEwmaNanos(nowNanos) + 1) * (outstanding.get() + 1);
+    }
+
+    public double latencyEwmaNanos(long nowNanos) {
+        return costNanos * Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+}
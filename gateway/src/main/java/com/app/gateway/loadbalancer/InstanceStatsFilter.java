@@ -0,0 +1,69 @@
+package com.app.gateway.loadbalancer;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Feeds the InstanceStatsRegistry from every lb:// request the gateway proxies. Runs right
+ * after the load balancer has picked the instance and settles the request in doFinally, so a
+ * request the client cancels releases its outstanding slot like one that completes.
+ * Failed requests and 5xx responses count at least failure-penalty, so an instance that
+ * fails fast does not look like the quickest one; cancelled ones record no latency.
+ */
+@Component
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    private final long failurePenaltyNanos;
+
+    public InstanceStatsFilter(InstanceStatsRegistry statsRegistry,
+            @Value("${gateway.load-balancer.failure-penalty:2s}") Duration failurePenalty) {
+        this.statsRegistry = statsRegistry;
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse =
+                exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        // Completed on the same stats object even if the instance is evicted meanwhile
+        InstanceStats stats = statsRegistry.get(lbResponse.getServer());
+        stats.start();
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                stats.cancel();
+                return;
+            }
+            long now = System.nanoTime();
+            long latency = now - start;
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            stats.complete(failed ? Math.max(latency, failurePenaltyNanos) : latency, now);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.app.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per instance load stats shared by every PeakEwmaLoadBalancer, exported as gauges tagged
+ * with service and instance. Instances that leave a service's instance list are evicted
+ * together with their gauges.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final Map<String, Entry> stats = new ConcurrentHashMap<>();
+
+    // Last instance list seen per service, to only rescan when discovery hands out a new one
+    private final Map<String, List<ServiceInstance>> instanceLists = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final long decayNanos;
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry,
+            @Value("${gateway.load-balancer.decay-time:10s}") Duration decayTime) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decayTime.toNanos();
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String key = key(instance);
+        Entry existing = stats.get(key);
+        return (existing != null ? existing : stats.computeIfAbsent(key, k -> register(instance))).stats();
+    }
+
+    /**
+     * Evict the stats and gauges of the service's instances that are not in the list any more.
+     */
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        if (instanceLists.put(serviceId, instances) == instances) {
+            return;
+        }
+
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            current.add(key(instance));
+        }
+        String prefix = serviceId + '/';
+        for (Map.Entry<String, Entry> entry : stats.entrySet()) {
+            if (entry.getKey().startsWith(prefix) && !current.contains(entry.getKey())
+                    && stats.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().meters().forEach(meterRegistry::remove);
+            }
+        }
+    }
+
+    private Entry register(ServiceInstance instance) {
+        InstanceStats instanceStats = new InstanceStats(decayNanos, System.nanoTime());
+        String service = instance.getServiceId();
+        String id = instance.getHost() + ":" + instance.getPort();
+
+        Gauge outstanding = Gauge.builder("gateway.lb.instance.outstanding", instanceStats, InstanceStats::outstanding)
+                .tag("service", service)
+                .tag("instance", id)
+                .register(meterRegistry);
+        Gauge latency = Gauge.builder("gateway.lb.instance.latency.ewma", instanceStats,
+                        s -> s.latencyEwmaNanos(System.nanoTime()) / 1e9)
+                .tag("service", service)
+                .tag("instance", id)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return new Entry(instanceStats, List.of(outstanding, latency));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+    }
+
+    private record Entry(InstanceStats stats, List<Meter> meters) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.app.gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,71 @@
+package com.app.gateway.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Picks an instance by power of two choices over peak-EWMA scores: two random instances
+ * are compared and the one with the lower latency x outstanding requests wins.
+ * Sampling two instead of scanning all keeps slow instances from being hammered the
+ * moment they recover, while traffic still drifts away from them as their latency grows.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+
+    private final String serviceId;
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+            InstanceStatsRegistry statsRegistry) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        statsRegistry.retain(serviceId, instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = System.nanoTime();
+        return new DefaultResponse(
+                statsRegistry.get(a).score(now) <= statsRegistry.get(b).score(now) ? a : b);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
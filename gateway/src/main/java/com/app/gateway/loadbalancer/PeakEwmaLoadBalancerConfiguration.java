@@ -0,0 +1,37 @@
+package com.app.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per client LoadBalancer configuration. Deliberately not a @Configuration so component
+ * scanning does not register it in the root context; LoadBalancerConfig wires it in for
+ * every lb:// service.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    /**
+     * Eureka instances filtered by an active /actuator/health probe, so a dead instance
+     * leaves rotation within one probe interval rather than one lease expiry.
+     */
+    @Bean
+    public ServiceInstanceListSupplier healthCheckedInstanceSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(Environment environment,
+            LoadBalancerClientFactory clientFactory, InstanceStatsRegistry statsRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, statsRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.app.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight to one route and lowers the cap while the backend is slow.
+ *
+ * Latency is tracked as an EWMA (weight 1/8) of completed requests. While it stays under
+ * the threshold the cap is maxConcurrent; above it the cap shrinks in proportion
+ * (maxConcurrent * threshold / latency), which by Little's law keeps the backend's
+ * throughput while shedding the queue that causes the extra latency.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int maxConcurrent;
+
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Updated without CAS: a lost sample only delays the average by one request
+    private volatile long latencyEwmaNanos;
+
+    public AdaptiveConcurrencyLimit(int maxConcurrent, long latencyThresholdNanos) {
+        if (maxConcurrent <= 0 || latencyThresholdNanos <= 0) {
+            throw new IllegalArgumentException("maxConcurrent and latencyThreshold must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    /**
+     * @return true if the request may proceed; it must then call release exactly once
+     */
+    public boolean tryAcquire() {
+        int limit = limit();
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        long ewma = latencyEwmaNanos;
+        latencyEwmaNanos = ewma == 0 ? latencyNanos : ewma + ((latencyNanos - ewma) >> 3);
+    }
+
+    public int limit() {
+        long ewma = latencyEwmaNanos;
+        if (ewma <= latencyThresholdNanos) {
+            return maxConcurrent;
+        }
+        return (int) Math.max(1, maxConcurrent * latencyThresholdNanos / ewma);
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long latencyEwmaNanos() {
+        return latencyEwmaNanos;
+    }
+}
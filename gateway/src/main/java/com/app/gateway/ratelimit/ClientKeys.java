@@ -0,0 +1,85 @@
+package com.app.gateway.ratelimit;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Identifies the caller a rate limit bucket belongs to.
+ *
+ * Nothing the client writes itself is trusted: a client id header or a forged X-Forwarded-For
+ * would let one caller spread its requests over any number of buckets. X-Forwarded-For is only
+ * read when the peer is one of gateway.rate-limit.trusted-proxies, and then from the right:
+ * the first hop that is not a trusted proxy is the address our own proxies saw.
+ */
+@Component
+class ClientKeys {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final Set<String> trustedProxies;
+
+    ClientKeys(@Value("${gateway.rate-limit.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .filter(address -> !address.isBlank())
+                .map(ClientKeys::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * The authenticated principal if there is one, else the client address.
+     */
+    Mono<String> resolve(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(principal -> "principal:" + principal.getName())
+                .defaultIfEmpty("ip:" + clientAddress(exchange.getRequest()));
+    }
+
+    String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            return "unknown";
+        }
+        String peer = remote.getAddress().getHostAddress();
+        if (!trustedProxies.contains(normalize(peer))) {
+            return peer;
+        }
+
+        // Walk back through the hops our proxies appended; all of the header may be forged
+        // except what they wrote
+        List<String> forwardedFor = request.getHeaders().getValuesAsList(FORWARDED_FOR_HEADER);
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String hop = forwardedFor.get(i).trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(normalize(hop))) {
+                return hop;
+            }
+        }
+        return peer;
+    }
+
+    private static String normalize(String address) {
+        String trimmed = address.trim();
+        // Literal addresses only, never a DNS lookup; "::1" and "0:0:0:0:0:0:0:1" compare equal
+        if (IPV4.matcher(trimmed).matches() || trimmed.indexOf(':') >= 0) {
+            try {
+                return InetAddress.getByName(trimmed).getHostAddress();
+            } catch (UnknownHostException e) {
+                // Not a literal address (an address with a port, say): compared as written
+            }
+        }
+        return trimmed;
+    }
+}
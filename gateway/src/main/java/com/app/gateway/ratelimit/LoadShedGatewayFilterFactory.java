@@ -0,0 +1,116 @@
+package com.app.gateway.ratelimit;
+
+import java.util.List;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects requests with 503 once a route has too many requests in flight, before they
+ * reach the backend's connection pool. The cap shrinks while backend latency is above
+ * the threshold (see AdaptiveConcurrencyLimit).
+ *
+ * Usage: filters: - LoadShed=64,1500ms   (max in flight, latency threshold)
+ */
+@Component
+public class LoadShedGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LoadShedGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    public LoadShedGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxConcurrent", "latencyThreshold");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config.getMaxConcurrent(),
+                DurationStyle.detectAndParse(config.getLatencyThreshold()).toNanos());
+
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Counter admitted = counter(routeId, "admitted");
+        Counter shed = counter(routeId, "shed");
+        Gauge.builder("gateway.loadshed.in_flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadshed.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadshed.latency.ewma", limit, l -> l.latencyEwmaNanos() / 1e9)
+                .tag("route", routeId)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!limit.tryAcquire()) {
+                shed.increment();
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                ServerWebExchangeUtils.setResponseStatus(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+                return exchange.getResponse().setComplete();
+            }
+
+            admitted.increment();
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> limit.release(System.nanoTime() - start));
+        };
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder("gateway.loadshed.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static class Config implements HasRouteId {
+
+        private int maxConcurrent = 64;
+
+        private String latencyThreshold = "1500ms";
+
+        private String routeId;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public String getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(String latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.app.gateway.ratelimit;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per client token bucket limit on a route, answered with 429 and Retry-After when exceeded.
+ *
+ * Usage: filters: - RateLimit=20,40   (tokens per second, burst capacity)
+ *
+ * Buckets live in gateway memory, so each gateway instance enforces its own share.
+ */
+@Component
+public class RateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ClientKeys clientKeys;
+
+    private final List<TokenBucketRateLimiter> limiters = new CopyOnWriteArrayList<>();
+
+    public RateLimitGatewayFilterFactory(MeterRegistry meterRegistry, ClientKeys clientKeys) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.clientKeys = clientKeys;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(config.getReplenishRate(), config.getBurstCapacity());
+        limiters.add(limiter);
+
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Counter allowed = counter(routeId, "allowed");
+        Counter limited = counter(routeId, "limited");
+        Gauge.builder("gateway.ratelimit.buckets", limiter, TokenBucketRateLimiter::size)
+                .tag("route", routeId)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> clientKeys.resolve(exchange).flatMap(clientKey -> {
+            long waitNanos = limiter.tryAcquire(clientKey, System.nanoTime());
+            if (waitNanos == 0) {
+                allowed.increment();
+                return chain.filter(exchange);
+            }
+
+            limited.increment();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            ServerWebExchangeUtils.setResponseStatus(exchange, HttpStatus.TOO_MANY_REQUESTS);
+            return exchange.getResponse().setComplete();
+        });
+    }
+
+    /**
+     * Keep the bucket maps bounded by the clients seen recently, not every client ever seen.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        limiters.forEach(limiter -> limiter.evictIdle(now));
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static class Config implements HasRouteId {
+
+        private double replenishRate = 20;
+
+        private int burstCapacity = 40;
+
+        private String routeId;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.app.gateway.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets for one route, one bucket per client key.
+ *
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA), so a
+ * check is one map read plus one CAS: no locks, no allocation once the bucket exists.
+ * The map is a ConcurrentHashMap, whose reads are lock-free and whose writes only lock
+ * the bin they touch, so clients on different keys never contend.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+
+    private final long capacityNanos;
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(double replenishPerSecond, int burstCapacity) {
+        if (replenishPerSecond <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("replenishPerSecond and burstCapacity must be positive");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / replenishPerSecond);
+        this.capacityNanos = emissionIntervalNanos * burstCapacity;
+    }
+
+    /**
+     * Take one token from the key's bucket.
+     * @return 0 if the request is allowed, otherwise the nanos until a token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        for (;;) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely; a full bucket behaves exactly like a new one.
+     * A request racing with the removal may spend a token on the dropped bucket, which at
+     * worst lets one extra request through.
+     * @return number of buckets removed
+     */
+    public int evictIdle(long nowNanos) {
+        int removed = 0;
+        for (var entry : buckets.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            if (bucket.get() <= nowNanos && buckets.remove(entry.getKey(), bucket)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Status polls have to be matched by the route without RateLimit, everything else under
+ * /order-service by the rate limited one.
+ */
+@SpringBootTest
+class OrderStatusRouteTests {
+
+	@Autowired
+	private RouteLocator routeLocator;
+
+	@Test
+	void statusPollsBypassTheOrderRateLimit() {
+		Route route = firstMatch(HttpMethod.GET, "/order-service/api/v1/orders/statuses?ids=1,2,3");
+
+		assertThat(route.getId()).isEqualTo("order-statuses");
+		assertThat(route.getFilters()).noneMatch(filter -> filter.toString().contains("RateLimit"));
+	}
+
+	@Test
+	void ordersStayRateLimited() {
+		Route route = firstMatch(HttpMethod.POST, "/order-service/api/v1/orders");
+
+		assertThat(route.getId()).isEqualTo("order-service");
+		assertThat(route.getFilters()).anyMatch(filter -> filter.toString().contains("RateLimit"));
+		assertThat(firstMatch(HttpMethod.GET, "/order-service/api/v1/orders/42").getId()).isEqualTo("order-service");
+		// Only reads of the statuses skip the limit
+		assertThat(firstMatch(HttpMethod.POST, "/order-service/api/v1/orders/statuses").getId()).isEqualTo("order-service");
+	}
+
+	private Route firstMatch(HttpMethod method, String uri) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(method, uri));
+		List<Route> matches = routeLocator.getRoutes()
+				.concatMap(route -> Flux.from(route.getPredicate().apply(exchange))
+						.filter(Boolean::booleanValue)
+						.map(matched -> route))
+				.collectList()
+				.block();
+		assertThat(matches).as("routes matching %s %s", method, uri).isNotEmpty();
+		return matches.get(0);
+	}
+}
@@ -0,0 +1,169 @@
+package com.app.gateway.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+	private static final int MAX_ENTRY_BYTES = 16;
+
+	private final ResponseCacheStore store = new ResponseCacheStore(new SimpleMeterRegistry(), 1 << 20, MAX_ENTRY_BYTES);
+
+	private final ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(store);
+
+	private final AtomicInteger backendCalls = new AtomicInteger();
+
+	@Test
+	void secondGetIsServedFromTheCache() {
+		GatewayFilter filter = filter("30s");
+
+		MockServerWebExchange miss = get("/products/1");
+		filter.filter(miss, backend(HttpStatus.OK, "product-1")).block();
+		MockServerWebExchange hit = get("/products/1");
+		filter.filter(hit, backend(HttpStatus.OK, "other")).block();
+
+		assertThat(backendCalls).hasValue(1);
+		assertThat(miss.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+		assertThat(miss.getResponse().getBodyAsString().block()).isEqualTo("product-1");
+		assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+		assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo("product-1");
+	}
+
+	@Test
+	void differentQueryIsAMiss() {
+		GatewayFilter filter = filter("30s");
+
+		filter.filter(get("/products?page=1"), backend(HttpStatus.OK, "page-1")).block();
+		MockServerWebExchange second = get("/products?page=2");
+		filter.filter(second, backend(HttpStatus.OK, "page-2")).block();
+
+		assertThat(backendCalls).hasValue(2);
+		assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("page-2");
+	}
+
+	@Test
+	void expiredEntryGoesBackToTheBackend() throws InterruptedException {
+		GatewayFilter filter = filter("50ms");
+
+		filter.filter(get("/products/1"), backend(HttpStatus.OK, "v1")).block();
+		Thread.sleep(150);
+		MockServerWebExchange afterTtl = get("/products/1");
+		filter.filter(afterTtl, backend(HttpStatus.OK, "v2")).block();
+
+		assertThat(backendCalls).hasValue(2);
+		assertThat(afterTtl.getResponse().getBodyAsString().block()).isEqualTo("v2");
+	}
+
+	@Test
+	void oversizeBodyWithContentLengthIsNotBuffered() {
+		GatewayFilter filter = filter("30s");
+		String large = "x".repeat(MAX_ENTRY_BYTES + 1);
+
+		MockServerWebExchange first = get("/products");
+		filter.filter(first, backend(HttpStatus.OK, large)).block();
+		filter.filter(get("/products"), backend(HttpStatus.OK, large)).block();
+
+		assertThat(backendCalls).hasValue(2);
+		assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(large);
+	}
+
+	@Test
+	void oversizeStreamedBodyIsPassedThroughUncached() {
+		GatewayFilter filter = filter("30s");
+		GatewayFilterChain streaming = exchange -> {
+			backendCalls.incrementAndGet();
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			return response.writeWith(Flux.just("0123456789", "0123456789", "tail")
+					.map(chunk -> buffer(response, chunk)));
+		};
+
+		MockServerWebExchange first = get("/products");
+		filter.filter(first, streaming).block();
+		filter.filter(get("/products"), streaming).block();
+
+		assertThat(backendCalls).hasValue(2);
+		assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("01234567890123456789tail");
+	}
+
+	@Test
+	void errorStatusIsNotCached() {
+		GatewayFilter filter = filter("30s");
+
+		filter.filter(get("/products/404"), backend(HttpStatus.NOT_FOUND, "missing")).block();
+		filter.filter(get("/products/404"), backend(HttpStatus.NOT_FOUND, "missing")).block();
+
+		assertThat(backendCalls).hasValue(2);
+	}
+
+	@Test
+	void nonGetAndAuthorizedRequestsBypassTheCache() {
+		GatewayFilter filter = filter("30s");
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/products").build()),
+				backend(HttpStatus.OK, "created")).block();
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/products").build()),
+				backend(HttpStatus.OK, "created")).block();
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/products/1")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer token").build()), backend(HttpStatus.OK, "mine")).block();
+		MockServerWebExchange anonymous = get("/products/1");
+		filter.filter(anonymous, backend(HttpStatus.OK, "public")).block();
+
+		assertThat(backendCalls).hasValue(4);
+		assertThat(anonymous.getResponse().getBodyAsString().block()).isEqualTo("public");
+	}
+
+	@Test
+	void noStoreResponseIsNotCached() {
+		GatewayFilter filter = filter("30s");
+		GatewayFilterChain noStore = exchange -> {
+			exchange.getResponse().getHeaders().setCacheControl("no-store");
+			return backend(HttpStatus.OK, "fresh").filter(exchange);
+		};
+
+		filter.filter(get("/products/1"), noStore).block();
+		filter.filter(get("/products/1"), noStore).block();
+
+		assertThat(backendCalls).hasValue(2);
+	}
+
+	private GatewayFilter filter(String ttl) {
+		ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+		config.setTtl(ttl);
+		return factory.apply(config);
+	}
+
+	private GatewayFilterChain backend(HttpStatus status, String body) {
+		return exchange -> {
+			backendCalls.incrementAndGet();
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(status);
+			response.getHeaders().setContentLength(body.getBytes(StandardCharsets.UTF_8).length);
+			return response.writeWith(Mono.just(buffer(response, body)));
+		};
+	}
+
+	private static DataBuffer buffer(ServerHttpResponse response, String chunk) {
+		return response.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static MockServerWebExchange get(String uri) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(uri).build());
+	}
+}
@@ -0,0 +1,70 @@
+package com.app.gateway.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+class InstanceStatsFilterTests {
+
+	private final InstanceStatsRegistry registry = new InstanceStatsRegistry(new SimpleMeterRegistry(), Duration.ofSeconds(10));
+
+	private final InstanceStatsFilter filter = new InstanceStatsFilter(registry, Duration.ofSeconds(2));
+
+	private final ServiceInstance instance = new DefaultServiceInstance("a", "order-service", "10.0.0.1", 8081, false);
+
+	@Test
+	void cancelledRequestReleasesItsSlot() {
+		MockServerWebExchange exchange = exchange();
+
+		Disposable request = filter.filter(exchange, e -> Mono.never()).subscribe();
+		assertThat(registry.get(instance).outstanding()).isEqualTo(1);
+		request.dispose();
+
+		assertThat(registry.get(instance).outstanding()).isZero();
+		assertThat(registry.get(instance).latencyEwmaNanos(System.nanoTime())).isZero();
+	}
+
+	@Test
+	void serverErrorCountsAtLeastTheFailurePenalty() {
+		MockServerWebExchange exchange = exchange();
+
+		filter.filter(exchange, e -> {
+			e.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+			return Mono.empty();
+		}).block();
+
+		assertThat(registry.get(instance).outstanding()).isZero();
+		assertThat(registry.get(instance).latencyEwmaNanos(System.nanoTime()))
+				.isGreaterThan(Duration.ofSeconds(1).toNanos());
+	}
+
+	@Test
+	void failedRequestReleasesItsSlot() {
+		MockServerWebExchange exchange = exchange();
+
+		filter.filter(exchange, e -> Mono.error(new IllegalStateException("connection reset")))
+				.onErrorResume(e -> Mono.empty())
+				.block();
+
+		assertThat(registry.get(instance).outstanding()).isZero();
+	}
+
+	private MockServerWebExchange exchange() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+		return exchange;
+	}
+}
@@ -0,0 +1,88 @@
+package com.app.gateway.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PeakEwmaLoadBalancerTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final InstanceStatsRegistry registry = new InstanceStatsRegistry(meterRegistry, Duration.ofSeconds(10));
+
+	private final ServiceInstance fast = new DefaultServiceInstance("fast", "payment-service", "10.0.0.1", 8083, false);
+
+	private final ServiceInstance slow = new DefaultServiceInstance("slow", "payment-service", "10.0.0.2", 8083, false);
+
+	private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(null, "payment-service", registry);
+
+	@Test
+	void trafficDriftsAwayFromSlowInstance() {
+		observe(fast, 20 * MILLIS);
+		observe(slow, 2_000 * MILLIS);
+
+		int toFast = 0;
+		for (int i = 0; i < 1_000; i++) {
+			if (loadBalancer.choose(List.of(fast, slow)).getServer() == fast) {
+				toFast++;
+			}
+		}
+
+		assertThat(toFast).isEqualTo(1_000);
+	}
+
+	@Test
+	void outstandingRequestsOffsetLatency() {
+		observe(fast, 20 * MILLIS);
+		observe(slow, 40 * MILLIS);
+		for (int i = 0; i < 5; i++) {
+			registry.get(fast).start();
+		}
+
+		assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isSameAs(slow);
+	}
+
+	@Test
+	void peakIsTakenImmediatelyAndDecaysWhenIdle() {
+		InstanceStats stats = new InstanceStats(TimeUnit.SECONDS.toNanos(10), 0);
+		stats.start();
+		stats.complete(10 * MILLIS, 0);
+		stats.start();
+		stats.complete(500 * MILLIS, MILLIS);
+
+		assertThat(stats.latencyEwmaNanos(MILLIS)).isEqualTo(500.0 * MILLIS);
+		assertThat(stats.latencyEwmaNanos(MILLIS + TimeUnit.SECONDS.toNanos(30))).isLessThan(30.0 * MILLIS);
+		assertThat(stats.outstanding()).isZero();
+	}
+
+	@Test
+	void instancesLeavingTheListAreEvictedWithTheirGauges() {
+		ServiceInstance third = new DefaultServiceInstance("third", "payment-service", "10.0.0.3", 8083, false);
+		loadBalancer.choose(List.of(fast, slow, third));
+		observe(slow, 2_000 * MILLIS);
+
+		loadBalancer.choose(List.of(fast, third));
+
+		assertThat(meterRegistry.find("gateway.lb.instance.outstanding").tag("instance", "10.0.0.2:8083").gauge()).isNull();
+		assertThat(meterRegistry.find("gateway.lb.instance.latency.ewma").tag("instance", "10.0.0.2:8083").gauge()).isNull();
+		assertThat(meterRegistry.find("gateway.lb.instance.outstanding").tag("instance", "10.0.0.1:8083").gauge()).isNotNull();
+		// A returning instance starts from fresh stats
+		assertThat(registry.get(slow).latencyEwmaNanos(System.nanoTime())).isZero();
+	}
+
+	private void observe(ServiceInstance instance, long latencyNanos) {
+		InstanceStats stats = registry.get(instance);
+		stats.start();
+		stats.complete(latencyNanos, System.nanoTime());
+	}
+}
@@ -0,0 +1,79 @@
+package com.app.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+class ClientKeysTests {
+
+	private final ClientKeys clientKeys = new ClientKeys(List.of("10.0.0.1", "10.0.0.2"));
+
+	@Test
+	void untrustedPeerIsKeyedOnItsOwnAddress() {
+		MockServerHttpRequest request = from("203.0.113.7")
+				.header("X-Client-Id", "someone-else")
+				.header("X-Forwarded-For", "198.51.100.1")
+				.build();
+
+		assertThat(clientKeys.resolve(MockServerWebExchange.from(request)).block()).isEqualTo("ip:203.0.113.7");
+	}
+
+	@Test
+	void trustedProxyHopIsReadFromTheRight() {
+		// The client forged the first hop; our proxies appended 203.0.113.7 and then 10.0.0.2
+		MockServerHttpRequest request = from("10.0.0.1")
+				.header("X-Forwarded-For", "198.51.100.1, 203.0.113.7, 10.0.0.2")
+				.build();
+
+		assertThat(clientKeys.clientAddress(request)).isEqualTo("203.0.113.7");
+	}
+
+	@Test
+	void hopsOverSeveralHeaderLinesAreOneList() {
+		MockServerHttpRequest request = from("10.0.0.1")
+				.header("X-Forwarded-For", "198.51.100.1")
+				.header("X-Forwarded-For", "203.0.113.9")
+				.build();
+
+		assertThat(clientKeys.clientAddress(request)).isEqualTo("203.0.113.9");
+	}
+
+	@Test
+	void trustedProxyWithoutForwardedForIsTheClient() {
+		assertThat(clientKeys.clientAddress(from("10.0.0.1").build())).isEqualTo("10.0.0.1");
+	}
+
+	@Test
+	void authenticatedPrincipalWins() {
+		ServerWebExchange exchange = MockServerWebExchange.from(from("203.0.113.7").build())
+				.mutate()
+				.principal(Mono.just((Principal) () -> "alice"))
+				.build();
+
+		assertThat(clientKeys.resolve(exchange).block()).isEqualTo("principal:alice");
+	}
+
+	@Test
+	void ipv6ProxyMatchesInAnyNotation() {
+		ClientKeys keys = new ClientKeys(List.of("::1"));
+		MockServerHttpRequest request = from("0:0:0:0:0:0:0:1")
+				.header("X-Forwarded-For", "203.0.113.7")
+				.build();
+
+		assertThat(keys.clientAddress(request)).isEqualTo("203.0.113.7");
+	}
+
+	private static MockServerHttpRequest.BaseBuilder<?> from(String address) {
+		return MockServerHttpRequest.get("/order-service/api/v1/orders")
+				.remoteAddress(new InetSocketAddress(address, 40_000));
+	}
+}
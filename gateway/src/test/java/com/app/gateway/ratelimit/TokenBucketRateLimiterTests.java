@@ -0,0 +1,89 @@
+package com.app.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsBurstThenRefillsAtRate() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5);
+		long now = 1_000 * SECOND;
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(limiter.tryAcquire("client", now)).isZero();
+		}
+		long wait = limiter.tryAcquire("client", now);
+		assertThat(wait).isPositive().isLessThanOrEqualTo(SECOND / 10);
+
+		assertThat(limiter.tryAcquire("client", now + wait)).isZero();
+		assertThat(limiter.tryAcquire("other", now)).isZero();
+	}
+
+	@Test
+	void concurrentClientsNeverExceedBurst() throws Exception {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 100);
+		long now = System.nanoTime();
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			for (int t = 0; t < 8; t++) {
+				executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 1_000; i++) {
+						if (limiter.tryAcquire("shared", now) == 0) {
+							allowed.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+			start.countDown();
+		} finally {
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		}
+
+		assertThat(allowed.get()).isEqualTo(100);
+	}
+
+	@Test
+	void evictsOnlyRefilledBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2);
+		long now = 1_000 * SECOND;
+		limiter.tryAcquire("busy", now);
+		limiter.tryAcquire("busy", now);
+		limiter.tryAcquire("idle", now - 10 * SECOND);
+
+		assertThat(limiter.evictIdle(now)).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+		assertThat(limiter.tryAcquire("busy", now)).isPositive();
+	}
+
+	@Test
+	void shedsWhenLatencyExceedsThreshold() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, TimeUnit.MILLISECONDS.toNanos(100));
+		assertThat(limit.limit()).isEqualTo(8);
+
+		for (int i = 0; i < 50; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(TimeUnit.MILLISECONDS.toNanos(400));
+		}
+
+		assertThat(limit.limit()).isEqualTo(2);
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isFalse();
+	}
+}
@@ -0,0 +1,138 @@
+package com.distribute.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows accepted orders to a terminal status by polling GET /orders/statuses with the ids
+ * still outstanding, up to MAX_IDS_PER_POLL per call. Only the orders of this run are looked
+ * up, so orders earlier runs left in the database cost nothing.
+ *
+ * Completion is observed on the first poll that sees the terminal status, so recorded times
+ * overstate the saga by up to one poll interval plus the lookup; keep the interval well below
+ * the percentiles of interest.
+ */
+final class CompletionTracker implements AutoCloseable {
+
+    static final Set<String> TERMINAL_STATUSES =
+            Set.of("PAID", "COMPLETED", "REFUNDED", "STOCK_FAILED", "PAYMENT_FAILED", "CANCELED");
+
+    // Below the order service's limit per status lookup (OrderService.MAX_STATUS_IDS)
+    static final int MAX_IDS_PER_POLL = 200;
+
+    // Bounds the lookups the tracker adds on top of the offered load
+    private static final int MAX_CONCURRENT_POLLS = 32;
+
+    private final OrderClient client;
+    private final LoadReport report;
+    private final long timeoutNanos;
+    private final long pollIntervalMs;
+
+    // orderId -> scheduled send time of the order (System.nanoTime)
+    private final Map<Integer, Long> outstanding = new ConcurrentHashMap<>();
+    private final Semaphore polls = new Semaphore(MAX_CONCURRENT_POLLS);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("saga-poller").daemon().unstarted(runnable));
+
+    CompletionTracker(OrderClient client, LoadReport report, LoadConfig config) {
+        this.client = client;
+        this.report = report;
+        this.timeoutNanos = config.sagaTimeout().toNanos();
+        this.pollIntervalMs = config.pollInterval().toMillis();
+    }
+
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::pollAll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void track(int orderId, long startNanos) {
+        outstanding.put(orderId, startNanos);
+    }
+
+    int outstanding() {
+        return outstanding.size();
+    }
+
+    /**
+     * Wait until every tracked saga finished or timed out.
+     */
+    void awaitAll() throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos + TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        while (!outstanding.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(pollIntervalMs);
+        }
+        // Whatever is left did not finish within the timeout
+        expire(System.nanoTime());
+    }
+
+    // Package-private for the tests
+    void pollAll() {
+        try {
+            expire(System.nanoTime() - timeoutNanos);
+            List<Integer> batch = new ArrayList<>(MAX_IDS_PER_POLL);
+            for (Integer orderId : outstanding.keySet()) {
+                batch.add(orderId);
+                if (batch.size() == MAX_IDS_PER_POLL) {
+                    poll(batch);
+                    batch = new ArrayList<>(MAX_IDS_PER_POLL);
+                }
+            }
+            if (!batch.isEmpty()) {
+                poll(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // A failed round must not cancel the schedule
+            report.pollError();
+        }
+    }
+
+    private void poll(List<Integer> orderIds) throws InterruptedException {
+        polls.acquire();
+        client.orderStatuses(orderIds).whenComplete((statuses, error) -> {
+            polls.release();
+            if (error != null) {
+                report.pollError();
+            } else {
+                complete(statuses);
+            }
+        });
+    }
+
+    private void complete(Map<Integer, String> statuses) {
+        long now = System.nanoTime();
+        statuses.forEach((orderId, status) -> {
+            if (TERMINAL_STATUSES.contains(status)) {
+                Long startNanos = outstanding.remove(orderId);
+                if (startNanos != null) {
+                    report.sagaCompleted(status, now - startNanos);
+                }
+            }
+        });
+    }
+
+    /**
+     * Count sagas sent before the cutoff as timed out. Package-private for the tests.
+     */
+    void expire(long cutoffNanos) {
+        outstanding.forEach((orderId, startNanos) -> {
+            // Conditional remove: a poll may complete the same order concurrently, only one counts it
+            if (startNanos - cutoffNanos < 0 && outstanding.remove(orderId, startNanos)) {
+                report.sagaTimedOut();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
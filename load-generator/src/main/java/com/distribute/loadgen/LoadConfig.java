@@ -0,0 +1,135 @@
+package com.distribute.loadgen;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Options of one run, parsed from --name=value arguments. Defaults target the gateway of a
+ * local stack (infra/docker-compose.yaml plus the services) at a rate the gateway's
+ * per-client limit lets through.
+ *
+ * @param orderUrl        base URL of order-service: the gateway prefix or the service itself
+ * @param productUrl      base URL of product-service, used to seed products
+ * @param rate            orders per second, sent on schedule whatever the response times
+ * @param duration        how long orders are sent
+ * @param users           user ids 1..users
+ * @param userSkew        Zipf exponent over users, 0 for uniform
+ * @param products        products to seed, or ids 1..products when seeding is off
+ * @param productSkew     Zipf exponent over products, 0 for uniform
+ * @param seedProducts    create the products (with seedStock each) before the run
+ * @param seedStock       stock of each seeded product
+ * @param maxItems        order lines per order, 1..maxItems distinct products
+ * @param maxQuantity     quantity per line, 1..maxQuantity
+ * @param maxInFlight     outstanding order requests; sends beyond it are counted as dropped
+ * @param pollInterval    how often outstanding sagas are polled for their status
+ * @param sagaTimeout     sagas not terminal after this long are counted as timed out
+ * @param reportInterval  how often interval percentiles are printed
+ * @param outputDir       where histograms and the summary are written
+ */
+public record LoadConfig(
+        String orderUrl,
+        String productUrl,
+        double rate,
+        Duration duration,
+        int users,
+        double userSkew,
+        int products,
+        double productSkew,
+        boolean seedProducts,
+        int seedStock,
+        int maxItems,
+        int maxQuantity,
+        int maxInFlight,
+        Duration pollInterval,
+        Duration sagaTimeout,
+        Duration reportInterval,
+        Path outputDir) {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("order-url", "http://localhost:8080/order-service"),
+            Map.entry("product-url", "http://localhost:8080/product-service"),
+            Map.entry("rate", "15"),
+            Map.entry("duration", "60"),
+            Map.entry("users", "1000"),
+            Map.entry("user-skew", "0"),
+            Map.entry("products", "20"),
+            Map.entry("product-skew", "0"),
+            Map.entry("seed-products", "true"),
+            Map.entry("seed-stock", "1000000"),
+            Map.entry("max-items", "3"),
+            Map.entry("max-quantity", "2"),
+            Map.entry("max-in-flight", "1000"),
+            Map.entry("poll-interval-ms", "250"),
+            Map.entry("saga-timeout", "120"),
+            Map.entry("report-interval", "5"),
+            Map.entry("output-dir", "target/load-results"));
+
+    public LoadConfig {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (users < 1 || products < 1 || maxItems < 1 || maxQuantity < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("users, products, max-items, max-quantity and max-in-flight must be at least 1");
+        }
+        if (maxItems > products) {
+            throw new IllegalArgumentException("max-items cannot exceed products: order lines are distinct products");
+        }
+        if (userSkew < 0 || productSkew < 0) {
+            throw new IllegalArgumentException("skew exponents cannot be negative");
+        }
+    }
+
+    /**
+     * Durations are in seconds except poll-interval-ms.
+     */
+    public static LoadConfig parse(String... args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + new TreeSet<>(DEFAULTS.keySet()));
+            }
+            options.put(name, arg.substring(eq + 1));
+        }
+
+        return new LoadConfig(
+                trimSlash(options.get("order-url")),
+                trimSlash(options.get("product-url")),
+                Double.parseDouble(options.get("rate")),
+                Duration.ofSeconds(Long.parseLong(options.get("duration"))),
+                Integer.parseInt(options.get("users")),
+                Double.parseDouble(options.get("user-skew")),
+                Integer.parseInt(options.get("products")),
+                Double.parseDouble(options.get("product-skew")),
+                Boolean.parseBoolean(options.get("seed-products")),
+                Integer.parseInt(options.get("seed-stock")),
+                Integer.parseInt(options.get("max-items")),
+                Integer.parseInt(options.get("max-quantity")),
+                Integer.parseInt(options.get("max-in-flight")),
+                Duration.ofMillis(Long.parseLong(options.get("poll-interval-ms"))),
+                Duration.ofSeconds(Long.parseLong(options.get("saga-timeout"))),
+                Duration.ofSeconds(Long.parseLong(options.get("report-interval"))),
+                Path.of(options.get("output-dir")));
+    }
+
+    /**
+     * Orders sent over the whole run.
+     */
+    public long totalOrders() {
+        return (long) (rate * duration.toMillis() / 1000.0);
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
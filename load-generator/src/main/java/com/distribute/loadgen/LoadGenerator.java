@@ -0,0 +1,162 @@
+package com.distribute.loadgen;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Open-loop order load: orders are sent on a fixed schedule of config.rate per second
+ * whether or not earlier ones were answered, the way independent users arrive. Each
+ * latency is measured from the order's scheduled send time rather than the moment it
+ * actually went out, so a stalled service shows up in the percentiles instead of silently
+ * slowing the generator down (coordinated omission).
+ *
+ * Usage: mvn compile exec:exec -Dload.args="--rate=50 --duration=120 --user-skew=1.1"
+ * (see README.md for the options).
+ */
+public final class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LoadConfig config;
+    private final OrderClient client;
+    private final LoadReport report;
+    private final CompletionTracker tracker;
+    private final ZipfSampler userSampler;
+    private final ZipfSampler productSampler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final SplittableRandom random = new SplittableRandom();
+
+    LoadGenerator(LoadConfig config) throws Exception {
+        this.config = config;
+        this.client = new OrderClient(config);
+        this.report = new LoadReport(config.outputDir());
+        this.tracker = new CompletionTracker(client, report, config);
+        this.userSampler = new ZipfSampler(config.users(), config.userSkew());
+        this.productSampler = new ZipfSampler(config.products(), config.productSkew());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        new LoadGenerator(config).run();
+    }
+
+    void run() throws Exception {
+        List<Integer> productIds = config.seedProducts()
+                ? client.seedProducts()
+                : IntStream.rangeClosed(1, config.products()).boxed().toList();
+        System.out.printf("Sending %d orders at %.1f/s to %s (%d users, skew %.2f; %d products, skew %.2f)%n",
+                config.totalOrders(), config.rate(), config.orderUrl(),
+                config.users(), config.userSkew(), productIds.size(), config.productSkew());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long reportMs = config.reportInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> report.interval(System.out, inFlight.get(), tracker.outstanding()),
+                reportMs, reportMs, TimeUnit.MILLISECONDS);
+        tracker.start();
+
+        try {
+            long start = System.nanoTime();
+            send(productIds, start);
+            double sendSeconds = (System.nanoTime() - start) / 1e9;
+
+            awaitResponses();
+            tracker.awaitAll();
+            reporter.shutdownNow();
+            reporter.awaitTermination(5, TimeUnit.SECONDS);
+            report.finish(System.out, config, sendSeconds);
+        } finally {
+            reporter.shutdownNow();
+            tracker.close();
+        }
+    }
+
+    private void send(List<Integer> productIds, long start) {
+        double intervalNanos = 1e9 / config.rate();
+        long total = config.totalOrders();
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (inFlight.get() >= config.maxInFlight()) {
+                // The service is that far behind; sending more only measures the client
+                report.dropped();
+                continue;
+            }
+            int userId = 1 + userSampler.sample(random);
+            inFlight.incrementAndGet();
+            report.sent();
+            client.createOrder(userId, items(productIds)).whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                onResponse(scheduled, response, error);
+            });
+        }
+    }
+
+    private void onResponse(long scheduled, HttpResponse<String> response, Throwable error) {
+        long latency = System.nanoTime() - scheduled;
+        if (error != null) {
+            report.requestError();
+            return;
+        }
+        if (response.statusCode() != 200) {
+            report.httpError(response.statusCode(), latency);
+            return;
+        }
+        report.accepted(latency);
+        Integer orderId = client.orderId(response);
+        if (orderId != null) {
+            tracker.track(orderId, scheduled);
+        }
+    }
+
+    /**
+     * 1..maxItems lines of distinct products, products drawn with the configured skew.
+     */
+    private List<Map<String, Integer>> items(List<Integer> productIds) {
+        int lines = 1 + random.nextInt(config.maxItems());
+        Set<Integer> ranks = new LinkedHashSet<>();
+        // Under heavy skew the tail is rarely drawn; fall back to the next unused ranks
+        for (int attempt = 0; ranks.size() < lines && attempt < lines * 10; attempt++) {
+            ranks.add(productSampler.sample(random));
+        }
+        for (int rank = 0; ranks.size() < lines; rank++) {
+            ranks.add(rank);
+        }
+
+        List<Map<String, Integer>> items = new ArrayList<>(lines);
+        for (int rank : ranks) {
+            items.add(Map.of(
+                    "productId", productIds.get(rank),
+                    "quantity", 1 + random.nextInt(config.maxQuantity())));
+        }
+        return items;
+    }
+
+    private void awaitResponses() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.distribute.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Counters and latency histograms of a run. Latencies are recorded in microseconds and
+ * reported in milliseconds.
+ *
+ * Every report interval the recorders are swapped: the interval histograms are printed,
+ * appended to load.hlog (readable with HistogramLogAnalyzer) and added to the totals, which
+ * end up in response-latency.hgrm, saga-latency.hgrm and summary.json.
+ */
+final class LoadReport {
+
+    static final Set<String> SUCCESS_STATUSES = Set.of("PAID", "COMPLETED");
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private final Path outputDir;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+
+    private final Recorder responseRecorder = new Recorder(HIGHEST_MICROS, 3);
+    private final Recorder sagaRecorder = new Recorder(HIGHEST_MICROS, 3);
+    private final Histogram responseTotal = new Histogram(HIGHEST_MICROS, 3);
+    private final Histogram sagaTotal = new Histogram(HIGHEST_MICROS, 3);
+    private final HistogramLogWriter intervalLog;
+    private Histogram responseInterval;
+    private Histogram sagaInterval;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder requestErrors = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder pollErrors = new LongAdder();
+    private final Map<Integer, LongAdder> httpErrors = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    LoadReport(Path outputDir) throws IOException {
+        this.outputDir = outputDir;
+        Files.createDirectories(outputDir);
+        intervalLog = new HistogramLogWriter(outputDir.resolve("load.hlog").toFile());
+        intervalLog.outputLogFormatVersion();
+        intervalLog.outputStartTime(startMillis);
+        intervalLog.setBaseTime(startMillis);
+        intervalLog.outputLegend();
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    /**
+     * An order request answered 200, latency measured from its scheduled send time.
+     */
+    void accepted(long latencyNanos) {
+        accepted.increment();
+        responseRecorder.recordValue(toMicros(latencyNanos));
+    }
+
+    void httpError(int status, long latencyNanos) {
+        httpErrors.computeIfAbsent(status, s -> new LongAdder()).increment();
+        responseRecorder.recordValue(toMicros(latencyNanos));
+    }
+
+    void requestError() {
+        requestErrors.increment();
+    }
+
+    void pollError() {
+        pollErrors.increment();
+    }
+
+    void sagaCompleted(String status, long latencyNanos) {
+        outcomes.computeIfAbsent(status, s -> new LongAdder()).increment();
+        sagaRecorder.recordValue(toMicros(latencyNanos));
+    }
+
+    void sagaTimedOut() {
+        timedOut.increment();
+    }
+
+    /**
+     * Print one line for the interval since the last call and add it to the totals.
+     */
+    synchronized void interval(PrintStream out, int inFlight, int outstandingSagas) {
+        responseInterval = responseRecorder.getIntervalHistogram(responseInterval);
+        sagaInterval = sagaRecorder.getIntervalHistogram(sagaInterval);
+        responseTotal.add(responseInterval);
+        sagaTotal.add(sagaInterval);
+
+        responseInterval.setTag("response");
+        sagaInterval.setTag("saga");
+        intervalLog.outputIntervalHistogram(responseInterval);
+        intervalLog.outputIntervalHistogram(sagaInterval);
+
+        out.printf("[%5.0fs] sent=%d ok=%d errors=%d dropped=%d in-flight=%d | response p50=%.1f p99=%.1f ms"
+                        + " | sagas done=%d p50=%.1f p99=%.1f ms outstanding=%d%n",
+                elapsedSeconds(), sent.sum(), accepted.sum(), errors(), dropped.sum(), inFlight,
+                millis(responseInterval, 50), millis(responseInterval, 99),
+                sagaInterval.getTotalCount(), millis(sagaInterval, 50), millis(sagaInterval, 99), outstandingSagas);
+    }
+
+    /**
+     * Fold in the last interval, print the percentile distributions and totals, and write
+     * them to the output directory.
+     */
+    synchronized void finish(PrintStream out, LoadConfig config, double sendSeconds) throws IOException {
+        interval(out, 0, 0);
+        intervalLog.close();
+        double runSeconds = elapsedSeconds();
+
+        try (PrintStream hgrm = new PrintStream(outputDir.resolve("response-latency.hgrm").toFile())) {
+            responseTotal.outputPercentileDistribution(hgrm, MICROS_PER_MS);
+        }
+        try (PrintStream hgrm = new PrintStream(outputDir.resolve("saga-latency.hgrm").toFile())) {
+            sagaTotal.outputPercentileDistribution(hgrm, MICROS_PER_MS);
+        }
+
+        long completed = sagaTotal.getTotalCount();
+        long succeeded = SUCCESS_STATUSES.stream().mapToLong(this::outcome).sum();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config);
+        summary.put("sendSeconds", sendSeconds);
+        summary.put("runSeconds", runSeconds);
+        summary.put("sent", sent.sum());
+        summary.put("accepted", accepted.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("requestErrors", requestErrors.sum());
+        summary.put("httpErrors", counts(httpErrors));
+        summary.put("pollErrors", pollErrors.sum());
+        summary.put("sagaOutcomes", counts(outcomes));
+        summary.put("sagasTimedOut", timedOut.sum());
+        summary.put("offeredRate", sent.sum() / sendSeconds);
+        summary.put("acceptedRate", accepted.sum() / sendSeconds);
+        summary.put("completedSagaRate", completed / runSeconds);
+        summary.put("errorRate", ratio(errors() + dropped.sum(), sent.sum() + dropped.sum()));
+        summary.put("sagaFailureRate", ratio(completed - succeeded + timedOut.sum(), accepted.sum()));
+        summary.put("responseLatencyMs", percentiles(responseTotal));
+        summary.put("sagaLatencyMs", percentiles(sagaTotal));
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(outputDir.resolve("summary.json").toFile(), summary);
+
+        out.println();
+        out.println("Order response latency (ms), from the scheduled send time:");
+        responseTotal.outputPercentileDistribution(out, 5, MICROS_PER_MS);
+        out.println();
+        out.println("Saga time to terminal status (ms), from the scheduled send time:");
+        sagaTotal.outputPercentileDistribution(out, 5, MICROS_PER_MS);
+        out.println();
+        out.printf("Offered %.1f orders/s, accepted %.1f orders/s, completed %.1f sagas/s%n",
+                sent.sum() / sendSeconds, accepted.sum() / sendSeconds, completed / runSeconds);
+        out.printf("Sent %d, accepted %d, dropped %d, request errors %d, HTTP errors %s%n",
+                sent.sum(), accepted.sum(), dropped.sum(), requestErrors.sum(), counts(httpErrors));
+        out.printf("Saga outcomes %s, timed out %d, poll errors %d%n",
+                counts(outcomes), timedOut.sum(), pollErrors.sum());
+        out.println("Results written to " + outputDir.toAbsolutePath());
+    }
+
+    long outcome(String status) {
+        LongAdder count = outcomes.get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    long timedOut() {
+        return timedOut.sum();
+    }
+
+    private long errors() {
+        return requestErrors.sum() + httpErrors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private double elapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private static Map<String, Long> counts(Map<?, LongAdder> counters) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counters.forEach((key, count) -> counts.put(String.valueOf(key), count.sum()));
+        return counts;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram, 50));
+        percentiles.put("p90", millis(histogram, 90));
+        percentiles.put("p99", millis(histogram, 99));
+        percentiles.put("p99.9", millis(histogram, 99.9));
+        percentiles.put("max", histogram.getMaxValue() / MICROS_PER_MS);
+        return percentiles;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MS;
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.distribute.loadgen;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The REST calls of a run: seeding products, placing orders and reading order statuses.
+ * Order calls are asynchronous so a slow response never delays the next send.
+ */
+final class OrderClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    OrderClient(LoadConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Create the products orders are drawn from and return their ids, hottest first.
+     */
+    List<Integer> seedProducts() throws IOException, InterruptedException {
+        List<Integer> ids = new ArrayList<>(config.products());
+        for (int i = 0; i < config.products(); i++) {
+            Map<String, Object> product = Map.of(
+                    "name", "Load product " + i,
+                    "price", new BigDecimal("10.00"),
+                    "stock", config.seedStock());
+            HttpResponse<String> response = http.send(
+                    post(config.productUrl() + "/api/products", product), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Creating product failed with " + response.statusCode() + ": " + response.body());
+            }
+            ids.add(objectMapper.readTree(response.body()).path("id").asInt());
+        }
+        return ids;
+    }
+
+    /**
+     * POST /api/v1/orders with the CreateOrderForm shape: userId and items of productId and quantity.
+     */
+    CompletableFuture<HttpResponse<String>> createOrder(int userId, List<Map<String, Integer>> items) {
+        try {
+            return http.sendAsync(post(config.orderUrl() + "/api/v1/orders",
+                    Map.of("userId", userId, "items", items)), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * The order id the service returned in the ApiResponse data, or null if there is none.
+     */
+    Integer orderId(HttpResponse<String> response) {
+        try {
+            JsonNode data = objectMapper.readTree(response.body()).path("data");
+            return data.asText().isEmpty() ? null : Integer.valueOf(data.asText());
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * GET /api/v1/orders/statuses?ids=..: order id to status of each listed order that exists.
+     */
+    CompletableFuture<Map<Integer, String>> orderStatuses(List<Integer> orderIds) {
+        StringBuilder ids = new StringBuilder();
+        for (Integer orderId : orderIds) {
+            if (!ids.isEmpty()) {
+                ids.append(',');
+            }
+            ids.append(orderId);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.orderUrl() + "/api/v1/orders/statuses?ids=" + ids))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Order status lookup failed with " + response.statusCode());
+            }
+            try {
+                Map<Integer, String> statuses = new HashMap<>();
+                for (JsonNode order : objectMapper.readTree(response.body()).path("data")) {
+                    statuses.put(order.path("id").asInt(), order.path("status").asText());
+                }
+                return statuses;
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable order status response", e);
+            }
+        });
+    }
+
+    private HttpRequest post(String url, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+}
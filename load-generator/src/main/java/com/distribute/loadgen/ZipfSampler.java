@@ -0,0 +1,44 @@
+package com.distribute.loadgen;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, so a few hot
+ * users or products take most of the traffic. Exponent 0 is uniform; around 1 is the usual
+ * "popular items" skew.
+ *
+ * The cumulative distribution is built once and each draw is a binary search, so sampling
+ * stays cheap on the send path.
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        // Rounding must not leave the top of the range unreachable
+        cumulative[n - 1] = 1.0;
+    }
+
+    public int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Rank r covers draws in [cumulative[r - 1], cumulative[r])
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
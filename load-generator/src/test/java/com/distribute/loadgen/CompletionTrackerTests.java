@@ -0,0 +1,142 @@
+package com.distribute.loadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompletionTrackerTests {
+
+    private static final int ORDERS = 5_000;
+    private static final int ROUNDS = 20;
+
+    @TempDir
+    Path outputDir;
+
+    private final OrderClient client = mock(OrderClient.class);
+
+    @Test
+    void pollsOnlyTrackedIdsInBoundedBatches() throws Exception {
+        when(client.orderStatuses(anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            assertThat(ids).hasSizeLessThanOrEqualTo(CompletionTracker.MAX_IDS_PER_POLL);
+            return CompletableFuture.completedFuture(statuses(ids, "PENDING"));
+        });
+        LoadReport report = new LoadReport(outputDir);
+
+        try (CompletionTracker tracker = new CompletionTracker(client, report, LoadConfig.parse())) {
+            long now = System.nanoTime();
+            for (int orderId = 1; orderId <= 450; orderId++) {
+                tracker.track(orderId, now);
+            }
+
+            tracker.pollAll();
+
+            // 450 ids: two full batches and one of 50, nothing terminal yet
+            verify(client, times(3)).orderStatuses(anyList());
+            assertThat(tracker.outstanding()).isEqualTo(450);
+        }
+    }
+
+    @Test
+    void terminalStatusCompletesTheSaga() throws Exception {
+        when(client.orderStatuses(anyList())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(Map.of(1, "PAID", 2, "STOCK_RESERVED")));
+        LoadReport report = new LoadReport(outputDir);
+
+        try (CompletionTracker tracker = new CompletionTracker(client, report, LoadConfig.parse())) {
+            tracker.track(1, System.nanoTime());
+            tracker.track(2, System.nanoTime());
+
+            tracker.pollAll();
+
+            assertThat(report.outcome("PAID")).isEqualTo(1);
+            assertThat(tracker.outstanding()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void emptyTrackerMakesNoCalls() throws Exception {
+        try (CompletionTracker tracker = new CompletionTracker(client, new LoadReport(outputDir), LoadConfig.parse())) {
+            tracker.pollAll();
+
+            verify(client, never()).orderStatuses(anyList());
+        }
+    }
+
+    @Test
+    void completionRacingExpiryCountsEachSagaOnce() throws Exception {
+        AtomicReference<ExecutorService> replies = new AtomicReference<>();
+        // Every order is terminal, the replies complete on another thread while expiry runs
+        when(client.orderStatuses(anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = List.copyOf(invocation.getArgument(0));
+            return CompletableFuture.supplyAsync(() -> statuses(ids, "PAID"), replies.get());
+        });
+        ExecutorService racers = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                replies.set(Executors.newFixedThreadPool(4));
+                LoadReport report = new LoadReport(outputDir.resolve("round-" + round));
+                try (CompletionTracker tracker = new CompletionTracker(client, report, LoadConfig.parse())) {
+                    long start = System.nanoTime();
+                    for (int orderId = 1; orderId <= ORDERS; orderId++) {
+                        tracker.track(orderId, start);
+                    }
+
+                    CountDownLatch go = new CountDownLatch(1);
+                    Future<?> poll = racers.submit(() -> {
+                        go.await();
+                        tracker.pollAll();
+                        return null;
+                    });
+                    Future<?> expire = racers.submit(() -> {
+                        go.await();
+                        // A cutoff after every start: all outstanding sagas are overdue
+                        tracker.expire(System.nanoTime() + 1);
+                        return null;
+                    });
+                    go.countDown();
+                    poll.get();
+                    expire.get();
+                    // Let the last replies finish recording before counting
+                    replies.get().shutdown();
+                    assertThat(replies.get().awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+                    assertThat(report.outcome("PAID") + report.timedOut())
+                            .as("sagas counted in round %d", round)
+                            .isEqualTo(ORDERS);
+                    assertThat(tracker.outstanding()).isZero();
+                }
+            }
+        } finally {
+            racers.shutdownNow();
+        }
+    }
+
+    private static Map<Integer, String> statuses(List<Integer> ids, String status) {
+        Map<Integer, String> statuses = new HashMap<>();
+        for (Integer id : ids) {
+            statuses.put(id, status);
+        }
+        return statuses;
+    }
+}
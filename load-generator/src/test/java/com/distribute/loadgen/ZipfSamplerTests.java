@@ -0,0 +1,53 @@
+package com.distribute.loadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class ZipfSamplerTests {
+
+    private static final int DRAWS = 1_000_000;
+
+    @Test
+    void zeroExponentIsUniform() {
+        int[] counts = draw(new ZipfSampler(10, 0));
+
+        for (int count : counts) {
+            assertThat((double) count / DRAWS).isCloseTo(0.1, within(0.005));
+        }
+    }
+
+    @Test
+    void ranksFollowZipfFrequencies() {
+        int[] counts = draw(new ZipfSampler(100, 1.0));
+
+        // Rank r is drawn with probability (1 / (r + 1)) / H(100), H(100) ~ 5.187
+        double harmonic = 0;
+        for (int rank = 1; rank <= 100; rank++) {
+            harmonic += 1.0 / rank;
+        }
+        assertThat((double) counts[0] / DRAWS).isCloseTo(1 / harmonic, within(0.005));
+        assertThat((double) counts[1] / DRAWS).isCloseTo(0.5 / harmonic, within(0.005));
+        assertThat((double) counts[9] / DRAWS).isCloseTo(0.1 / harmonic, within(0.002));
+        assertThat(counts[99]).isPositive();
+    }
+
+    @Test
+    void singleRankAlwaysDrawn() {
+        int[] counts = draw(new ZipfSampler(1, 1.2));
+
+        assertThat(counts[0]).isEqualTo(DRAWS);
+    }
+
+    private static int[] draw(ZipfSampler sampler) {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] counts = new int[sampler.size()];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,75 @@
+package com.distribute.notifications.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import com.distribute.notifications.metrics.SagaHopMetricsInterceptor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String ORDER_EVENTS_TOPIC = "outbox.event.Order";
+    public static final String REPLAY_TOPIC = ORDER_EVENTS_TOPIC + "-notification-retry-0";
+    public static final String DLT_TOPIC = ORDER_EVENTS_TOPIC + "-notification-dlt";
+
+    /**
+     * Batch listener factory: one poll is handed over as a list and the offsets of the whole
+     * poll are committed after the listener returns, i.e. after its insert transaction commits.
+     *
+     * Non-blocking retry topics do not support batch listeners, so failures are retried in
+     * place with the kafka.retry backoff. A failed record (BatchListenerFailedException) is
+     * retried alone, the records before it are committed; malformed JSON goes straight to
+     * the DLT. DLT replays land on REPLAY_TOPIC, which this listener also consumes.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> notificationBatchContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            SagaHopMetricsInterceptor sagaHopMetricsInterceptor,
+            @Value("${kafka.retry.attempts:4}") int attempts,
+            @Value("${kafka.retry.initial-delay-ms:1000}") long initialDelayMs,
+            @Value("${kafka.retry.multiplier:2.0}") double multiplier,
+            @Value("${kafka.retry.max-delay-ms:10000}") long maxDelayMs) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setBatchInterceptor(sagaHopMetricsInterceptor);
+
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(attempts - 1);
+        backOff.setInitialInterval(initialDelayMs);
+        backOff.setMultiplier(multiplier);
+        backOff.setMaxInterval(maxDelayMs);
+
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(DLT_TOPIC, -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    @Bean
+    public NewTopic notificationReplayTopic() {
+        return TopicBuilder.name(REPLAY_TOPIC).partitions(1).build();
+    }
+
+    @Bean
+    public NewTopic notificationDeadLetterTopic() {
+        return TopicBuilder.name(DLT_TOPIC).partitions(1).build();
+    }
+}
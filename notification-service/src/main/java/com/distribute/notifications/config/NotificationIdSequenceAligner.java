@@ -0,0 +1,43 @@
+package com.distribute.notifications.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.distribute.notifications.repository.NotificationRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rows written while notifications.id was AUTO_INCREMENT are not known to the id sequence
+ * table Hibernate creates on MySQL, so move the sequence past them before the first insert.
+ * Depends on the repository so the schema update has run; no-op where a native sequence is used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationIdSequenceAligner {
+
+    private static final int ALLOCATION_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationRepository notificationRepository;
+
+    @PostConstruct
+    public void align() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'notifications_seq'",
+                Integer.class);
+        if (tables == null || tables == 0) {
+            return;
+        }
+
+        int updated = jdbcTemplate.update(
+                "UPDATE notifications_seq SET next_val = "
+                        + "GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + ? FROM notifications))",
+                ALLOCATION_SIZE + 1);
+        log.info("Aligned notifications_seq with existing ids ({} row)", updated);
+    }
+}
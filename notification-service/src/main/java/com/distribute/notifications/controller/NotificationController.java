@@ -1,7 +1,10 @@
 package com.distribute.notifications.controller;
 
+import com.distribute.notifications.dlt.DltReplayService;
+import com.distribute.notifications.dto.CursorPage;
 import com.distribute.notifications.dto.NotificationDto;
 import com.distribute.notifications.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,10 +12,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +36,14 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private DltReplayService dltReplayService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     /** 
      * Get notifications by order ID
      * GET /api/v1/notifications/order/{orderId}
@@ -123,6 +141,118 @@ public class NotificationController {
         }
     }
 
+    // Keyset pages: pass the returned nextCursor to get the next page, a null nextCursor
+    // means the last page. Cost depends on the page size only, not on how deep the page is.
+
+    /**
+     * Get all notifications, keyset paginated by id
+     * GET /api/v1/notifications/page?cursor={cursor}&size={size}
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getNotificationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching notifications page - cursor: {}, size: {}", cursor, size);
+        return ResponseEntity.ok(pageResponse(notificationService.getNotificationsPage(cursor, pageSize(size))));
+    }
+
+    /**
+     * Get notifications by order ID, keyset paginated by id
+     * GET /api/v1/notifications/order/{orderId}/page?cursor={cursor}&size={size}
+     */
+    @GetMapping("/order/{orderId}/page")
+    public ResponseEntity<Map<String, Object>> getNotificationsPageByOrderId(
+            @PathVariable Integer orderId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching notifications page for order ID: {} - cursor: {}", orderId, cursor);
+        return ResponseEntity.ok(pageResponse(
+                notificationService.getNotificationsPageByOrderId(orderId, cursor, pageSize(size))));
+    }
+
+    /**
+     * Get notifications by order ID and type, keyset paginated by id
+     * GET /api/v1/notifications/order/{orderId}/type/{type}/page?cursor={cursor}&size={size}
+     */
+    @GetMapping("/order/{orderId}/type/{type}/page")
+    public ResponseEntity<Map<String, Object>> getNotificationsPageByOrderIdAndType(
+            @PathVariable Integer orderId,
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching notifications page for order ID: {} and type: {} - cursor: {}", orderId, type, cursor);
+        return ResponseEntity.ok(pageResponse(
+                notificationService.getNotificationsPageByOrderIdAndType(orderId, type, cursor, pageSize(size))));
+    }
+
+    /**
+     * Get notifications by type, keyset paginated by creation time
+     * GET /api/v1/notifications/type/{type}/page?cursor={cursor}&size={size}
+     */
+    @GetMapping("/type/{type}/page")
+    public ResponseEntity<Map<String, Object>> getNotificationsPageByType(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching notifications page of type: {} - cursor: {}", type, cursor);
+        return ResponseEntity.ok(pageResponse(
+                notificationService.getNotificationsPageByType(type, cursor, pageSize(size))));
+    }
+
+    /**
+     * Get notifications created in [from, to], keyset paginated by creation time
+     * GET /api/v1/notifications/range/page?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00&cursor={cursor}
+     */
+    @GetMapping("/range/page")
+    public ResponseEntity<Map<String, Object>> getNotificationsPageByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching notifications page between {} and {} - cursor: {}", from, to, cursor);
+        return ResponseEntity.ok(pageResponse(
+                notificationService.getNotificationsPageByDateRange(from, to, cursor, pageSize(size))));
+    }
+
+    /**
+     * Stream every notification created in [from, to] as newline-delimited JSON
+     * GET /api/v1/notifications/range/stream?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00
+     */
+    @GetMapping(value = "/range/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamNotificationsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        logger.info("Streaming notifications between {} and {}", from, to);
+        StreamingResponseBody body = out -> {
+            byte[] newline = "\n".getBytes(StandardCharsets.UTF_8);
+            long streamed = notificationService.streamNotificationsByDateRange(from, to, notification -> {
+                try {
+                    // writeValueAsBytes, writeValue(out) would close the response stream
+                    out.write(objectMapper.writeValueAsBytes(notification));
+                    out.write(newline);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Streamed {} notifications between {} and {}", streamed, from, to);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private Map<String, Object> pageResponse(CursorPage<NotificationDto> page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("notifications", page.items());
+        response.put("nextCursor", page.nextCursor());
+        response.put("size", page.items().size());
+        return response;
+    }
+
     /**
      * Delete notification by ID
      * DELETE /api/v1/notifications/{id}/delete
@@ -213,6 +343,23 @@ public class NotificationController {
         }
     }
 
+    /**
+     * Re-inject dead-lettered records into the notification retry topic
+     * POST /api/v1/notifications/dlt/replay?topic=outbox.event.Order-notification-dlt
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "100") int max) {
+        logger.info("Replaying up to {} records from {}", max, topic);
+        int replayed = dltReplayService.replay(topic, max);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("topic", topic);
+        response.put("replayed", replayed);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Health check endpoint
      */
@@ -0,0 +1,286 @@
+package com.distribute.notifications.counter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.distribute.notifications.dto.TypeHourCount;
+import com.distribute.notifications.entity.NotificationCountLock;
+import com.distribute.notifications.entity.NotificationCountRollup;
+import com.distribute.notifications.repository.NotificationCountLockRepository;
+import com.distribute.notifications.repository.NotificationCountRollupRepository;
+import com.distribute.notifications.repository.NotificationRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Notification counts per type and per hour, answered from memory instead of COUNT(*) scans.
+ *
+ * Inserts and deletes add to a LongAdder per (type, hour), which a scheduled flush moves into
+ * notification_count_rollups. After each flush the per-type and recent per-hour totals are
+ * reloaded from the rollup (a few rows per type and hour), so counts include every instance's
+ * writes up to the last flush plus this instance's unflushed ones.
+ * Hour buckets make countSince accurate to the hour.
+ *
+ * Seeding and reconciliation hold the notification_count_locks row exclusively and flushes hold
+ * it shared, so only one instance seeds an empty rollup and no flush lands halfway through a
+ * reconcile. Reconcile recounts settled hours (before the previous one) with a GROUP BY over the
+ * notifications table and rewrites the buckets that drifted, e.g. after a flush was lost in a crash.
+ * A delete of an old notification still unflushed on another instance at that moment is counted
+ * twice, until the following reconcile.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationCounters {
+
+    // Per-hour totals kept in memory; countSince answers windows up to this far back
+    private static final int RETAINED_HOURS = 48;
+
+    private final NotificationCountRollupRepository rollupRepository;
+    private final NotificationCountLockRepository lockRepository;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<BucketKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new TreeMap<>());
+
+    /**
+     * Seed the rollup from the base table on first start, then load the totals.
+     */
+    @PostConstruct
+    public void load() {
+        createLockRow();
+        transactionTemplate.executeWithoutResult(status -> {
+            lockRepository.findExclusiveById(NotificationCountLock.ROLLUP);
+            // Checked under the lock: an instance that waited here sees the rows the first one seeded
+            if (rollupRepository.count() == 0) {
+                seedFromNotifications();
+            }
+        });
+        reload();
+    }
+
+    /**
+     * Count a created (+1) or deleted (-1) notification. Inside a transaction the change is
+     * undone if the transaction rolls back.
+     */
+    public void record(String type, LocalDateTime createdAt, long delta) {
+        BucketKey key = new BucketKey(type, bucketOf(createdAt != null ? createdAt : LocalDateTime.now()));
+        add(key, delta);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        add(key, -delta);
+                    }
+                }
+            });
+        }
+    }
+
+    public long countByType(String type) {
+        long count = snapshot.byType().getOrDefault(type, 0L);
+        for (Map.Entry<BucketKey, LongAdder> entry : pending.entrySet()) {
+            if (entry.getKey().type().equals(type)) {
+                count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Notifications created since the hour containing from (at most RETAINED_HOURS back).
+     */
+    public long countSince(LocalDateTime from) {
+        LocalDateTime firstBucket = bucketOf(from);
+        long count = 0;
+        for (long bucketCount : snapshot.byHour().tailMap(firstBucket, true).values()) {
+            count += bucketCount;
+        }
+        for (Map.Entry<BucketKey, LongAdder> entry : pending.entrySet()) {
+            if (!entry.getKey().bucketStart().isBefore(firstBucket)) {
+                count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<BucketKey, Long> deltas = new HashMap<>();
+        LocalDateTime retireBefore = bucketOf(LocalDateTime.now()).minusHours(1);
+
+        for (Map.Entry<BucketKey, LongAdder> entry : pending.entrySet()) {
+            // getAndSet per cell: an add racing with this is either taken now or left for the next flush
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+            // Old hours only change on deletes; drop their adders and fold back anything that raced in
+            if (entry.getKey().bucketStart().isBefore(retireBefore) && pending.remove(entry.getKey(), entry.getValue())) {
+                long raced = entry.getValue().sumThenReset();
+                if (raced != 0) {
+                    add(entry.getKey(), raced);
+                }
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lockRepository.findSharedById(NotificationCountLock.ROLLUP);
+                    deltas.forEach(this::writeDelta);
+                });
+            } catch (RuntimeException e) {
+                // e.g. another instance inserted the same bucket first; keep the deltas for the next flush
+                log.warn("Count rollup flush failed, retrying next interval: {}", e.getMessage());
+                deltas.forEach(this::add);
+                return;
+            }
+        }
+        reload();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Rewrite the settled buckets that differ from a recount of the notifications table.
+     *
+     * @return number of buckets corrected
+     */
+    @Scheduled(initialDelayString = "${notification.counters.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${notification.counters.reconcile-interval-ms:3600000}")
+    public synchronized int reconcile() {
+        // This instance's deltas go in first, so only other instances' unflushed ones can race
+        flush();
+        LocalDateTime settledBefore = bucketOf(LocalDateTime.now()).minusHours(1);
+
+        Integer corrected = transactionTemplate.execute(status -> {
+            lockRepository.findExclusiveById(NotificationCountLock.ROLLUP);
+
+            Map<BucketKey, NotificationCountRollup> rollups = new HashMap<>();
+            for (NotificationCountRollup rollup : rollupRepository.findByBucketStartBefore(settledBefore)) {
+                rollups.put(new BucketKey(rollup.getType(), rollup.getBucketStart()), rollup);
+            }
+
+            int changed = 0;
+            for (TypeHourCount count : notificationRepository.countByTypeAndHourBefore(settledBefore)) {
+                NotificationCountRollup rollup = rollups.remove(new BucketKey(count.type(), count.bucketStart()));
+                if (rollup == null) {
+                    rollupRepository.save(NotificationCountRollup.builder()
+                            .type(count.type())
+                            .bucketStart(count.bucketStart())
+                            .count(count.count())
+                            .build());
+                    changed++;
+                } else if (rollup.getCount() != count.count()) {
+                    rollup.setCount(count.count());
+                    changed++;
+                }
+            }
+            // Buckets left over have no notifications any more
+            for (NotificationCountRollup rollup : rollups.values()) {
+                if (rollup.getCount() != 0) {
+                    rollup.setCount(0);
+                    changed++;
+                }
+            }
+            return changed;
+        });
+
+        if (corrected != null && corrected > 0) {
+            log.warn("Reconciled {} notification count buckets that had drifted", corrected);
+        }
+        reload();
+        return corrected != null ? corrected : 0;
+    }
+
+    private void writeDelta(BucketKey key, long delta) {
+        if (rollupRepository.addToCount(key.type(), key.bucketStart(), delta) == 0) {
+            rollupRepository.save(NotificationCountRollup.builder()
+                    .type(key.type())
+                    .bucketStart(key.bucketStart())
+                    .count(delta)
+                    .build());
+        }
+    }
+
+    private void reload() {
+        Map<String, Long> byType = new HashMap<>();
+        for (Object[] row : rollupRepository.sumByType()) {
+            byType.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        NavigableMap<LocalDateTime, Long> byHour = new TreeMap<>();
+        LocalDateTime from = bucketOf(LocalDateTime.now()).minusHours(RETAINED_HOURS);
+        for (Object[] row : rollupRepository.sumByBucketSince(from)) {
+            byHour.put((LocalDateTime) row[0], ((Number) row[1]).longValue());
+        }
+
+        snapshot = new Snapshot(byType, byHour);
+    }
+
+    private void seedFromNotifications() {
+        int buckets = 0;
+        for (TypeHourCount count : notificationRepository.countByTypeAndHour()) {
+            rollupRepository.save(NotificationCountRollup.builder()
+                    .type(count.type())
+                    .bucketStart(count.bucketStart())
+                    .count(count.count())
+                    .build());
+            buckets++;
+        }
+        if (buckets > 0) {
+            log.info("Seeded notification count rollup with {} buckets", buckets);
+        }
+    }
+
+    private void createLockRow() {
+        if (lockRepository.existsById(NotificationCountLock.ROLLUP)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.saveAndFlush(new NotificationCountLock(NotificationCountLock.ROLLUP)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            log.debug("Count rollup lock row already created: {}", e.getMessage());
+        }
+    }
+
+    private void add(BucketKey key, long delta) {
+        pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    private static LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record BucketKey(String type, LocalDateTime bucketStart) {
+    }
+
+    private record Snapshot(Map<String, Long> byType, NavigableMap<LocalDateTime, Long> byHour) {
+    }
+}
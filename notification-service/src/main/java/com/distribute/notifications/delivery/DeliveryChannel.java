@@ -0,0 +1,17 @@
+package com.distribute.notifications.delivery;
+
+import com.distribute.notifications.dto.NotificationDto;
+
+/**
+ * One way of getting a notification to the customer. Implementations are called from the
+ * channel's own worker pool and may block; throwing marks the attempt as failed.
+ */
+public interface DeliveryChannel {
+
+    /**
+     * Key used in notification.delivery.channels.* configuration and metrics.
+     */
+    String name();
+
+    void deliver(NotificationDto notification) throws Exception;
+}
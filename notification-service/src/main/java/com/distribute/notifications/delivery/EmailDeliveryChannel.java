@@ -0,0 +1,19 @@
+package com.distribute.notifications.delivery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EmailDeliveryChannel extends StubDeliveryChannel {
+
+    public EmailDeliveryChannel(
+            @Value("${notification.delivery.channels.email.stub-latency-ms:50}") long latencyMs,
+            @Value("${notification.delivery.channels.email.stub-failure-rate:0.0}") double failureRate) {
+        super(latencyMs, failureRate);
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+}
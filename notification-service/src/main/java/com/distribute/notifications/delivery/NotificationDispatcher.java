@@ -0,0 +1,292 @@
+package com.distribute.notifications.delivery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.distribute.notifications.dto.NotificationDto;
+import com.distribute.notifications.entity.DeliveryStatus;
+import com.distribute.notifications.service.NotificationService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers stored notifications over every DeliveryChannel without holding up ingestion.
+ *
+ * Each channel has its own bounded queue and worker pool
+ * (notification.delivery.channels.<name>.concurrency / queue-capacity), so a slow channel
+ * only backs up itself. Failed attempts are retried with exponential backoff on the
+ * channel's worker. When any queue passes the high watermark the Kafka listener is paused,
+ * and it is resumed once every queue drains below the low watermark. Notifications that
+ * could not be queued stay PENDING and are picked up again by redispatchPending.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher implements DisposableBean {
+
+    public static final String LISTENER_ID = "notification-events";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final List<ChannelWorker> workers;
+    private final NotificationService notificationService;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean paused = new AtomicBoolean();
+
+    @Value("${notification.delivery.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.delivery.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+
+    @Value("${notification.delivery.pause-at:0.8}")
+    private double pauseAt;
+
+    @Value("${notification.delivery.resume-at:0.5}")
+    private double resumeAt;
+
+    @Value("${notification.delivery.redispatch-after-seconds:60}")
+    private long redispatchAfterSeconds;
+
+    @Value("${notification.delivery.redispatch-batch-size:500}")
+    private int redispatchBatchSize;
+
+    public NotificationDispatcher(List<DeliveryChannel> channels, Environment environment,
+            NotificationService notificationService, KafkaListenerEndpointRegistry listenerRegistry,
+            MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.listenerRegistry = listenerRegistry;
+        this.meterRegistry = meterRegistry;
+        this.workers = channels.stream()
+                .map(channel -> new ChannelWorker(channel,
+                        environment.getProperty("notification.delivery.channels." + channel.name() + ".concurrency",
+                                Integer.class, 4),
+                        environment.getProperty("notification.delivery.channels." + channel.name() + ".queue-capacity",
+                                Integer.class, 1000)))
+                .toList();
+        Gauge.builder("notification.delivery.listener.paused", paused, p -> p.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue stored notifications for delivery; never blocks.
+     * @return number of notifications queued, the rest stay PENDING
+     */
+    public int dispatch(List<NotificationDto> notifications) {
+        int queued = 0;
+        for (NotificationDto notification : notifications) {
+            if (dispatch(notification)) {
+                queued++;
+            }
+        }
+        applyBackpressure();
+        return queued;
+    }
+
+    private boolean dispatch(NotificationDto notification) {
+        // All or nothing, so a later redispatch never repeats a channel that already delivered
+        if (workers.isEmpty() || workers.stream().anyMatch(ChannelWorker::isFull)
+                || !inFlight.add(notification.getId())) {
+            return false;
+        }
+
+        Delivery delivery = new Delivery(notification, workers.size());
+        for (ChannelWorker worker : workers) {
+            worker.submit(delivery);
+        }
+        return true;
+    }
+
+    /**
+     * Pick up notifications that could not be queued (or were queued by an instance that died).
+     */
+    @Scheduled(fixedDelayString = "${notification.delivery.redispatch-interval-ms:30000}")
+    public void redispatchPending() {
+        if (paused.get()) {
+            return;
+        }
+        List<NotificationDto> pending = notificationService.findPendingDeliveries(
+                LocalDateTime.now().minusSeconds(redispatchAfterSeconds), redispatchBatchSize);
+        if (!pending.isEmpty()) {
+            log.info("Redispatching {} pending notifications, {} queued", pending.size(), dispatch(pending));
+        }
+    }
+
+    private void applyBackpressure() {
+        double fill = workers.stream().mapToDouble(ChannelWorker::fill).max().orElse(0);
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+
+        if (fill >= pauseAt && paused.compareAndSet(false, true)) {
+            log.warn("Delivery queues {}% full, pausing notification listener", Math.round(fill * 100));
+            container.pause();
+        } else if (fill <= resumeAt && paused.compareAndSet(true, false)) {
+            log.info("Delivery queues drained, resuming notification listener");
+            container.resume();
+        }
+    }
+
+    private void complete(Delivery delivery) {
+        NotificationDto notification = delivery.notification;
+        DeliveryStatus status = delivery.failed ? DeliveryStatus.FAILED : DeliveryStatus.SENT;
+        try {
+            notificationService.recordDelivery(notification.getId(), status, delivery.attempts.get(),
+                    status == DeliveryStatus.SENT ? LocalDateTime.now() : null, truncate(delivery.error));
+        } catch (Exception e) {
+            // Stays PENDING and is redispatched; channels may then deliver it twice
+            log.error("Could not record delivery of notification {}", notification.getId(), e);
+        } finally {
+            inFlight.remove(notification.getId());
+        }
+        applyBackpressure();
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ChannelWorker worker : workers) {
+            worker.executor.shutdown();
+        }
+        for (ChannelWorker worker : workers) {
+            worker.executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * One notification across all channels; the last channel to finish records the outcome.
+     */
+    private static final class Delivery {
+
+        private final NotificationDto notification;
+        private final AtomicInteger remaining;
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean failed;
+        private volatile String error;
+
+        Delivery(NotificationDto notification, int channels) {
+            this.notification = notification;
+            this.remaining = new AtomicInteger(channels);
+        }
+    }
+
+    private final class ChannelWorker {
+
+        private final DeliveryChannel channel;
+        private final ThreadPoolExecutor executor;
+        private final int capacity;
+        private final Counter sent;
+        private final Counter failed;
+        private final Counter retried;
+
+        ChannelWorker(DeliveryChannel channel, int concurrency, int capacity) {
+            this.channel = channel;
+            this.capacity = capacity;
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    new CustomizableThreadFactory("delivery-" + channel.name() + "-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.sent = counter("sent");
+            this.failed = counter("failed");
+            this.retried = counter("retried");
+            Gauge.builder("notification.delivery.queue.size", executor, e -> e.getQueue().size())
+                    .tag("channel", channel.name())
+                    .register(meterRegistry);
+        }
+
+        boolean isFull() {
+            return executor.getQueue().remainingCapacity() == 0;
+        }
+
+        double fill() {
+            return (double) executor.getQueue().size() / capacity;
+        }
+
+        void submit(Delivery delivery) {
+            try {
+                executor.execute(() -> deliver(delivery));
+            } catch (RejectedExecutionException e) {
+                // Lost the race for the last slots after the capacity check
+                finish(delivery, false, 0, channel.name() + ": queue full");
+            }
+        }
+
+        private void deliver(Delivery delivery) {
+            long backoff = initialBackoffMs;
+            String error = null;
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    channel.deliver(delivery.notification);
+                    sent.increment();
+                    finish(delivery, true, attempt, null);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = channel.name() + ": interrupted";
+                    break;
+                } catch (Exception e) {
+                    error = channel.name() + ": " + e.getMessage();
+                    log.warn("[{}] attempt {}/{} failed for notification {}: {}",
+                            channel.name(), attempt, maxAttempts, delivery.notification.getId(), e.getMessage());
+                }
+
+                if (attempt < maxAttempts) {
+                    retried.increment();
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    backoff *= 2;
+                }
+            }
+            failed.increment();
+            finish(delivery, false, maxAttempts, error);
+        }
+
+        private void finish(Delivery delivery, boolean success, int attempts, String error) {
+            delivery.attempts.addAndGet(attempts);
+            if (!success) {
+                delivery.failed = true;
+                delivery.error = error;
+            }
+            if (delivery.remaining.decrementAndGet() == 0) {
+                complete(delivery);
+            }
+        }
+
+        private Counter counter(String outcome) {
+            return Counter.builder("notification.delivery")
+                    .tag("channel", channel.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.distribute.notifications.delivery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SmsDeliveryChannel extends StubDeliveryChannel {
+
+    public SmsDeliveryChannel(
+            @Value("${notification.delivery.channels.sms.stub-latency-ms:100}") long latencyMs,
+            @Value("${notification.delivery.channels.sms.stub-failure-rate:0.0}") double failureRate) {
+        super(latencyMs, failureRate);
+    }
+
+    @Override
+    public String name() {
+        return "sms";
+    }
+}
@@ -0,0 +1,35 @@
+package com.distribute.notifications.delivery;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.distribute.notifications.dto.NotificationDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for a provider: waits a configurable latency and fails a configurable
+ * fraction of attempts, so retries and backpressure can be exercised without a provider.
+ */
+@Slf4j
+abstract class StubDeliveryChannel implements DeliveryChannel {
+
+    private final long latencyMs;
+    private final double failureRate;
+
+    StubDeliveryChannel(long latencyMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void deliver(NotificationDto notification) throws Exception {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException(name() + " provider rejected notification " + notification.getId());
+        }
+        log.debug("[{}] delivered notification {} for order {}: {}",
+                name(), notification.getId(), notification.getOrderId(), notification.getMessage());
+    }
+}
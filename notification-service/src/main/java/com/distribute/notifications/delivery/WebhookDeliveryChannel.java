@@ -0,0 +1,19 @@
+package com.distribute.notifications.delivery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WebhookDeliveryChannel extends StubDeliveryChannel {
+
+    public WebhookDeliveryChannel(
+            @Value("${notification.delivery.channels.webhook.stub-latency-ms:200}") long latencyMs,
+            @Value("${notification.delivery.channels.webhook.stub-failure-rate:0.0}") double failureRate) {
+        super(latencyMs, failureRate);
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+}
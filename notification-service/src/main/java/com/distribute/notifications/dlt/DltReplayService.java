@@ -0,0 +1,119 @@
+package com.distribute.notifications.dlt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import com.distribute.notifications.config.KafkaConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-injects records from outbox.event.Order-notification-dlt into the replay topic the
+ * notification batch listener also consumes. Batch listeners have no retry topics; failures
+ * are retried in place and dead-lettered by the container's error handler.
+ *
+ * Progress is kept as committed offsets of a dedicated replay group, so each
+ * dead-lettered record is replayed once.
+ */
+@Slf4j
+@Service
+public class DltReplayService {
+
+    private static final String REPLAY_GROUP_PREFIX = "dlt-replay-";
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    // DLT topic of each listener -> topic its replays are sent to
+    private final Map<String, String> replayTargets;
+
+    public DltReplayService(ConsumerFactory<String, String> consumerFactory,
+                            KafkaTemplate<String, String> kafkaTemplate) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.replayTargets = Map.of(KafkaConfig.DLT_TOPIC, KafkaConfig.REPLAY_TOPIC);
+    }
+
+    public int replay(String dltTopic, int maxRecords) {
+        String targetTopic = dltTopic != null ? replayTargets.get(dltTopic) : null;
+        if (targetTopic == null) {
+            throw new IllegalArgumentException(
+                    "Not a dead-letter topic of this service: " + dltTopic + ", expected one of " + replayTargets.keySet());
+        }
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        try (Consumer<String, String> consumer =
+                     consumerFactory.createConsumer(REPLAY_GROUP_PREFIX + dltTopic, null, null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(dltTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+
+            // Snapshot the end, records dead-lettered while replaying wait for the next call
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>();
+
+            while (sends.size() < maxRecords && !caughtUp(consumer, endOffsets)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() >= maxRecords || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+
+                    sends.add(kafkaTemplate.send(toReplay(record, targetTopic)));
+                    replayedOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            // Only move the replay group forward once every re-injected record is acknowledged
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+            if (!replayedOffsets.isEmpty()) {
+                consumer.commitSync(replayedOffsets);
+            }
+
+            log.info("Replayed {} records from {} into {}", sends.size(), dltTopic, targetTopic);
+            return sends.size();
+        }
+    }
+
+    private ProducerRecord<String, String> toReplay(ConsumerRecord<String, String> record, String targetTopic) {
+        ProducerRecord<String, String> replay = new ProducerRecord<>(targetTopic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            // The DLT exception headers must not follow the record, it is a fresh attempt
+            if (!header.key().startsWith(KafkaHeaders.PREFIX + "dlt-")) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+
+    private boolean caughtUp(Consumer<String, String> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+}
@@ -0,0 +1,9 @@
+package com.distribute.notifications.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page; nextCursor is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
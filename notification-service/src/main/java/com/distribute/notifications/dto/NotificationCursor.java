@@ -0,0 +1,36 @@
+package com.distribute.notifications.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: (createdAt, id) for pages ordered by time,
+ * id alone for pages ordered by id. Sent to clients as an opaque base64url token.
+ */
+public record NotificationCursor(LocalDateTime createdAt, int id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static NotificationCursor first(LocalDateTime createdAt) {
+        return new NotificationCursor(createdAt, 0);
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            String createdAt = raw.substring(0, separator);
+            return new NotificationCursor(createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
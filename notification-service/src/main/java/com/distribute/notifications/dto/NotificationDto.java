@@ -1,5 +1,6 @@
 package com.distribute.notifications.dto;
 
+import com.distribute.notifications.entity.DeliveryStatus;
 import com.distribute.notifications.entity.Notification;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
@@ -30,6 +31,11 @@ public class NotificationDto {
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdAt;
+
+    private DeliveryStatus deliveryStatus;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime deliveredAt;
     
     public NotificationDto(Integer orderId, String type, String message) {
         this.orderId = orderId;
@@ -44,6 +50,8 @@ public class NotificationDto {
                 .type(notification.getType())
                 .message(notification.getMessage())
                 .createdAt(notification.getCreatedAt())
+                .deliveryStatus(notification.getDeliveryStatus())
+                .deliveredAt(notification.getDeliveredAt())
                 .build();
     }
 
@@ -0,0 +1,13 @@
+package com.distribute.notifications.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of notifications of one type created in one hour, as grouped by the database.
+ */
+public record TypeHourCount(String type, Integer year, Integer month, Integer day, Integer hour, Long count) {
+
+    public LocalDateTime bucketStart() {
+        return LocalDateTime.of(year, month, day, hour, 0);
+    }
+}
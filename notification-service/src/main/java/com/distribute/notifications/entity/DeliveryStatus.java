@@ -0,0 +1,7 @@
+package com.distribute.notifications.entity;
+
+public enum DeliveryStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
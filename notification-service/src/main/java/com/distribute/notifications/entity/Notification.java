@@ -6,9 +6,13 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,15 +20,27 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // InnoDB appends the primary key to every secondary index, so these also serve the
+    // (.., id) keyset order of the paged queries
+    @Index(name = "idx_notifications_order_type", columnList = "order_id, type"),
+    @Index(name = "idx_notifications_type_created", columnList = "type, created_at"),
+    @Index(name = "idx_notifications_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Notification {
     
+    /**
+     * Pooled sequence instead of IDENTITY: ids are known before the insert, so Hibernate can
+     * batch the inserts (on MySQL the sequence is emulated by the notifications_seq table,
+     * hit once per allocationSize ids).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_id")
+    @SequenceGenerator(name = "notification_id", sequenceName = "notifications_seq", allocationSize = 100)
     private Integer id;
     
     @Column(name = "order_id", nullable = false)
@@ -39,10 +55,29 @@ public class Notification {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    /**
+     * Outcome of delivering over every enabled channel; rows written before delivery
+     * existed have no status and are never delivered.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "delivery_status", length = 16)
+    @Builder.Default
+    private DeliveryStatus deliveryStatus = DeliveryStatus.PENDING;
+
+    @Column(name = "delivery_attempts")
+    private Integer deliveryAttempts;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(name = "delivery_error", length = 500)
+    private String deliveryError;
     
     public Notification(Integer orderId, String type, String message) {
         this.orderId = orderId;
         this.type = type;
         this.message = message;
+        this.deliveryStatus = DeliveryStatus.PENDING;
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.distribute.notifications.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row that orders count rollup flushes against seeding and reconciliation: flushes
+ * hold it shared, seeding and reconciliation hold it exclusively.
+ */
+@Entity
+@Table(name = "notification_count_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCountLock {
+
+    public static final int ROLLUP = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+}
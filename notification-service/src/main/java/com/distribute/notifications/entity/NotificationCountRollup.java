@@ -0,0 +1,41 @@
+package com.distribute.notifications.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of notifications of one type created in one hour, maintained by NotificationCounters.
+ */
+@Entity
+@Table(name = "notification_count_rollups", uniqueConstraints =
+    @UniqueConstraint(name = "uk_notification_count_type_bucket", columnNames = {"type", "bucket_start"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCountRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "count", nullable = false)
+    private long count;
+}
@@ -0,0 +1,21 @@
+package com.distribute.notifications.repository;
+
+import com.distribute.notifications.entity.NotificationCountLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NotificationCountLockRepository extends JpaRepository<NotificationCountLock, Integer> {
+
+    // Held by every flush; flushes do not block each other
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<NotificationCountLock> findSharedById(Integer id);
+
+    // Held while seeding or reconciling; waits for the flushes in progress and holds back new ones
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<NotificationCountLock> findExclusiveById(Integer id);
+}
@@ -0,0 +1,37 @@
+package com.distribute.notifications.repository;
+
+import com.distribute.notifications.entity.NotificationCountRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationCountRollupRepository extends JpaRepository<NotificationCountRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE NotificationCountRollup r SET r.count = r.count + :delta "
+            + "WHERE r.type = :type AND r.bucketStart = :bucketStart")
+    int addToCount(@Param("type") String type,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("delta") long delta);
+
+    List<NotificationCountRollup> findByBucketStartBefore(LocalDateTime before);
+
+    /**
+     * [type, total]
+     */
+    @Query("SELECT r.type, SUM(r.count) FROM NotificationCountRollup r GROUP BY r.type")
+    List<Object[]> sumByType();
+
+    /**
+     * [bucketStart, total across types]
+     */
+    @Query("SELECT r.bucketStart, SUM(r.count) FROM NotificationCountRollup r "
+            + "WHERE r.bucketStart >= :from GROUP BY r.bucketStart")
+    List<Object[]> sumByBucketSince(@Param("from") LocalDateTime from);
+}
@@ -1,9 +1,13 @@
 package com.distribute.notifications.repository;
 
+import com.distribute.notifications.dto.TypeHourCount;
+import com.distribute.notifications.entity.DeliveryStatus;
 import com.distribute.notifications.entity.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -32,9 +36,83 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     
     Long countByType(String type);
     
-    void deleteByOrderId(Integer orderId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Integer orderId);
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.createdAt >= :date")
     Long countNotificationsAfterDate(@Param("date") LocalDateTime date);
+
+    List<Notification> findByDeliveryStatusAndCreatedAtBeforeOrderByIdAsc(DeliveryStatus deliveryStatus,
+                                                                         LocalDateTime createdAt,
+                                                                         Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.deliveryStatus = :status, n.deliveryAttempts = :attempts, "
+            + "n.deliveredAt = :deliveredAt, n.deliveryError = :error WHERE n.id = :id")
+    int updateDelivery(@Param("id") Integer id,
+                       @Param("status") DeliveryStatus status,
+                       @Param("attempts") Integer attempts,
+                       @Param("deliveredAt") LocalDateTime deliveredAt,
+                       @Param("error") String error);
+
+    // Keyset pages: each query seeks into an index and reads at most limit rows
+
+    @Query("SELECT n FROM Notification n WHERE n.id > :afterId ORDER BY n.id")
+    List<Notification> findPageAfterId(@Param("afterId") Integer afterId, Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.orderId = :orderId AND n.id > :afterId ORDER BY n.id")
+    List<Notification> findPageByOrderId(@Param("orderId") Integer orderId,
+                                         @Param("afterId") Integer afterId,
+                                         Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.orderId = :orderId AND n.type = :type AND n.id > :afterId "
+            + "ORDER BY n.id")
+    List<Notification> findPageByOrderIdAndType(@Param("orderId") Integer orderId,
+                                                @Param("type") String type,
+                                                @Param("afterId") Integer afterId,
+                                                Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.type = :type "
+            + "AND (n.createdAt > :afterCreatedAt OR (n.createdAt = :afterCreatedAt AND n.id > :afterId)) "
+            + "ORDER BY n.createdAt, n.id")
+    List<Notification> findPageByType(@Param("type") String type,
+                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                      @Param("afterId") Integer afterId,
+                                      Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.createdAt <= :endDate "
+            + "AND (n.createdAt > :afterCreatedAt OR (n.createdAt = :afterCreatedAt AND n.id > :afterId)) "
+            + "ORDER BY n.createdAt, n.id")
+    List<Notification> findPageByCreatedAtUpTo(@Param("endDate") LocalDateTime endDate,
+                                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                 @Param("afterId") Integer afterId,
+                                                 Limit limit);
+
+    /**
+     * Counts of the whole table, used once to seed the count rollup
+     */
+    @Query("SELECT new com.distribute.notifications.dto.TypeHourCount(n.type, YEAR(n.createdAt), MONTH(n.createdAt), "
+            + "DAY(n.createdAt), HOUR(n.createdAt), COUNT(n)) "
+            + "FROM Notification n "
+            + "GROUP BY n.type, YEAR(n.createdAt), MONTH(n.createdAt), DAY(n.createdAt), HOUR(n.createdAt)")
+    List<TypeHourCount> countByTypeAndHour();
+
+    /**
+     * Counts of the notifications created before the given time, to reconcile the count rollup
+     */
+    @Query("SELECT new com.distribute.notifications.dto.TypeHourCount(n.type, YEAR(n.createdAt), MONTH(n.createdAt), "
+            + "DAY(n.createdAt), HOUR(n.createdAt), COUNT(n)) "
+            + "FROM Notification n WHERE n.createdAt < :before "
+            + "GROUP BY n.type, YEAR(n.createdAt), MONTH(n.createdAt), DAY(n.createdAt), HOUR(n.createdAt)")
+    List<TypeHourCount> countByTypeAndHourBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Counts of one order's notifications, taken before they are bulk deleted
+     */
+    @Query("SELECT new com.distribute.notifications.dto.TypeHourCount(n.type, YEAR(n.createdAt), MONTH(n.createdAt), "
+            + "DAY(n.createdAt), HOUR(n.createdAt), COUNT(n)) "
+            + "FROM Notification n WHERE n.orderId = :orderId "
+            + "GROUP BY n.type, YEAR(n.createdAt), MONTH(n.createdAt), DAY(n.createdAt), HOUR(n.createdAt)")
+    List<TypeHourCount> countByTypeAndHourForOrder(@Param("orderId") Integer orderId);
 }
-    
\ No newline at end of file
@@ -1,17 +1,24 @@
 package com.distribute.notifications.service;
 
+import com.distribute.notifications.config.KafkaConfig;
+import com.distribute.notifications.delivery.NotificationDispatcher;
 import com.distribute.notifications.dto.NotificationDto;
 import com.distribute.notifications.entity.NotificationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Component
 public class NotificationEventListener {
@@ -19,74 +26,102 @@ public class NotificationEventListener {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    private static final String EVENT_TYPE_HEADER = "eventType";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
-     * Listen to Order events from Debezium CDC
-     * Topic: outbox.event.Order
+     * Listen to Order events from Debezium CDC, one poll at a time
+     * Topic: outbox.event.Order (and its DLT replay topic)
      * Only processes events with eventType = NOTIFICATION_SEND
+     * All notifications of the poll are written in one transaction with batched inserts,
+     * then the container commits the poll's offsets. Delivery happens asynchronously after
+     * the insert; the dispatcher pauses this listener while its queues are full
      */
-    @KafkaListener(topics = "outbox.event.Order", groupId = "notification-service-group")
-    public void onOrderEvent(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
-        
-        log.info("Received order event from topic: {}, partition: {}, offset: {}, eventType: {}", 
-                topic, partition, offset, eventType);
-        log.debug("Message content: {}", message);
-        
-        try {
+    @KafkaListener(
+        id = NotificationDispatcher.LISTENER_ID,
+        topics = {KafkaConfig.ORDER_EVENTS_TOPIC, KafkaConfig.REPLAY_TOPIC},
+        groupId = "notification-service-group",
+        containerFactory = "notificationBatchContainerFactory"
+    )
+    public void onOrderEvents(List<ConsumerRecord<String, String>> records) {
+        log.info("Received {} order events", records.size());
+
+        List<NotificationDto> notifications = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            String eventType = headerValue(record, EVENT_TYPE_HEADER);
+
             // ✅ Only process NOTIFICATION_SEND events (from Kafka header)
             if (!"NOTIFICATION_SEND".equals(eventType)) {
                 log.debug("Skipping event - eventType: {} (not NOTIFICATION_SEND)", eventType);
-                return;
+                continue;
             }
-            
-            log.info("Processing NOTIFICATION_SEND event");
-            
-            // Parse the payload (already transformed by Debezium Outbox Router)
-            // Message has schema + payload structure, extract payload
-            JsonNode rootNode = objectMapper.readTree(message);
-            JsonNode payloadNode;
-            
-            if (rootNode.has("payload") && rootNode.has("schema")) {
-                // Payload is expanded as JSON object
-                payloadNode = rootNode.get("payload");
-            } else {
-                // Fallback: parse directly
-                payloadNode = rootNode;
+
+            try {
+                notifications.add(toNotification(record.value()));
+            } catch (JsonProcessingException e) {
+                log.error("Malformed order event at {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), record.value(), e);
+                // The records before this one are committed and this one is dead-lettered,
+                // so store the earlier ones first
+                store(notifications);
+                throw new BatchListenerFailedException("Malformed NOTIFICATION_SEND payload", e, i);
             }
-            
-            // Extract notification data from payload
-            Integer orderId = payloadNode.path("orderId").asInt();
-            String notificationType = payloadNode.path("type").asText();
-            String notificationMessage = payloadNode.path("message").asText();
-            
-            log.info("Processing notification - OrderId: {}, Type: {}, Message: {}", 
-                    orderId, notificationType, notificationMessage);
-
-            // Create notification
-            NotificationDto notification = NotificationDto.builder()
-                    .orderId(orderId)
-                    .type(mapNotificationType(notificationType))
-                    .message(notificationMessage)
-                    .build();
-
-            notificationService.createNotification(notification);
-            log.info("✅ Successfully created notification for order: {}", orderId);
-
-        } catch (Exception e) {
-            log.error("Error processing order event: {}", message, e);
         }
+
+        store(notifications);
+    }
+
+    private void store(List<NotificationDto> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        List<NotificationDto> saved = notificationService.createNotifications(notifications);
+        int queued = notificationDispatcher.dispatch(saved);
+        log.info("✅ Successfully created {} notifications, {} queued for delivery", saved.size(), queued);
+    }
+
+    /**
+     * Parse the payload (already transformed by Debezium Outbox Router)
+     * Package-private for the benchmarks module
+     */
+    NotificationDto toNotification(String message) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(message);
+
+        // Message may have schema + payload structure, extract payload
+        JsonNode payloadNode = rootNode.has("payload") && rootNode.has("schema")
+                ? rootNode.get("payload")
+                : rootNode;
+
+        Integer orderId = payloadNode.path("orderId").asInt();
+        String notificationType = payloadNode.path("type").asText();
+        String notificationMessage = payloadNode.path("message").asText();
+
+        log.debug("Processing notification - OrderId: {}, Type: {}, Message: {}",
+                orderId, notificationType, notificationMessage);
+
+        return NotificationDto.builder()
+                .orderId(orderId)
+                .type(mapNotificationType(notificationType))
+                .message(notificationMessage)
+                .build();
+    }
+
+    private String headerValue(ConsumerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
     }
 
     /**
      * Map notification type from payload to NotificationType enum
+     * Package-private for the benchmarks module
      */
-    private String mapNotificationType(String type) {
+    String mapNotificationType(String type) {
         return switch (type) {
             case "ORDER_CREATED" -> NotificationType.ORDER_CONFIRMATION.name();
             case "ORDER_CONFIRMED" -> NotificationType.ORDER_CONFIRMATION.name();
@@ -1,19 +1,30 @@
 package com.distribute.notifications.service;
 
+import com.distribute.notifications.counter.NotificationCounters;
+import com.distribute.notifications.dto.CursorPage;
+import com.distribute.notifications.dto.NotificationCursor;
 import com.distribute.notifications.dto.NotificationDto;
+import com.distribute.notifications.dto.TypeHourCount;
+import com.distribute.notifications.entity.DeliveryStatus;
 import com.distribute.notifications.entity.Notification;
 import com.distribute.notifications.repository.NotificationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,9 +32,17 @@ import java.util.stream.Collectors;
 public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+    // Lower bound for time-ordered cursors that start at the beginning
+    private static final LocalDateTime FIRST_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final int STREAM_PAGE_SIZE = 1000;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationCounters notificationCounters;
+
     /**
      * Get notifications by order ID
      */
@@ -50,11 +69,59 @@ public class NotificationService {
     public NotificationDto createNotification(NotificationDto notificationDto) {
         logger.info("Creating notification for order: {}", notificationDto.getOrderId());
         Notification notification = notificationDto.toEntity();
+        // Saving with an existing id replaces that notification, so it moves between counters
+        Notification replaced = notificationDto.getId() != null
+                ? notificationRepository.findById(notificationDto.getId()).orElse(null)
+                : null;
+        LocalDateTime replacedCreatedAt = replaced != null ? replaced.getCreatedAt() : null;
+        String replacedType = replaced != null ? replaced.getType() : null;
+        if (replaced != null) {
+            notificationCounters.record(replacedType, replacedCreatedAt, -1);
+        }
         Notification savedNotification = notificationRepository.save(notification);
+        notificationCounters.record(savedNotification.getType(),
+                replaced != null ? replacedCreatedAt : savedNotification.getCreatedAt(), 1);
         logger.info("Successfully created notification with ID: {}", savedNotification.getId());
         return NotificationDto.fromEntity(savedNotification);
     }
 
+    /**
+     * Create notifications in one transaction; with a pooled id sequence and
+     * hibernate.jdbc.batch_size the inserts go out as JDBC batches
+     */
+    public List<NotificationDto> createNotifications(List<NotificationDto> notificationDtos) {
+        List<Notification> notifications = notificationDtos.stream()
+                .map(NotificationDto::toEntity)
+                .collect(Collectors.toList());
+        List<Notification> savedNotifications = notificationRepository.saveAll(notifications);
+        savedNotifications.forEach(saved -> notificationCounters.record(saved.getType(), saved.getCreatedAt(), 1));
+        logger.info("Successfully created {} notifications", savedNotifications.size());
+        return savedNotifications.stream()
+                .map(NotificationDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Record the outcome of delivering a notification over all channels
+     */
+    public void recordDelivery(Integer id, DeliveryStatus status, int attempts, LocalDateTime deliveredAt, String error) {
+        notificationRepository.updateDelivery(id, status, attempts, deliveredAt, error);
+        logger.debug("Notification {} delivery {} after {} attempts", id, status, attempts);
+    }
+
+    /**
+     * Notifications still waiting for delivery that were created before the given time
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationDto> findPendingDeliveries(LocalDateTime createdBefore, int limit) {
+        return notificationRepository
+                .findByDeliveryStatusAndCreatedAtBeforeOrderByIdAsc(DeliveryStatus.PENDING, createdBefore,
+                        PageRequest.of(0, limit))
+                .stream()
+                .map(NotificationDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Update an existing notification
      */
@@ -64,6 +131,10 @@ public class NotificationService {
 
         if (existingNotificationOpt.isPresent()) {
             Notification existingNotification = existingNotificationOpt.get();
+            if (!Objects.equals(existingNotification.getType(), notificationDto.getType())) {
+                notificationCounters.record(existingNotification.getType(), existingNotification.getCreatedAt(), -1);
+                notificationCounters.record(notificationDto.getType(), existingNotification.getCreatedAt(), 1);
+            }
             existingNotification.setType(notificationDto.getType());
             existingNotification.setMessage(notificationDto.getMessage());
 
@@ -123,8 +194,11 @@ public class NotificationService {
      */
     public boolean deleteNotification(Integer id) {
         logger.info("Deleting notification with ID: {}", id);
-        if (notificationRepository.existsById(id)) {
-            notificationRepository.deleteById(id);
+        Optional<Notification> notificationOpt = notificationRepository.findById(id);
+        if (notificationOpt.isPresent()) {
+            Notification notification = notificationOpt.get();
+            notificationRepository.delete(notification);
+            notificationCounters.record(notification.getType(), notification.getCreatedAt(), -1);
             logger.info("Successfully deleted notification with ID: {}", id);
             return true;
         }
@@ -138,24 +212,131 @@ public class NotificationService {
     @Transactional
     public void deleteNotificationsByOrderId(Integer orderId) {
         logger.info("Deleting all notifications for order ID: {}", orderId);
-        notificationRepository.deleteByOrderId(orderId);
-        logger.info("Successfully deleted all notifications for order ID: {}", orderId);
+        // One grouped read for the counters, then a single bulk DELETE instead of one per row
+        List<TypeHourCount> counts = notificationRepository.countByTypeAndHourForOrder(orderId);
+        int deleted = notificationRepository.deleteByOrderId(orderId);
+        long counted = 0;
+        for (TypeHourCount count : counts) {
+            notificationCounters.record(count.type(), count.bucketStart(), -count.count());
+            counted += count.count();
+        }
+        if (deleted != counted) {
+            // A notification for the order was written in between; the next reconcile corrects the counts
+            logger.warn("Deleted {} notifications for order ID {} but counted {}", deleted, orderId, counted);
+        }
+        logger.info("Successfully deleted {} notifications for order ID: {}", deleted, orderId);
     }
 
     /**
-     * Get notification count by type
+     * Get notification count by type, from the in-memory counters
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Long getNotificationCountByType(String type) {
         logger.debug("Counting notifications of type: {}", type);
-        return notificationRepository.countByType(type);
+        return notificationCounters.countByType(type);
     }
 
     /**
-     * Get recent notifications count (last 24 hours)
+     * Get recent notifications count (last 24 hours, to the hour), from the in-memory counters
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Long getRecentNotificationsCount() {
         LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
         logger.debug("Counting notifications after: {}", yesterday);
-        return notificationRepository.countNotificationsAfterDate(yesterday);
+        return notificationCounters.countSince(yesterday);
+    }
+
+    /**
+     * All notifications ordered by id, one keyset page after the cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsPage(String cursor, int size) {
+        NotificationCursor after = cursor != null ? NotificationCursor.decode(cursor) : NotificationCursor.first(null);
+        return idPage(notificationRepository.findPageAfterId(after.id(), Limit.of(size)), size);
+    }
+
+    /**
+     * Notifications of an order ordered by id, one keyset page after the cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsPageByOrderId(Integer orderId, String cursor, int size) {
+        NotificationCursor after = cursor != null ? NotificationCursor.decode(cursor) : NotificationCursor.first(null);
+        return idPage(notificationRepository.findPageByOrderId(orderId, after.id(), Limit.of(size)), size);
+    }
+
+    /**
+     * Notifications of an order and type ordered by id, one keyset page after the cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsPageByOrderIdAndType(Integer orderId, String type,
+                                                                            String cursor, int size) {
+        NotificationCursor after = cursor != null ? NotificationCursor.decode(cursor) : NotificationCursor.first(null);
+        return idPage(notificationRepository.findPageByOrderIdAndType(orderId, type, after.id(), Limit.of(size)), size);
+    }
+
+    /**
+     * Notifications of a type ordered by (createdAt, id), one keyset page after the cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsPageByType(String type, String cursor, int size) {
+        NotificationCursor after = timeCursor(cursor, FIRST_CREATED_AT);
+        return timePage(notificationRepository.findPageByType(type, after.createdAt(), after.id(), Limit.of(size)),
+                size);
+    }
+
+    /**
+     * Notifications created in [startDate, endDate] ordered by (createdAt, id), one keyset page after the cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsPageByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                                       String cursor, int size) {
+        NotificationCursor after = timeCursor(cursor, startDate);
+        return timePage(notificationRepository.findPageByCreatedAtUpTo(endDate, after.createdAt(), after.id(),
+                Limit.of(size)), size);
+    }
+
+    /**
+     * Hand every notification created in [startDate, endDate] to the sink, page by page.
+     * Each page is its own short read, so memory and transaction length do not grow with the range.
+     * Joins a caller transaction but never starts one: callers stream the output while this runs.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long streamNotificationsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                               Consumer<NotificationDto> sink) {
+        long streamed = 0;
+        String cursor = null;
+        do {
+            CursorPage<NotificationDto> page = getNotificationsPageByDateRange(startDate, endDate, cursor,
+                    STREAM_PAGE_SIZE);
+            page.items().forEach(sink);
+            streamed += page.items().size();
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return streamed;
+    }
+
+    private NotificationCursor timeCursor(String cursor, LocalDateTime start) {
+        NotificationCursor after = cursor != null ? NotificationCursor.decode(cursor) : NotificationCursor.first(start);
+        if (after.createdAt() == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return after;
+    }
+
+    private CursorPage<NotificationDto> idPage(List<Notification> rows, int size) {
+        return page(rows, size, last -> new NotificationCursor(null, last.getId()));
+    }
+
+    private CursorPage<NotificationDto> timePage(List<Notification> rows, int size) {
+        return page(rows, size, last -> new NotificationCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    private CursorPage<NotificationDto> page(List<Notification> rows, int size,
+                                             Function<Notification, NotificationCursor> cursorOf) {
+        List<NotificationDto> items = rows.stream()
+                .map(NotificationDto::fromEntity)
+                .collect(Collectors.toList());
+        String next = rows.size() < size ? null : cursorOf.apply(rows.get(rows.size() - 1)).encode();
+        return new CursorPage<>(items, next);
     }
 }
@@ -1,6 +1,11 @@
 package com.distribute.notifications;
 
+import com.distribute.notifications.counter.NotificationCounters;
+import com.distribute.notifications.dto.CursorPage;
 import com.distribute.notifications.dto.NotificationDto;
+import com.distribute.notifications.entity.Notification;
+import com.distribute.notifications.entity.NotificationCountRollup;
+import com.distribute.notifications.repository.NotificationCountRollupRepository;
 import com.distribute.notifications.repository.NotificationRepository;
 import com.distribute.notifications.service.NotificationService;
 import org.junit.jupiter.api.Test;
@@ -8,10 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +50,15 @@ class NotificationsApplicationTests {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationCountRollupRepository rollupRepository;
+
+    @Autowired
+    private NotificationCounters notificationCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void contextLoads() {
         assertThat(notificationService).isNotNull();
@@ -244,4 +262,115 @@ class NotificationsApplicationTests {
         assertThat(infoCount).isGreaterThanOrEqualTo(2);
         assertThat(alertCount).isGreaterThanOrEqualTo(1);
     }
+
+    @Test
+    void testCountersFollowInsertsUpdatesAndDeletes() {
+        // Given
+        long warningBefore = notificationService.getNotificationCountByType("warning");
+        long errorBefore = notificationService.getNotificationCountByType("error");
+        long recentBefore = notificationService.getRecentNotificationsCount();
+
+        NotificationDto first = notificationService.createNotification(NotificationDto.builder()
+                .orderId(7101).type("warning").message("Counter 1").build());
+        notificationService.createNotifications(List.of(
+                NotificationDto.builder().orderId(7102).type("warning").message("Counter 2").build(),
+                NotificationDto.builder().orderId(7102).type("warning").message("Counter 3").build()));
+
+        // When
+        notificationService.updateNotification(first.getId(), NotificationDto.builder()
+                .orderId(7101).type("error").message("Counter 1 escalated").build());
+        notificationService.deleteNotificationsByOrderId(7102);
+
+        // Then
+        assertThat(notificationService.getNotificationCountByType("warning")).isEqualTo(warningBefore);
+        assertThat(notificationService.getNotificationCountByType("error")).isEqualTo(errorBefore + 1);
+        assertThat(notificationService.getRecentNotificationsCount()).isEqualTo(recentBefore + 1);
+    }
+
+    @Test
+    void testReconcileRewritesDriftedBuckets() {
+        // Given: a settled hour the rollup over-counts and one it never saw
+        LocalDateTime hoursAgo = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(5);
+        rollupRepository.save(NotificationCountRollup.builder()
+                .type("reconcile")
+                .bucketStart(hoursAgo.minusHours(1))
+                .count(7)
+                .build());
+        Notification untracked = notificationRepository.saveAndFlush(Notification.builder()
+                .orderId(7201)
+                .type("reconcile")
+                .message("Written while counters were down")
+                .build());
+        jdbcTemplate.update("UPDATE notifications SET created_at = ? WHERE id = ?", hoursAgo, untracked.getId());
+        notificationCounters.flush();
+        assertThat(notificationService.getNotificationCountByType("reconcile")).isEqualTo(7);
+
+        // When
+        int corrected = notificationCounters.reconcile();
+
+        // Then
+        assertThat(corrected).isEqualTo(2);
+        assertThat(notificationService.getNotificationCountByType("reconcile")).isEqualTo(1);
+        assertThat(notificationCounters.reconcile()).isZero();
+    }
+
+    @Test
+    void testKeysetPagesVisitEveryNotificationOnce() {
+        // Given
+        for (int i = 0; i < 7; i++) {
+            notificationService.createNotification(NotificationDto.builder()
+                    .orderId(8001)
+                    .type(i % 2 == 0 ? "info" : "alert")
+                    .message("Keyset " + i)
+                    .build());
+        }
+
+        // When
+        List<Integer> byOrder = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<NotificationDto> page = notificationService.getNotificationsPageByOrderId(8001, cursor, 3);
+            page.items().forEach(n -> byOrder.add(n.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Integer> byType = new ArrayList<>();
+        cursor = null;
+        do {
+            CursorPage<NotificationDto> page = notificationService.getNotificationsPageByOrderIdAndType(8001, "info", cursor, 2);
+            page.items().forEach(n -> byType.add(n.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(byOrder).hasSize(7).doesNotHaveDuplicates().isSorted();
+        assertThat(byType).hasSize(4).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void testDateRangeStreamMatchesRangeQuery() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < 5; i++) {
+            notificationService.createNotification(NotificationDto.builder()
+                    .orderId(9001)
+                    .type("info")
+                    .message("Range " + i)
+                    .build());
+        }
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+        // When
+        List<NotificationDto> streamed = new ArrayList<>();
+        long count = notificationService.streamNotificationsByDateRange(from, to, streamed::add);
+        CursorPage<NotificationDto> firstPage = notificationService.getNotificationsPageByDateRange(from, to, null, 2);
+
+        // Then
+        assertThat(count).isEqualTo(streamed.size());
+        assertThat(streamed).extracting(NotificationDto::getId)
+                .containsExactlyInAnyOrderElementsOf(notificationService.getNotificationsByDateRange(from, to)
+                        .stream().map(NotificationDto::getId).toList());
+        assertThat(firstPage.items()).hasSize(2);
+        assertThat(firstPage.nextCursor()).isNotNull();
+    }
 }
@@ -0,0 +1,115 @@
+package com.distribute.notifications.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.distribute.notifications.dto.NotificationDto;
+import com.distribute.notifications.entity.DeliveryStatus;
+import com.distribute.notifications.service.NotificationService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationDispatcherTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        dispatcher.destroy();
+    }
+
+    @Test
+    void fullQueuePausesListenerUntilDrained() {
+        DeliveryChannel fast = channel("fast", () -> { });
+        DeliveryChannel slow = channel("slow", () -> release.await());
+        dispatcher = dispatcher(List.of(fast, slow), new MockEnvironment()
+                .withProperty("notification.delivery.channels.slow.concurrency", "1")
+                .withProperty("notification.delivery.channels.slow.queue-capacity", "4"));
+
+        int queued = dispatcher.dispatch(notifications(10));
+
+        // One running on the slow worker, four waiting; the rest stay PENDING
+        assertThat(queued).isBetween(4, 5);
+        verify(container).pause();
+
+        release.countDown();
+        verify(notificationService, timeout(5_000).times(queued))
+                .recordDelivery(any(), eq(DeliveryStatus.SENT), eq(2), any(), eq(null));
+        verify(container, timeout(5_000)).resume();
+    }
+
+    @Test
+    void exhaustedRetriesMarkNotificationFailed() {
+        DeliveryChannel broken = channel("broken", () -> {
+            throw new IllegalStateException("provider down");
+        });
+        dispatcher = dispatcher(List.of(broken), new MockEnvironment());
+
+        assertThat(dispatcher.dispatch(notifications(1))).isEqualTo(1);
+
+        verify(notificationService, timeout(5_000))
+                .recordDelivery(eq(1), eq(DeliveryStatus.FAILED), eq(3), eq(null), eq("broken: provider down"));
+    }
+
+    private NotificationDispatcher dispatcher(List<DeliveryChannel> channels, MockEnvironment environment) {
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(NotificationDispatcher.LISTENER_ID)).thenReturn(container);
+
+        NotificationDispatcher created = new NotificationDispatcher(channels, environment, notificationService,
+                registry, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(created, "maxAttempts", 3);
+        ReflectionTestUtils.setField(created, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(created, "pauseAt", 0.8);
+        ReflectionTestUtils.setField(created, "resumeAt", 0.5);
+        return created;
+    }
+
+    private List<NotificationDto> notifications(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> NotificationDto.builder().id(id).orderId(id).type("GENERAL").message("m").build())
+                .toList();
+    }
+
+    private DeliveryChannel channel(String name, Action action) {
+        return new DeliveryChannel() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void deliver(NotificationDto notification) throws Exception {
+                action.run();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+}
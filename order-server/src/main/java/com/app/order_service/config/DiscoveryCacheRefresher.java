@@ -0,0 +1,51 @@
+package com.app.order_service.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.loadbalancer.cache.LoadBalancerCacheManager;
+import org.springframework.cloud.loadbalancer.core.CachingServiceInstanceListSupplier;
+import org.springframework.cache.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.netflix.discovery.EurekaClient;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops the LoadBalancer's cached instance lists as soon as a Eureka delta fetch changes
+ * the registry, so scale-out and removed instances are seen on the next call instead of
+ * after spring.cloud.loadbalancer.cache.ttl.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiscoveryCacheRefresher {
+
+    private final EurekaClient eurekaClient;
+    private final ObjectProvider<LoadBalancerCacheManager> cacheManager;
+
+    private volatile String lastAppsHashCode;
+
+    /**
+     * Published by the Eureka client after every registry fetch
+     */
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryFetched() {
+        String appsHashCode = eurekaClient.getApplications().getAppsHashCode();
+        if (appsHashCode == null || appsHashCode.equals(lastAppsHashCode)) {
+            return;
+        }
+        lastAppsHashCode = appsHashCode;
+
+        LoadBalancerCacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null
+                ? manager.getCache(CachingServiceInstanceListSupplier.SERVICE_INSTANCE_CACHE_NAME)
+                : null;
+        if (cache != null) {
+            cache.clear();
+            log.debug("Registry changed ({}), cleared cached service instances", appsHashCode);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.app.order_service.config;
+
+import com.app.order_service.repository.SagaIdNodeRepository;
+import com.app.order_service.service.utils.SagaIdGenerator;
+import com.app.order_service.service.utils.SagaIdNodeLease;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean(destroyMethod = "close")
+    public SagaIdNodeLease sagaIdNodeLease(SagaIdNodeRepository repository,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${saga.id.service-slot:0}") int serviceSlot,
+                                           @Value("${saga.id.lease-ttl-ms:60000}") long leaseTtlMs) {
+        return new SagaIdNodeLease(repository, new TransactionTemplate(transactionManager),
+                serviceSlot, Duration.ofMillis(leaseTtlMs));
+    }
+
+    /**
+     * The node id is leased from the database unless saga.id.node-id pins it; a pinned id
+     * must not be used by any other instance of any service.
+     */
+    @Bean
+    public SagaIdGenerator sagaIdGenerator(SagaIdNodeLease sagaIdNodeLease,
+                                           @Value("${saga.id.node-id:-1}") int nodeId) {
+        return nodeId >= 0 ? new SagaIdGenerator(nodeId) : new SagaIdGenerator(sagaIdNodeLease);
+    }
+}
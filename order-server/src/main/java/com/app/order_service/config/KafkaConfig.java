@@ -4,6 +4,7 @@ import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class KafkaConfig {
@@ -14,4 +15,17 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Resumes partitions of the OrderConsumer retry topics (product and payment replies) once a
+     * record's backoff has elapsed. Being the only TaskScheduler in the context it also runs the
+     * {@code @Scheduled} SagaDeadlineSweeper, hence one thread per retry listener plus one.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler retryTopicTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(3);
+        scheduler.setThreadNamePrefix("order-scheduler-");
+        return scheduler;
+    }
 }
@@ -1,12 +1,21 @@
 package com.app.order_service.controller;
 
 import com.app.order_service.dto.request.CreateOrderForm;
+import com.app.order_service.dto.response.OrderHistory;
+import com.app.order_service.dto.response.OrderStatusView;
+import com.app.order_service.dto.response.StepLatencyExport;
+import com.app.order_service.service.OrderEventService;
+import com.app.order_service.service.utils.SagaIdGenerator;
+import com.app.order_service.kafka.dlt.DltReplayService;
 import com.app.order_service.service.OrderService;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import lombok.RequiredArgsConstructor;
 
 import org.apache.kafka.shaded.com.google.protobuf.Api;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,9 +23,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.LocalDateTime;
+import java.util.List;
 import com.app.order_service.dto.response.ApiResponse;
+import com.app.order_service.entity.Order;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -31,15 +41,29 @@ public class OrderController {
 
     private final OrderService orderService;
 
+    private final DltReplayService dltReplayService;
+
+    private final OrderEventService orderEventService;
+
+    private final Tracer tracer;
+
+    private final SagaIdGenerator sagaIdGenerator;
+
     @PostMapping("/orders")
     public ResponseEntity<ApiResponse<String>> createOrderChoreography(
             @RequestBody CreateOrderForm createOrderForm) {
-        ZonedDateTime nowUtc7 = ZonedDateTime.now(ZoneId.of("UTC+7"));
-        String requestId = "REQ-" + nowUtc7.toInstant().toEpochMilli();
-        logger.info("Received Request with ID: {}, at time: {}", requestId, nowUtc7);
-        orderService.createOrder(createOrderForm, requestId);
+        String requestId = "REQ-" + sagaIdGenerator.nextIdString();
+        logger.info("Received Request with ID: {}", requestId);
+
+        // Correlate the requestId carried in saga payloads with the trace
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.tag("saga.request.id", requestId);
+        }
+        Order order = orderService.createOrder(createOrderForm, requestId);
 
-        ApiResponse<String> response = new ApiResponse<>(200, "Order created successfully", "");
+        // The order id lets clients follow the saga, e.g. via /orders/users/{userId}
+        ApiResponse<String> response = new ApiResponse<>(200, "Order created successfully", String.valueOf(order.getId()));
         return ResponseEntity.ok(response);
     }
 
@@ -51,4 +75,51 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Status of the listed orders, e.g. /orders/statuses?ids=1,2,3; unknown ids are left out
+     */
+    @GetMapping("/orders/statuses")
+    public ResponseEntity<ApiResponse<List<OrderStatusView>>> getOrderStatuses(@RequestParam List<Integer> ids) {
+        List<OrderStatusView> statuses = orderService.getOrderStatuses(ids);
+
+        ApiResponse<List<OrderStatusView>> response = new ApiResponse<>(200, "Order statuses retrieved successfully", statuses);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/orders/{orderId}/history")
+    public ResponseEntity<ApiResponse<OrderHistory>> getOrderHistory(@PathVariable Integer orderId) {
+        OrderHistory history = orderEventService.rebuild(orderId);
+
+        ApiResponse<OrderHistory> response = new ApiResponse<>(200, "Order history rebuilt successfully", history);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Columnar export of saga step latencies, for percentile computation offline
+     */
+    @GetMapping("/orders/events/step-latencies")
+    public ResponseEntity<ApiResponse<StepLatencyExport>> exportStepLatencies(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10000") int limit) {
+        StepLatencyExport export = orderEventService.exportStepLatencies(from, to, limit);
+
+        ApiResponse<StepLatencyExport> response = new ApiResponse<>(200, "Step latencies exported successfully", export);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Re-inject dead-lettered records, e.g. topic=outbox.event.Payment-order-payment-dlt
+     */
+    @PostMapping("/orders/dlt/replay")
+    public ResponseEntity<ApiResponse<Integer>> replayDeadLetters(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "100") int max) {
+        logger.info("Replaying up to {} records from {}", max, topic);
+        int replayed = dltReplayService.replay(topic, max);
+
+        ApiResponse<Integer> response = new ApiResponse<>(200, "Dead letters replayed successfully", replayed);
+        return ResponseEntity.ok(response);
+    }
+
 }
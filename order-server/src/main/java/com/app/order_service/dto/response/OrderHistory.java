@@ -0,0 +1,26 @@
+package com.app.order_service.dto.response;
+
+import com.app.order_service.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order state rebuilt from its latest snapshot plus the events recorded after it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistory {
+    private Integer orderId;
+    private OrderStatus status;
+    private String failReason;
+    private Integer sequence;
+    private LocalDateTime sagaStartedAt;
+    private LocalDateTime statusEnteredAt;
+    private Integer eventsReplayed;
+}
@@ -0,0 +1,9 @@
+package com.app.order_service.dto.response;
+
+import com.app.order_service.entity.OrderStatus;
+
+/**
+ * Id and status of one order, for clients following sagas without loading the orders
+ */
+public record OrderStatusView(Integer id, OrderStatus status) {
+}
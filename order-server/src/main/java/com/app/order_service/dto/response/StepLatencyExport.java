@@ -0,0 +1,22 @@
+package com.app.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Step latencies laid out column by column. Row i is
+ * (steps[step[i]], orderId[i], millis[i], occurredAt[i]); step names are
+ * dictionary encoded so each row costs a few numbers instead of two status strings.
+ * occurredAt is epoch millis.
+ */
+@Data
+@AllArgsConstructor
+public class StepLatencyExport {
+    private List<String> steps;
+    private int[] step;
+    private int[] orderId;
+    private long[] millis;
+    private long[] occurredAt;
+}
@@ -13,7 +13,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Deadline sweeper scans one awaiting-reply status at a time in deadline order
+        @Index(name = "idx_orders_status_deadline", columnList = "status, deadline")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +44,27 @@ public class Order {
     @Column(name = "total_amount")
     private BigDecimal totalAmount;
 
+    /**
+     * Latest time the saga may stay in the current status waiting for a reply.
+     * Null once the order reaches a status that no longer waits on another service.
+     */
+    @Column(name = "deadline")
+    private LocalDateTime deadline;
+
+    /**
+     * Set once a STOCK_RESERVE_RELEASE was written for the order, so a late or redelivered
+     * reserve reply never releases the same stock twice
+     */
+    @Column(name = "stock_released", nullable = false, columnDefinition = "boolean default false")
+    private boolean stockReleased;
+
+    /**
+     * Optimistic lock, two replies racing on the same order cannot both apply their transition
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "orderId", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<OrderItem> orderItems;
 
@@ -0,0 +1,55 @@
+package com.app.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One saga transition of an order. Rows are only ever inserted, in the same
+ * transaction as the status change they describe.
+ */
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "uk_order_events_order_seq", columnList = "order_id, seq", unique = true),
+        @Index(name = "idx_order_events_occurred_at", columnList = "occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private Integer orderId;
+
+    // 1-based position of the event within its order
+    @Column(name = "seq", nullable = false, updatable = false)
+    private Integer sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", updatable = false)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, updatable = false)
+    private OrderStatus toStatus;
+
+    @Column(name = "fail_reason", updatable = false)
+    private String failReason;
+
+    // Time spent in fromStatus, null for the first event of an order
+    @Column(name = "step_millis", updatable = false)
+    private Long stepMillis;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime occurredAt = LocalDateTime.now();
+}
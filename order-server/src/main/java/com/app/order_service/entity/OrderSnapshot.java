@@ -0,0 +1,41 @@
+package com.app.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an order after event {@code sequence}, so a rebuild only replays the events after it.
+ */
+@Entity
+@Table(name = "order_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSnapshot {
+
+    @Id
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Column(name = "seq", nullable = false)
+    private Integer sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "fail_reason")
+    private String failReason;
+
+    @Column(name = "saga_started_at", nullable = false)
+    private LocalDateTime sagaStartedAt;
+
+    @Column(name = "status_entered_at", nullable = false)
+    private LocalDateTime statusEnteredAt;
+}
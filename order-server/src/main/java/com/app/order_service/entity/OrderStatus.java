@@ -1,5 +1,10 @@
 package com.app.order_service.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING, // Just created, waiting for stock reservation
     STOCK_RESERVED, // Product service confirmed stock
@@ -9,5 +14,27 @@ public enum OrderStatus {
     PAYMENT_FAILED, // Payment declined
     COMPLETED, // Order successfully finished (after sending notification)
     CANCELED, // Order canceled (by user or system)
-    REFUNDED, // Payment refunded
+    REFUNDED; // Payment refunded
+
+    /**
+     * Saga state machine: the statuses each status may move to.
+     * Anything else (a late, duplicated or replayed reply) is stale and must be ignored.
+     */
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(STOCK_RESERVED, STOCK_FAILED, CANCELED));
+        TRANSITIONS.put(STOCK_RESERVED, EnumSet.of(PAYMENT_PENDING, PAID, PAYMENT_FAILED, CANCELED));
+        TRANSITIONS.put(PAYMENT_PENDING, EnumSet.of(PAID, PAYMENT_FAILED, CANCELED));
+        TRANSITIONS.put(PAID, EnumSet.of(COMPLETED, REFUNDED));
+        TRANSITIONS.put(COMPLETED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(STOCK_FAILED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(PAYMENT_FAILED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
 }
@@ -1,18 +1,24 @@
 package com.app.order_service.kafka.consumer;
 
 import com.app.order_service.entity.Order;
-import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.kafka.dlt.DeadLetterHeaders;
 import com.app.order_service.kafka.producer.OrderProducer;
 import com.app.order_service.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,6 +26,12 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Component
 public class OrderConsumer {
+
+    // Retry and DLT topic suffixes per listener, also used by DltReplayService to route replays
+    public static final String PRODUCT_RETRY_SUFFIX = "-order-product-retry";
+    public static final String PRODUCT_DLT_SUFFIX = "-order-product-dlt";
+    public static final String PAYMENT_RETRY_SUFFIX = "-order-payment-retry";
+    public static final String PAYMENT_DLT_SUFFIX = "-order-payment-dlt";
     
     @Autowired
     private ObjectMapper objectMapper;
@@ -34,7 +46,19 @@ public class OrderConsumer {
      * Listen to Product Outbox events via Debezium CDC
      * Topic: outbox.event.Product (Debezium outbox transformed topic)
      * Filter by event_type: STOCK_RESERVE_SUCCEEDED, STOCK_RESERVE_FAILED
+     * Failures are retried on outbox.event.Product-order-product-retry-N, then dead-lettered
      */
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${kafka.retry.multiplier:2.0}",
+            maxDelayExpression = "${kafka.retry.max-delay-ms:10000}"),
+        retryTopicSuffix = PRODUCT_RETRY_SUFFIX,
+        dltTopicSuffix = PRODUCT_DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = JsonProcessingException.class
+    )
     @KafkaListener(
         topics = "${spring.kafka.topics.product-outbox:outbox.event.Product}",
         groupId = "order-service-product-group"
@@ -44,24 +68,17 @@ public class OrderConsumer {
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
+            @Header(value = "eventType", required = false) String eventType) throws JsonProcessingException {
+        if (eventType == null) {
+            log.warn("Skipping event without eventType header from topic: {}, offset: {}", topic, offset);
+            return;
+        }
         try {
             log.info("Received product event from topic: {}, partition: {}, offset: {}, eventType: {}", 
                     topic, partition, offset, eventType);
             log.debug("Message content: {}", message);
             
-            // Parse event payload (already transformed by Debezium Outbox Router)
-            // Message has schema + payload structure, extract payload
-            JsonNode rootNode = objectMapper.readTree(message);
-            JsonNode eventData;
-            
-            if (rootNode.has("payload") && rootNode.has("schema")) {
-                // Payload is expanded as JSON object
-                eventData = rootNode.get("payload");
-            } else {
-                // Fallback: parse directly
-                eventData = rootNode;
-            }
+            JsonNode eventData = readEventData(objectMapper, message);
             
             Integer orderId = eventData.path("orderId").asInt();
             
@@ -71,7 +88,7 @@ public class OrderConsumer {
                 case "STOCK_RESERVE_SUCCEEDED":
                     // Stock reserved successfully, update order status
                     log.info("Stock reserved successfully for order {}", orderId);
-                    Order updatedOrder = orderService.updateOrderStatus(orderId, OrderStatus.STOCK_RESERVED, null);
+                    Order updatedOrder = orderService.handleStockReserveSucceeded(orderId);
                     
                     // Automatically trigger payment authorization since we don't have /pay API yet
                     if (updatedOrder != null && updatedOrder.getTotalAmount() != null) {
@@ -99,6 +116,8 @@ public class OrderConsumer {
             
         } catch (Exception e) {
             log.error("Error processing product outbox CDC event", e);
+            // Rethrow so the record moves to the retry topic instead of being dropped
+            throw e;
         }
     }
 
@@ -106,7 +125,19 @@ public class OrderConsumer {
      * Listen to Payment Outbox events via Debezium CDC
      * Topic: outbox.event.Payment (Debezium outbox transformed topic)
      * Filter by event_type: PAYMENT_AUTHORIZE_SUCCEEDED, PAYMENT_AUTHORIZE_FAILED
+     * Failures are retried on outbox.event.Payment-order-payment-retry-N, then dead-lettered
      */
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${kafka.retry.multiplier:2.0}",
+            maxDelayExpression = "${kafka.retry.max-delay-ms:10000}"),
+        retryTopicSuffix = PAYMENT_RETRY_SUFFIX,
+        dltTopicSuffix = PAYMENT_DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = JsonProcessingException.class
+    )
     @KafkaListener(
         topics = "${spring.kafka.topics.payment-outbox:outbox.event.Payment}",
         groupId = "order-service-payment-group"
@@ -116,24 +147,17 @@ public class OrderConsumer {
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
+            @Header(value = "eventType", required = false) String eventType) throws JsonProcessingException {
+        if (eventType == null) {
+            log.warn("Skipping event without eventType header from topic: {}, offset: {}", topic, offset);
+            return;
+        }
         try {
             log.info("Received payment event from topic: {}, partition: {}, offset: {}, eventType: {}", 
                     topic, partition, offset, eventType);
             log.debug("Message content: {}", message);
             
-            // Parse event payload (already transformed by Debezium Outbox Router)
-            // Message has schema + payload structure, extract payload
-            JsonNode rootNode = objectMapper.readTree(message);
-            JsonNode eventData;
-            
-            if (rootNode.has("payload") && rootNode.has("schema")) {
-                // Payload is expanded as JSON object
-                eventData = rootNode.get("payload");
-            } else {
-                // Fallback: parse directly
-                eventData = rootNode;
-            }
+            JsonNode eventData = readEventData(objectMapper, message);
             
             Integer orderId = eventData.path("orderId").asInt();
             
@@ -181,7 +205,29 @@ public class OrderConsumer {
             
         } catch (Exception e) {
             log.error("Error processing payment outbox CDC event", e);
+            // Rethrow so the record moves to the retry topic instead of being dropped
+            throw e;
+        }
+    }
+
+    /**
+     * Parse event payload (already transformed by Debezium Outbox Router). The message is
+     * either the schema + payload envelope, whose payload is the expanded JSON object, or the
+     * plain payload. Package-private for the benchmarks module.
+     */
+    static JsonNode readEventData(ObjectMapper objectMapper, String message) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(message);
+        if (rootNode.has("payload") && rootNode.has("schema")) {
+            return rootNode.get("payload");
         }
+        // Fallback: parse directly
+        return rootNode;
+    }
+
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, String> record) {
+        log.error("Event dead-lettered to {} after {} attempts, key: {}, reason: {}",
+                record.topic(), DeadLetterHeaders.attempts(record), record.key(), DeadLetterHeaders.reason(record));
     }
 
 }
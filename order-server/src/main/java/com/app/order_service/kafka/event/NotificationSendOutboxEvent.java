@@ -0,0 +1,22 @@
+package com.app.order_service.kafka.event;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * NOTIFICATION_SEND payload.
+ */
+public record NotificationSendOutboxEvent(Integer orderId, String type, String message, String requestId)
+        implements OutboxPayload {
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        OutboxPayload.writeNumberField(generator, "orderId", orderId);
+        generator.writeStringField("type", type);
+        generator.writeStringField("message", message);
+        generator.writeStringField("requestId", requestId);
+        generator.writeEndObject();
+    }
+}
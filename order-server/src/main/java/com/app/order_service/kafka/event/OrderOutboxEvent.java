@@ -0,0 +1,41 @@
+package com.app.order_service.kafka.event;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderItem;
+import com.app.order_service.entity.OrderStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * ORDER_CREATED / ORDER_STATUS_UPDATED payload. Items are the order's own lines, not a copy.
+ */
+public record OrderOutboxEvent(
+        Integer orderId,
+        Integer userId,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        String failReason,
+        String requestId,
+        List<OrderItem> items) implements OutboxPayload {
+
+    public static OrderOutboxEvent of(Order order, String requestId) {
+        return new OrderOutboxEvent(order.getId(), order.getUserId(), order.getStatus(),
+                order.getTotalAmount(), order.getFailReason(), requestId, order.getOrderItems());
+    }
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        OutboxPayload.writeNumberField(generator, "orderId", orderId);
+        OutboxPayload.writeNumberField(generator, "userId", userId);
+        generator.writeStringField("status", status.name());
+        generator.writeNumberField("totalAmount", totalAmount);
+        generator.writeStringField("failReason", failReason);
+        generator.writeStringField("requestId", requestId);
+        OutboxPayload.writeItems(generator, items);
+        generator.writeEndObject();
+    }
+}
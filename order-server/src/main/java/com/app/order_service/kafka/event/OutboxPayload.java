@@ -0,0 +1,39 @@
+package com.app.order_service.kafka.event;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.app.order_service.entity.OrderItem;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Body of an outbox event, written field by field by OutboxPayloadEncoder so no Map or
+ * tree is built in between. Field names are the ones the consumers' event classes expect.
+ */
+public interface OutboxPayload {
+
+    void writeTo(JsonGenerator generator) throws IOException;
+
+    static void writeNumberField(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value.intValue());
+        }
+    }
+
+    /**
+     * "items": [{"productId": .., "quantity": ..}, ...], read straight from the order lines
+     */
+    static void writeItems(JsonGenerator generator, List<OrderItem> items) throws IOException {
+        generator.writeArrayFieldStart("items");
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            generator.writeStartObject();
+            writeNumberField(generator, "productId", item.getProductId());
+            writeNumberField(generator, "quantity", item.getQuantity());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+}
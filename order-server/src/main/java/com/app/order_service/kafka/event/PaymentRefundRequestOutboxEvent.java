@@ -0,0 +1,23 @@
+package com.app.order_service.kafka.event;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * PAYMENT_REFUND_REQUESTED payload: payment-service refunds the payment of the order.
+ */
+public record PaymentRefundRequestOutboxEvent(Integer orderId, BigDecimal totalAmount, String reason, String requestId)
+        implements OutboxPayload {
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        OutboxPayload.writeNumberField(generator, "orderId", orderId);
+        generator.writeNumberField("totalAmount", totalAmount);
+        generator.writeStringField("reason", reason);
+        generator.writeStringField("requestId", requestId);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,23 @@
+package com.app.order_service.kafka.event;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.app.order_service.entity.OrderItem;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * STOCK_RESERVE_RELEASE payload: the lines product-service puts back in stock.
+ */
+public record StockReleaseOutboxEvent(Integer orderId, String requestId, List<OrderItem> items)
+        implements OutboxPayload {
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        OutboxPayload.writeNumberField(generator, "orderId", orderId);
+        generator.writeStringField("requestId", requestId);
+        OutboxPayload.writeItems(generator, items);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,30 @@
+package com.app.order_service.repository;
+
+import com.app.order_service.entity.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    /**
+     * Find the latest event of an order
+     */
+    Optional<OrderEvent> findTopByOrderIdOrderBySequenceDesc(Integer orderId);
+
+    /**
+     * Find the events of an order recorded after the given sequence
+     */
+    List<OrderEvent> findByOrderIdAndSequenceGreaterThanOrderBySequenceAsc(Integer orderId, Integer sequence);
+
+    /**
+     * Find timed steps in a time range, oldest first
+     */
+    List<OrderEvent> findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+            LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
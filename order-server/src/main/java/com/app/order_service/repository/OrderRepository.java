@@ -1,10 +1,35 @@
 package com.app.order_service.repository;
 
+import com.app.order_service.dto.response.OrderStatusView;
 import com.app.order_service.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     java.util.List<Order> findByUserId(Integer userId);
+
+    /**
+     * Status of the given orders, read without loading the orders or their items
+     */
+    @Query("SELECT new com.app.order_service.dto.response.OrderStatusView(o.id, o.status) "
+            + "FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusView> findStatusesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Lock a batch of orders whose deadline expired in the given status.
+     * Rows locked by another instance are skipped, so concurrent sweepers never share an order.
+     */
+    @Query(value = "SELECT * FROM orders WHERE status = :status AND deadline <= :now "
+            + "ORDER BY deadline LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Order> lockExpiredOrders(@Param("status") String status,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("limit") int limit);
 }
@@ -0,0 +1,9 @@
+package com.app.order_service.repository;
+
+import com.app.order_service.entity.OrderSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderSnapshotRepository extends JpaRepository<OrderSnapshot, Integer> {
+}
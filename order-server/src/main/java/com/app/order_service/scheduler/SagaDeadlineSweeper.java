@@ -0,0 +1,56 @@
+package com.app.order_service.scheduler;
+
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.service.OrderService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cancels and compensates orders whose saga reply never arrived.
+ * Each batch runs in its own transaction and locks its rows with SKIP LOCKED,
+ * so several order-server instances can sweep at the same time without overlap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaDeadlineSweeper {
+
+    private static final List<OrderStatus> AWAITING_REPLY =
+            List.of(OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, OrderStatus.PAYMENT_PENDING);
+
+    private final OrderService orderService;
+
+    @Value("${saga.deadline.sweep-batch-size:100}")
+    private int batchSize;
+
+    @Value("${saga.deadline.max-batches-per-sweep:10}")
+    private int maxBatchesPerSweep;
+
+    @Scheduled(fixedDelayString = "${saga.deadline.sweep-interval-ms:5000}")
+    public void sweep() {
+        for (OrderStatus status : AWAITING_REPLY) {
+            try {
+                int total = 0;
+                int expired;
+                int batches = 0;
+                do {
+                    expired = orderService.expireOverdueOrders(status, batchSize);
+                    total += expired;
+                } while (expired == batchSize && ++batches < maxBatchesPerSweep);
+
+                if (total > 0) {
+                    log.info("Expired {} orders stuck in {}", total, status);
+                }
+            } catch (Exception e) {
+                log.error("Failed to sweep expired orders in {}", status, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.app.order_service.service;
+
+import com.app.order_service.dto.response.OrderHistory;
+import com.app.order_service.dto.response.StepLatencyExport;
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+public interface OrderEventService {
+
+    /**
+     * Append the transition that just moved the order out of fromStatus (null when created)
+     */
+    void recordTransition(Order order, OrderStatus fromStatus);
+
+    /**
+     * Rebuild the order state from its latest snapshot and the events after it
+     */
+    OrderHistory rebuild(Integer orderId);
+
+    /**
+     * Export step latencies recorded in [from, to)
+     */
+    StepLatencyExport exportStepLatencies(LocalDateTime from, LocalDateTime to, int limit);
+}
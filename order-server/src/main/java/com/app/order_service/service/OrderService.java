@@ -3,15 +3,35 @@ package com.app.order_service.service;
 import java.util.List;
 
 import com.app.order_service.dto.request.CreateOrderForm;
+import com.app.order_service.dto.response.OrderStatusView;
 import com.app.order_service.entity.Order;
 import com.app.order_service.entity.OrderStatus;
 
 public interface OrderService {
+
+    int MAX_STATUS_IDS = 500;
+
     Order createOrder(CreateOrderForm form, String requestId);
 
+    /**
+     * Move the order to the given status.
+     * Transitions not allowed by {@link OrderStatus#canTransitionTo} are ignored:
+     * this and the handle* methods return null without writing anything.
+     */
     Order updateOrderStatus(Integer orderId, OrderStatus status, String failReason);
 
     List<Order> getOrdersByUserId(Integer userId);
+
+    /**
+     * Status of each of the given orders that exists, at most MAX_STATUS_IDS ids per call
+     */
+    List<OrderStatusView> getOrderStatuses(List<Integer> orderIds);
+    
+    /**
+     * Handle stock reservation success - move to STOCK_RESERVED, or release the stock
+     * when the order was canceled before the reply arrived
+     */
+    Order handleStockReserveSucceeded(Integer orderId);
     
     /**
      * Handle payment failure - update status, send notification, and release stock
@@ -19,7 +39,8 @@ public interface OrderService {
     Order handlePaymentFailed(Integer orderId, String failReason);
     
     /**
-     * Handle payment success - update status and send notification
+     * Handle payment success - update status and send notification, or request a refund
+     * when the order was canceled before the reply arrived
      */
     Order handlePaymentSuccess(Integer orderId);
     
@@ -32,4 +53,10 @@ public interface OrderService {
      * Handle payment refund - update status, send notification, and release stock
      */
     Order handlePaymentRefund(Integer orderId, String reason);
+    
+    /**
+     * Cancel up to batchSize orders whose deadline expired in the given status and compensate them
+     * @return number of orders expired
+     */
+    int expireOverdueOrders(OrderStatus status, int batchSize);
 }
@@ -23,4 +23,9 @@ public interface OutboxService {
      * Save stock reserve release event to outbox
      */
     void saveStockReserveReleaseEvent(Order order, String requestId);
+    
+    /**
+     * Save payment refund request event to outbox
+     */
+    void savePaymentRefundRequestedEvent(Order order, String reason, String requestId);
 }
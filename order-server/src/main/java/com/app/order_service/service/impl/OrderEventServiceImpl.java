@@ -0,0 +1,144 @@
+package com.app.order_service.service.impl;
+
+import com.app.order_service.dto.response.OrderHistory;
+import com.app.order_service.dto.response.StepLatencyExport;
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderEvent;
+import com.app.order_service.entity.OrderSnapshot;
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.repository.OrderEventRepository;
+import com.app.order_service.repository.OrderSnapshotRepository;
+import com.app.order_service.service.OrderEventService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderEventServiceImpl implements OrderEventService {
+
+    private final OrderEventRepository orderEventRepository;
+    private final OrderSnapshotRepository orderSnapshotRepository;
+
+    @Value("${order-events.snapshot-interval:5}")
+    private int snapshotInterval;
+
+    @Value("${order-events.export-max-rows:50000}")
+    private int exportMaxRows;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, OrderStatus fromStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<OrderEvent> previous = orderEventRepository.findTopByOrderIdOrderBySequenceDesc(order.getId());
+
+        OrderEvent event = OrderEvent.builder()
+                .orderId(order.getId())
+                .sequence(previous.map(e -> e.getSequence() + 1).orElse(1))
+                .fromStatus(fromStatus)
+                .toStatus(order.getStatus())
+                .failReason(order.getFailReason())
+                .stepMillis(previous.map(e -> Duration.between(e.getOccurredAt(), now).toMillis()).orElse(null))
+                .occurredAt(now)
+                .build();
+        orderEventRepository.save(event);
+
+        // Every K-th event folds the history into a snapshot, a rebuild never replays K or more events
+        if (event.getSequence() % snapshotInterval == 0) {
+            orderSnapshotRepository.save(OrderSnapshot.builder()
+                    .orderId(order.getId())
+                    .sequence(event.getSequence())
+                    .status(event.getToStatus())
+                    .failReason(event.getFailReason())
+                    .sagaStartedAt(order.getCreatedAt() != null ? order.getCreatedAt() : now)
+                    .statusEnteredAt(now)
+                    .build());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderHistory rebuild(Integer orderId) {
+        Optional<OrderSnapshot> snapshot = orderSnapshotRepository.findById(orderId);
+        int fromSequence = snapshot.map(OrderSnapshot::getSequence).orElse(0);
+        List<OrderEvent> tail =
+                orderEventRepository.findByOrderIdAndSequenceGreaterThanOrderBySequenceAsc(orderId, fromSequence);
+
+        if (snapshot.isEmpty() && tail.isEmpty()) {
+            throw new RuntimeException("No events recorded for order ID: " + orderId);
+        }
+
+        OrderHistory history = snapshot
+                .map(s -> OrderHistory.builder()
+                        .orderId(orderId)
+                        .status(s.getStatus())
+                        .failReason(s.getFailReason())
+                        .sequence(s.getSequence())
+                        .sagaStartedAt(s.getSagaStartedAt())
+                        .statusEnteredAt(s.getStatusEnteredAt())
+                        .build())
+                .orElseGet(() -> OrderHistory.builder()
+                        .orderId(orderId)
+                        .sagaStartedAt(tail.get(0).getOccurredAt())
+                        .build());
+
+        for (OrderEvent event : tail) {
+            history.setStatus(event.getToStatus());
+            history.setFailReason(event.getFailReason());
+            history.setSequence(event.getSequence());
+            history.setStatusEnteredAt(event.getOccurredAt());
+        }
+        history.setEventsReplayed(tail.size());
+
+        return history;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StepLatencyExport exportStepLatencies(LocalDateTime from, LocalDateTime to, int limit) {
+        // One request loads at most exportMaxRows entities, whatever the caller asks for
+        int rows = Math.max(1, Math.min(limit, exportMaxRows));
+        List<OrderEvent> events = orderEventRepository
+                .findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+                        from, to, PageRequest.of(0, rows));
+        // occurred_at is written with LocalDateTime.now(), i.e. in the JVM's zone
+        ZoneId zone = ZoneId.systemDefault();
+
+        List<String> steps = new ArrayList<>();
+        Map<String, Integer> stepIndex = new HashMap<>();
+        int[] step = new int[events.size()];
+        int[] orderId = new int[events.size()];
+        long[] millis = new long[events.size()];
+        long[] occurredAt = new long[events.size()];
+
+        for (int i = 0; i < events.size(); i++) {
+            OrderEvent event = events.get(i);
+            String name = event.getFromStatus() + "->" + event.getToStatus();
+            step[i] = stepIndex.computeIfAbsent(name, key -> {
+                steps.add(key);
+                return steps.size() - 1;
+            });
+            orderId[i] = event.getOrderId();
+            millis[i] = event.getStepMillis();
+            occurredAt[i] = event.getOccurredAt().atZone(zone).toInstant().toEpochMilli();
+        }
+
+        return new StepLatencyExport(steps, step, orderId, millis, occurredAt);
+    }
+}
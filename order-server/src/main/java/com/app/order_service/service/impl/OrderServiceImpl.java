@@ -2,9 +2,11 @@ package com.app.order_service.service.impl;
 
 import com.app.order_service.dto.request.CreateOrderForm;
 import com.app.order_service.dto.request.Item;
+import com.app.order_service.dto.response.OrderStatusView;
 import com.app.order_service.entity.Order;
 import com.app.order_service.entity.OrderStatus;
 import com.app.order_service.repository.OrderRepository;
+import com.app.order_service.service.OrderEventService;
 import com.app.order_service.service.OrderService;
 import com.app.order_service.service.OutboxService;
 import com.app.order_service.service.utils.OrderMapper;
@@ -21,10 +23,15 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +42,21 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final OutboxService outboxService;
+    private final OrderEventService orderEventService;
+    private final LoadBalancerClient loadBalancerClient;
+
+    private static final HttpClient PRODUCT_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Value("${product-service.fallback-url:http://localhost:8084}")
+    private String productServiceFallbackUrl;
+
+    @Value("${saga.deadline.stock-reply-seconds:30}")
+    private long stockReplySeconds;
+
+    @Value("${saga.deadline.payment-reply-seconds:60}")
+    private long paymentReplySeconds;
 
     @Override
     @Transactional
@@ -44,12 +66,14 @@ public class OrderServiceImpl implements OrderService {
 
             BigDecimal totalAmount = calcTotalAmount(form.getItems());
             order.setTotalAmount(totalAmount);
+            scheduleDeadline(order);
 
             // Save order to database
             order = orderRepository.save(order);
             
             // ✅ Save event to outbox (Debezium will publish this to Kafka)
             outboxService.saveOrderCreatedEvent(order, requestId);
+            orderEventService.recordTransition(order, null);
             
             return order;
         } catch (Exception e) {
@@ -63,31 +87,75 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
+        if (!acceptTransition(order, status)) {
+            return null;
+        }
+
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         order.setFailReason(failReason);
+        scheduleDeadline(order);
 
         // Save order to database
         order = orderRepository.save(order);
         
         // ✅ Save event to outbox (Debezium will publish this to Kafka)
         outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
         
         return order;
     }
 
+    @Override
+    @Transactional
+    public Order handleStockReserveSucceeded(Integer orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+
+        if (!acceptTransition(order, OrderStatus.STOCK_RESERVED)) {
+            // The order was canceled before the reservation came back: product-service holds
+            // stock for an order that no longer wants it, give it back
+            if (order.getStatus() == OrderStatus.CANCELED && !order.isStockReleased()) {
+                releaseStock(order);
+                orderRepository.save(order);
+                log.warn("Late stock reservation for canceled order {}, STOCK_RESERVE_RELEASE saved to outbox", orderId);
+            }
+            return null;
+        }
+
+        OrderStatus previousStatus = order.getStatus();
+        order.setStatus(OrderStatus.STOCK_RESERVED);
+        order.setFailReason(null);
+        scheduleDeadline(order);
+        order = orderRepository.save(order);
+
+        // ✅ Save ORDER_STATUS_UPDATED event to outbox
+        outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
+
+        return order;
+    }
+
     @Override
     @Transactional
     public Order handlePaymentFailed(Integer orderId, String failReason) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
+        if (!acceptTransition(order, OrderStatus.PAYMENT_FAILED)) {
+            return null;
+        }
+
         // Update order status to PAYMENT_FAILED
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.PAYMENT_FAILED);
+        scheduleDeadline(order);
         order.setFailReason(failReason);
         order = orderRepository.save(order);
         
         // ✅ Save ORDER_STATUS_UPDATED event to outbox
         outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
         
         // ✅ Save NOTIFICATION_SEND event to outbox
         String notificationMessage = String.format(
@@ -98,7 +166,8 @@ public class OrderServiceImpl implements OrderService {
         outboxService.saveNotificationSendEvent(orderId, "PAYMENT_FAILED", notificationMessage, "system");
         
         // ✅ Save STOCK_RESERVE_RELEASE event to outbox
-        outboxService.saveStockReserveReleaseEvent(order, "system");
+        releaseStock(order);
+        order = orderRepository.save(order);
         
         log.info("Payment failed for order {}: {}", orderId, failReason);
         log.info("✅ NOTIFICATION_SEND and STOCK_RESERVE_RELEASE events saved to outbox");
@@ -112,12 +181,27 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
+        if (!acceptTransition(order, OrderStatus.PAID)) {
+            // The order was canceled while the authorization was in flight and the money is now
+            // held for nothing; payment-service ignores the request if it already refunded
+            if (order.getStatus() == OrderStatus.CANCELED) {
+                outboxService.savePaymentRefundRequestedEvent(order,
+                        "Payment authorized after order was canceled", "system");
+                log.warn("Late payment authorization for canceled order {}, PAYMENT_REFUND_REQUESTED saved to outbox",
+                        orderId);
+            }
+            return null;
+        }
+
         // Update order status to PAID
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.PAID);
+        scheduleDeadline(order);
         order = orderRepository.save(order);
         
         // ✅ Save ORDER_STATUS_UPDATED event to outbox
         outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
         
         // ✅ Save NOTIFICATION_SEND event to outbox
         String notificationMessage = String.format(
@@ -139,13 +223,20 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
+        if (!acceptTransition(order, OrderStatus.STOCK_FAILED)) {
+            return null;
+        }
+
         // Update order status to STOCK_FAILED
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.STOCK_FAILED);
+        scheduleDeadline(order);
         order.setFailReason(failReason);
         order = orderRepository.save(order);
         
         // ✅ Save ORDER_STATUS_UPDATED event to outbox
         outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
         
         // ✅ Save NOTIFICATION_SEND event to outbox
         String notificationMessage = String.format(
@@ -167,13 +258,20 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
+        if (!acceptTransition(order, OrderStatus.REFUNDED)) {
+            return null;
+        }
+
         // Update order status to REFUNDED
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.REFUNDED);
+        scheduleDeadline(order);
         order.setFailReason(reason);
         order = orderRepository.save(order);
         
         // ✅ Save ORDER_STATUS_UPDATED event to outbox
         outboxService.saveOrderUpdatedEvent(order, "system");
+        orderEventService.recordTransition(order, previousStatus);
         
         // ✅ Save NOTIFICATION_SEND event to outbox
         String notificationMessage = String.format(
@@ -185,7 +283,8 @@ public class OrderServiceImpl implements OrderService {
         outboxService.saveNotificationSendEvent(orderId, "PAYMENT_REFUND", notificationMessage, "system");
         
         // ✅ Save STOCK_RESERVE_RELEASE event to outbox
-        outboxService.saveStockReserveReleaseEvent(order, "system");
+        releaseStock(order);
+        order = orderRepository.save(order);
         
         log.info("Payment refunded for order {}: {}", orderId, reason);
         log.info("✅ NOTIFICATION_SEND and STOCK_RESERVE_RELEASE events saved to outbox");
@@ -193,22 +292,100 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
+    @Override
+    @Transactional
+    public int expireOverdueOrders(OrderStatus status, int batchSize) {
+        List<Order> expired = orderRepository.lockExpiredOrders(status.name(), LocalDateTime.now(), batchSize);
+
+        for (Order order : expired) {
+            String reason = "Saga deadline exceeded while " + status;
+            OrderStatus previousStatus = order.getStatus();
+            order.setStatus(OrderStatus.CANCELED);
+            order.setFailReason(reason);
+            order.setDeadline(null);
+
+            // ✅ Release stock only once the product service confirmed the reservation,
+            // releaseStocks adds the quantities back unconditionally. An order expired in
+            // PENDING is released by handleStockReserveSucceeded if the reservation still
+            // arrives, and needs nothing if it fails.
+            if (status != OrderStatus.PENDING) {
+                releaseStock(order);
+            }
+            orderRepository.save(order);
+
+            // ✅ Save ORDER_STATUS_UPDATED event to outbox
+            outboxService.saveOrderUpdatedEvent(order, "system");
+            orderEventService.recordTransition(order, previousStatus);
+
+            // ✅ Save NOTIFICATION_SEND event to outbox
+            String notificationMessage = String.format(
+                "Order #%d has been cancelled. Reason: %s",
+                order.getId(),
+                reason
+            );
+            outboxService.saveNotificationSendEvent(order.getId(), "ORDER_CANCELLED", notificationMessage, "system");
+
+            log.warn("Order {} expired in status {}, compensation saved to outbox", order.getId(), status);
+        }
+
+        return expired.size();
+    }
+
+    /**
+     * Write the STOCK_RESERVE_RELEASE and mark the order, the caller saves it in the same transaction
+     */
+    private void releaseStock(Order order) {
+        outboxService.saveStockReserveReleaseEvent(order, "system");
+        order.setStockReleased(true);
+    }
+
+    /**
+     * Reject stale or out-of-order replies before anything is written or published
+     */
+    private boolean acceptTransition(Order order, OrderStatus target) {
+        if (order.getStatus().canTransitionTo(target)) {
+            return true;
+        }
+        log.warn("Ignoring transition {} -> {} for order {}", order.getStatus(), target, order.getId());
+        return false;
+    }
+
+    /**
+     * Statuses that wait on a reply from another service get a deadline, all others clear it
+     */
+    private void scheduleDeadline(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (order.getStatus()) {
+            case PENDING -> order.setDeadline(now.plusSeconds(stockReplySeconds));
+            case STOCK_RESERVED, PAYMENT_PENDING -> order.setDeadline(now.plusSeconds(paymentReplySeconds));
+            default -> order.setDeadline(null);
+        }
+    }
+
+    /**
+     * Resolve product-service through the LoadBalancer's local instance cache (refreshed from
+     * Eureka deltas), falling back to the configured address when no instance is registered
+     */
+    private String productServiceUrl() {
+        ServiceInstance instance = loadBalancerClient.choose("product-service");
+        return instance != null ? instance.getUri().toString() : productServiceFallbackUrl;
+    }
+
     public BigDecimal calcTotalAmount(List<Item> items) throws IOException, InterruptedException {
 
-        HttpClient client = HttpClient.newHttpClient();
         ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
         Map<String, Object> payload = new HashMap<>();
         payload.put("items", items);
         String json = mapper.writeValueAsString(payload);
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("http://localhost:8084/api/products/total_amount")) // <-- adjust path
+                .uri(URI.create(productServiceUrl() + "/api/products/total_amount"))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(json))
                 .build();
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = PRODUCT_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
 
             JsonNode root = mapper.readTree(response.body());
 
@@ -242,4 +419,15 @@ public class OrderServiceImpl implements OrderService {
         return orders;
     }
 
+    @Override
+    public List<OrderStatusView> getOrderStatuses(List<Integer> orderIds) {
+        if (orderIds.size() > MAX_STATUS_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_IDS + " order ids per status lookup, got " + orderIds.size());
+        }
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return orderRepository.findStatusesByIdIn(orderIds);
+    }
+
 }
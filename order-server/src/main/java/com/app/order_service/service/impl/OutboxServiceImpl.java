@@ -2,39 +2,44 @@ package com.app.order_service.service.impl;
 
 import com.app.order_service.entity.Order;
 import com.app.order_service.entity.Outbox;
+import com.app.order_service.kafka.event.NotificationSendOutboxEvent;
+import com.app.order_service.kafka.event.OrderOutboxEvent;
+import com.app.order_service.kafka.event.PaymentRefundRequestOutboxEvent;
+import com.app.order_service.kafka.event.StockReleaseOutboxEvent;
+import com.app.order_service.kafka.producer.OutboxPayloadEncoder;
 import com.app.order_service.repository.OutboxRepository;
 import com.app.order_service.service.OutboxService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.app.order_service.service.utils.SagaIdGenerator;
+import com.app.order_service.tracing.OutboxTraceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OutboxServiceImpl implements OutboxService {
     
     private final OutboxRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxPayloadEncoder payloadEncoder;
+    private final OutboxTraceContext outboxTraceContext;
+    private final SagaIdGenerator sagaIdGenerator;
     
     @Override
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveOrderCreatedEvent(Order order, String requestId) {
         try {
-            String payload = buildOrderPayload(order, requestId);
+            byte[] payload = buildOrderPayload(order, requestId);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Order")
                     .aggregateId(order.getId().toString())
                     .eventType("ORDER_CREATED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -49,13 +54,15 @@ public class OutboxServiceImpl implements OutboxService {
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveOrderUpdatedEvent(Order order, String requestId) {
         try {
-            String payload = buildOrderPayload(order, requestId);
+            byte[] payload = buildOrderPayload(order, requestId);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Order")
                     .aggregateId(order.getId().toString())
                     .eventType("ORDER_STATUS_UPDATED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -70,19 +77,16 @@ public class OutboxServiceImpl implements OutboxService {
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveNotificationSendEvent(Integer orderId, String type, String message, String requestId) {
         try {
-            Map<String, Object> payloadMap = new HashMap<>();
-            payloadMap.put("orderId", orderId);
-            payloadMap.put("type", type);
-            payloadMap.put("message", message);
-            payloadMap.put("requestId", requestId);
-            
-            String payload = objectMapper.writeValueAsString(payloadMap);
+            byte[] payload = payloadEncoder.encode(
+                    new NotificationSendOutboxEvent(orderId, type, message, requestId));
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Order")
                     .aggregateId(orderId.toString())
                     .eventType("NOTIFICATION_SEND")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -97,29 +101,16 @@ public class OutboxServiceImpl implements OutboxService {
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveStockReserveReleaseEvent(Order order, String requestId) {
         try {
-            Map<String, Object> payloadMap = new HashMap<>();
-            payloadMap.put("orderId", order.getId());
-            payloadMap.put("requestId", requestId);
-            
-            // Convert OrderItems to simple list format
-            List<Map<String, Integer>> items = order.getOrderItems().stream()
-                    .map(item -> {
-                        Map<String, Integer> itemMap = new HashMap<>();
-                        itemMap.put("productId", item.getProductId());
-                        itemMap.put("quantity", item.getQuantity());
-                        return itemMap;
-                    })
-                    .collect(Collectors.toList());
-            
-            payloadMap.put("items", items);
-            
-            String payload = objectMapper.writeValueAsString(payloadMap);
+            byte[] payload = payloadEncoder.encode(
+                    new StockReleaseOutboxEvent(order.getId(), requestId, order.getOrderItems()));
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Order")
                     .aggregateId(order.getId().toString())
                     .eventType("STOCK_RESERVE_RELEASE")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -130,32 +121,32 @@ public class OutboxServiceImpl implements OutboxService {
         }
     }
     
-    private String buildOrderPayload(Order order, String requestId) {
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void savePaymentRefundRequestedEvent(Order order, String reason, String requestId) {
         try {
-            Map<String, Object> payloadMap = new HashMap<>();
-            payloadMap.put("orderId", order.getId());
-            payloadMap.put("userId", order.getUserId());
-            payloadMap.put("status", order.getStatus().name());
-            payloadMap.put("totalAmount", order.getTotalAmount());
-            payloadMap.put("failReason", order.getFailReason());
-            payloadMap.put("requestId", requestId);
+            byte[] payload = payloadEncoder.encode(
+                    new PaymentRefundRequestOutboxEvent(order.getId(), order.getTotalAmount(), reason, requestId));
             
-            // Convert OrderItems to simple list format
-            List<Map<String, Integer>> items = order.getOrderItems().stream()
-                    .map(item -> {
-                        Map<String, Integer> itemMap = new HashMap<>();
-                        itemMap.put("productId", item.getProductId());
-                        itemMap.put("quantity", item.getQuantity());
-                        return itemMap;
-                    })
-                    .collect(Collectors.toList());
-            
-            payloadMap.put("items", items);
+            Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
+                    .aggregateType("Order")
+                    .aggregateId(order.getId().toString())
+                    .eventType("PAYMENT_REFUND_REQUESTED")
+                    .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
+                    .build();
             
-            return objectMapper.writeValueAsString(payloadMap);
+            outboxRepository.save(outbox);
+            log.info("Saved PaymentRefundRequested event to outbox for order ID: {}", order.getId());
         } catch (Exception e) {
-            log.error("Failed to build order payload: {}", e.getMessage());
-            throw new RuntimeException("Failed to serialize order payload", e);
+            log.error("Failed to save PaymentRefundRequested event to outbox: {}", e.getMessage());
+            throw new RuntimeException("Failed to save event to outbox", e);
         }
     }
+    
+    // Package-private for the benchmarks module
+    byte[] buildOrderPayload(Order order, String requestId) {
+        return payloadEncoder.encode(OrderOutboxEvent.of(order, requestId));
+    }
 }
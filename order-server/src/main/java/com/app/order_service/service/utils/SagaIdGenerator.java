@@ -0,0 +1,117 @@
+package com.app.order_service.service.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id,
+ * 12 bits of per-millisecond sequence.
+ *
+ * Ids are unique per node, strictly increasing per generator and sortable by creation time.
+ * Node ids come from SagaIdNodeLease, which keeps them distinct across instances and services.
+ * Generation is a single CAS on the last issued (millis, sequence) pair. When the sequence of a
+ * millisecond runs out, or the clock moves backwards, the generator continues from the last id
+ * (borrowing the next millisecond) instead of blocking, so it never waits and never repeats.
+ * A generator on a leased node id refuses to issue ids once the lease is no longer valid.
+ */
+public final class SagaIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final LongSupplier validUntilMillis;
+
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence, of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SagaIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Generator on the node id leased by {@code lease}, valid for as long as the lease is
+     */
+    public SagaIdGenerator(SagaIdNodeLease lease) {
+        this(lease.acquire(), System::currentTimeMillis, lease::validUntilMillis);
+    }
+
+    SagaIdGenerator(int nodeId, LongSupplier clock) {
+        this(nodeId, clock, () -> Long.MAX_VALUE);
+    }
+
+    SagaIdGenerator(int nodeId, LongSupplier clock, LongSupplier validUntilMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.validUntilMillis = validUntilMillis;
+    }
+
+    public long nextId() {
+        long state = nextState();
+        return ((state >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | (state & SEQUENCE_MASK);
+    }
+
+    /**
+     * 13-character Crockford base32 form of {@link #nextId()}, fixed width so that
+     * string order equals id order. Used for request ids. Not for idempotency keys: those must
+     * come from the business key (order id, payment id) so that a retry sends the same key.
+     */
+    public String nextIdString() {
+        return encode(nextId());
+    }
+
+    /**
+     * Time-ordered UUID (version 7 layout) for UUID keyed tables such as the outbox: inserts
+     * append to the end of the index instead of landing on random pages like random UUIDs.
+     */
+    public UUID nextUuid() {
+        long state = nextState();
+        long unixMillis = (state >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+        long mostSigBits = (unixMillis << 16) | (0x7L << 12) | (state & SEQUENCE_MASK);
+        long leastSigBits = (0x2L << 62)
+                | (nodeId << 52)
+                | (ThreadLocalRandom.current().nextLong() & ((1L << 52) - 1));
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private long nextState() {
+        long millis = clock.getAsLong();
+        if (millis >= validUntilMillis.getAsLong()) {
+            throw new IllegalStateException("Lease of saga id node " + nodeId
+                    + " has expired or was lost, no ids are issued under it");
+        }
+        long now = (millis - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            // A new millisecond restarts the sequence, anything else continues after the last id
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.app.order_service.tracing;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Captures the current span as a W3C traceparent for the outbox row.
+ * Debezium forwards the column as the traceparent Kafka header, and the consuming
+ * listener's observation continues the trace from it, across the outbox hop.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxTraceContext {
+
+    private final Tracer tracer;
+
+    /**
+     * Unsampled spans are still propagated, with flags 00, so the downstream services keep
+     * the same trace id and sampling decision instead of starting a new root.
+     *
+     * @return traceparent of the current span, or null when there is no span
+     */
+    public String currentTraceParent() {
+        // isNoop() is also true for non-recording (unsampled) spans, so it is not checked here
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        TraceContext context = span.context();
+        if (context.traceId() == null || context.traceId().isEmpty()) {
+            return null;
+        }
+        // version-traceId-spanId-flags, formatted directly instead of through a propagator carrier map
+        return "00-" + context.traceId() + "-" + context.spanId()
+                + (Boolean.TRUE.equals(context.sampled()) ? "-01" : "-00");
+    }
+}
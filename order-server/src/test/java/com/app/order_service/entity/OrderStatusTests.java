@@ -0,0 +1,36 @@
+package com.app.order_service.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OrderStatusTests {
+
+	@Test
+	void happyPathIsAllowed() {
+		assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.STOCK_RESERVED)).isTrue();
+		assertThat(OrderStatus.STOCK_RESERVED.canTransitionTo(OrderStatus.PAID)).isTrue();
+		assertThat(OrderStatus.PAID.canTransitionTo(OrderStatus.REFUNDED)).isTrue();
+	}
+
+	@Test
+	void lateStockReplyAfterPaymentFailureIsRejected() {
+		assertThat(OrderStatus.PAYMENT_FAILED.canTransitionTo(OrderStatus.STOCK_RESERVED)).isFalse();
+	}
+
+	@Test
+	void duplicateRepliesAreRejected() {
+		for (OrderStatus status : OrderStatus.values()) {
+			assertThat(status.canTransitionTo(status)).isFalse();
+		}
+	}
+
+	@Test
+	void terminalStatusesAcceptNothing() {
+		for (OrderStatus next : OrderStatus.values()) {
+			assertThat(OrderStatus.CANCELED.canTransitionTo(next)).isFalse();
+			assertThat(OrderStatus.STOCK_FAILED.canTransitionTo(next)).isFalse();
+			assertThat(OrderStatus.REFUNDED.canTransitionTo(next)).isFalse();
+		}
+	}
+}
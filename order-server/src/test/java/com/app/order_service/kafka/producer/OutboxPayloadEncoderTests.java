@@ -0,0 +1,73 @@
+package com.app.order_service.kafka.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.kafka.event.NotificationSendOutboxEvent;
+import com.app.order_service.kafka.event.OrderOutboxEvent;
+import com.app.order_service.kafka.event.OutboxPayload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class OutboxPayloadEncoderTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final OutboxPayloadEncoder encoder = new OutboxPayloadEncoder(objectMapper);
+
+	@Test
+	void orderPayloadHasTheFieldsConsumersRead() throws Exception {
+		Order order = Order.builder()
+				.id(7)
+				.userId(42)
+				.status(OrderStatus.PENDING)
+				.totalAmount(new BigDecimal("1249.90"))
+				.build();
+		order.addOrderItem(1000, 2);
+		order.addOrderItem(1001, 1);
+
+		JsonNode payload = objectMapper.readTree(encoder.encode(OrderOutboxEvent.of(order, "REQ-1")));
+
+		assertThat(payload.path("orderId").asInt()).isEqualTo(7);
+		assertThat(payload.path("userId").asInt()).isEqualTo(42);
+		assertThat(payload.path("status").asText()).isEqualTo("PENDING");
+		assertThat(payload.path("totalAmount").decimalValue()).isEqualByComparingTo("1249.90");
+		assertThat(payload.path("failReason").isNull()).isTrue();
+		assertThat(payload.path("requestId").asText()).isEqualTo("REQ-1");
+		assertThat(payload.path("items")).hasSize(2);
+		assertThat(payload.path("items").get(1).path("productId").asInt()).isEqualTo(1001);
+		assertThat(payload.path("items").get(1).path("quantity").asInt()).isEqualTo(1);
+	}
+
+	@Test
+	void consecutivePayloadsDoNotShareBytes() {
+		byte[] first = encoder.encode(new NotificationSendOutboxEvent(1, "PAYMENT_SUCCESS", "paid", "REQ-1"));
+		byte[] second = encoder.encode(new NotificationSendOutboxEvent(2, "PAYMENT_FAILED", "declined", "REQ-2"));
+
+		assertThat(new String(first, StandardCharsets.UTF_8))
+				.isEqualTo("{\"orderId\":1,\"type\":\"PAYMENT_SUCCESS\",\"message\":\"paid\",\"requestId\":\"REQ-1\"}");
+		assertThat(new String(second, StandardCharsets.UTF_8))
+				.isEqualTo("{\"orderId\":2,\"type\":\"PAYMENT_FAILED\",\"message\":\"declined\",\"requestId\":\"REQ-2\"}");
+	}
+
+	@Test
+	void failedPayloadDoesNotCorruptTheNext() {
+		OutboxPayload failing = generator -> {
+			generator.writeStartObject();
+			generator.writeNumberField("orderId", 1);
+			throw new IllegalStateException("boom");
+		};
+
+		assertThatThrownBy(() -> encoder.encode(failing)).isInstanceOf(IllegalStateException.class);
+
+		byte[] next = encoder.encode(new OrderOutboxEvent(3, 4, OrderStatus.PAID, BigDecimal.TEN, null, "REQ-3", List.of()));
+		assertThat(new String(next, StandardCharsets.UTF_8)).startsWith("{\"orderId\":3,");
+	}
+}
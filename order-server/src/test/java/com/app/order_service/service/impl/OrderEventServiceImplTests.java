@@ -0,0 +1,125 @@
+package com.app.order_service.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.order_service.dto.response.StepLatencyExport;
+import com.app.order_service.entity.OrderEvent;
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.repository.OrderEventRepository;
+import com.app.order_service.repository.OrderSnapshotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventServiceImplTests {
+
+	private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+	private static final LocalDateTime TO = FROM.plusDays(1);
+
+	@Mock
+	private OrderEventRepository orderEventRepository;
+
+	@Mock
+	private OrderSnapshotRepository orderSnapshotRepository;
+
+	@InjectMocks
+	private OrderEventServiceImpl orderEventService;
+
+	@BeforeEach
+	void limits() {
+		ReflectionTestUtils.setField(orderEventService, "snapshotInterval", 5);
+		ReflectionTestUtils.setField(orderEventService, "exportMaxRows", 1000);
+	}
+
+	@Test
+	void stepsAreDictionaryEncodedInRowOrder() {
+		LocalDateTime at = FROM.plusHours(1);
+		when(orderEventRepository
+				.findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+						eq(FROM), eq(TO), any(Pageable.class)))
+				.thenReturn(List.of(
+						event(1, OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, 40, at),
+						event(2, OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, 55, at.plusSeconds(1)),
+						event(1, OrderStatus.STOCK_RESERVED, OrderStatus.PAYMENT_PENDING, 12, at.plusSeconds(2))));
+
+		StepLatencyExport export = orderEventService.exportStepLatencies(FROM, TO, 100);
+
+		assertThat(export.getSteps()).containsExactly("PENDING->STOCK_RESERVED", "STOCK_RESERVED->PAYMENT_PENDING");
+		assertThat(export.getStep()).containsExactly(0, 0, 1);
+		assertThat(export.getOrderId()).containsExactly(1, 2, 1);
+		assertThat(export.getMillis()).containsExactly(40L, 55L, 12L);
+	}
+
+	@Test
+	void occurredAtIsConvertedFromTheZoneItWasWrittenIn() {
+		LocalDateTime at = LocalDateTime.now();
+		when(orderEventRepository
+				.findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+						eq(FROM), eq(TO), any(Pageable.class)))
+				.thenReturn(List.of(event(1, OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, 40, at)));
+
+		StepLatencyExport export = orderEventService.exportStepLatencies(FROM, TO, 100);
+
+		assertThat(export.getOccurredAt())
+				.containsExactly(at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+	}
+
+	@Test
+	void emptyRangeExportsEmptyColumns() {
+		when(orderEventRepository
+				.findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+						eq(FROM), eq(TO), any(Pageable.class)))
+				.thenReturn(List.of());
+
+		StepLatencyExport export = orderEventService.exportStepLatencies(FROM, TO, 100);
+
+		assertThat(export.getSteps()).isEmpty();
+		assertThat(export.getStep()).isEmpty();
+		assertThat(export.getOccurredAt()).isEmpty();
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "100, 100", "1000000, 1000", "0, 1", "-5, 1" })
+	void limitIsClampedToTheExportMaximum(int limit, int expectedPageSize) {
+		ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+		when(orderEventRepository
+				.findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+						eq(FROM), eq(TO), any(Pageable.class)))
+				.thenReturn(List.of());
+
+		orderEventService.exportStepLatencies(FROM, TO, limit);
+
+		verify(orderEventRepository)
+				.findByOccurredAtGreaterThanEqualAndOccurredAtLessThanAndStepMillisIsNotNullOrderByOccurredAtAsc(
+						eq(FROM), eq(TO), page.capture());
+		assertThat(page.getValue().getPageSize()).isEqualTo(expectedPageSize);
+	}
+
+	private static OrderEvent event(int orderId, OrderStatus from, OrderStatus to, long millis, LocalDateTime at) {
+		return OrderEvent.builder()
+				.orderId(orderId)
+				.fromStatus(from)
+				.toStatus(to)
+				.stepMillis(millis)
+				.occurredAt(at)
+				.build();
+	}
+}
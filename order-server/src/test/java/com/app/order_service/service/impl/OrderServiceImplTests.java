@@ -0,0 +1,190 @@
+package com.app.order_service.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import com.app.order_service.entity.Order;
+import com.app.order_service.entity.OrderStatus;
+import com.app.order_service.repository.OrderRepository;
+import com.app.order_service.service.OrderEventService;
+import com.app.order_service.service.OutboxService;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTests {
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private OrderEventService orderEventService;
+
+	@Mock
+	private LoadBalancerClient loadBalancerClient;
+
+	@InjectMocks
+	private OrderServiceImpl orderService;
+
+	@BeforeEach
+	void saveReturnsTheOrder() {
+		lenient().when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = OrderStatus.class, names = { "PENDING", "STOCK_RESERVED", "PAYMENT_PENDING" })
+	void expiredOrderIsCanceledAndNotified(OrderStatus status) {
+		Order order = order(status);
+		expiring(status, order);
+
+		assertThat(orderService.expireOverdueOrders(status, 10)).isEqualTo(1);
+
+		assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+		assertThat(order.getDeadline()).isNull();
+		verify(outboxService).saveOrderUpdatedEvent(order, "system");
+		verify(orderEventService).recordTransition(order, status);
+		verify(outboxService).saveNotificationSendEvent(eq(order.getId()), eq("ORDER_CANCELLED"), anyString(), eq("system"));
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = OrderStatus.class, names = { "STOCK_RESERVED", "PAYMENT_PENDING" })
+	void orderExpiredHoldingStockReleasesIt(OrderStatus status) {
+		Order order = order(status);
+		expiring(status, order);
+
+		orderService.expireOverdueOrders(status, 10);
+
+		verify(outboxService).saveStockReserveReleaseEvent(order, "system");
+		assertThat(order.isStockReleased()).isTrue();
+	}
+
+	@Test
+	void orderExpiredInPendingReleasesNothingUntilTheReservationArrives() {
+		Order order = order(OrderStatus.PENDING);
+		expiring(OrderStatus.PENDING, order);
+
+		orderService.expireOverdueOrders(OrderStatus.PENDING, 10);
+
+		verify(outboxService, never()).saveStockReserveReleaseEvent(any(), anyString());
+		assertThat(order.isStockReleased()).isFalse();
+	}
+
+	@Test
+	void reservationAfterExpiryReleasesTheStock() {
+		Order order = order(OrderStatus.PENDING);
+		expiring(OrderStatus.PENDING, order);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		orderService.expireOverdueOrders(OrderStatus.PENDING, 10);
+		Order result = orderService.handleStockReserveSucceeded(order.getId());
+
+		assertThat(result).isNull();
+		assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+		assertThat(order.isStockReleased()).isTrue();
+		verify(outboxService).saveStockReserveReleaseEvent(order, "system");
+	}
+
+	@Test
+	void redeliveredReservationReleasesOnlyOnce() {
+		Order order = order(OrderStatus.PENDING);
+		expiring(OrderStatus.PENDING, order);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		orderService.expireOverdueOrders(OrderStatus.PENDING, 10);
+		orderService.handleStockReserveSucceeded(order.getId());
+		orderService.handleStockReserveSucceeded(order.getId());
+
+		verify(outboxService, times(1)).saveStockReserveReleaseEvent(order, "system");
+	}
+
+	@Test
+	void reservationAfterPaymentWaitExpiredIsNotReleasedTwice() {
+		Order order = order(OrderStatus.STOCK_RESERVED);
+		expiring(OrderStatus.STOCK_RESERVED, order);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		orderService.expireOverdueOrders(OrderStatus.STOCK_RESERVED, 10);
+		orderService.handleStockReserveSucceeded(order.getId());
+
+		verify(outboxService, times(1)).saveStockReserveReleaseEvent(order, "system");
+	}
+
+	@Test
+	void reservationOnPendingOrderMovesToStockReserved() {
+		Order order = order(OrderStatus.PENDING);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		Order result = orderService.handleStockReserveSucceeded(order.getId());
+
+		assertThat(result.getStatus()).isEqualTo(OrderStatus.STOCK_RESERVED);
+		assertThat(result.getDeadline()).isNotNull();
+		verify(outboxService).saveOrderUpdatedEvent(order, "system");
+		verify(outboxService, never()).saveStockReserveReleaseEvent(any(), anyString());
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = OrderStatus.class, names = { "STOCK_RESERVED", "PAYMENT_PENDING" })
+	void paymentAfterExpiryRequestsARefund(OrderStatus status) {
+		Order order = order(status);
+		expiring(status, order);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		orderService.expireOverdueOrders(status, 10);
+		Order result = orderService.handlePaymentSuccess(order.getId());
+
+		assertThat(result).isNull();
+		assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+		verify(outboxService).savePaymentRefundRequestedEvent(eq(order), anyString(), eq("system"));
+		verify(outboxService, never()).saveNotificationSendEvent(any(), eq("PAYMENT_SUCCESS"), anyString(), anyString());
+	}
+
+	@Test
+	void duplicatePaymentOnPaidOrderRequestsNoRefund() {
+		Order order = order(OrderStatus.PAID);
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+		assertThat(orderService.handlePaymentSuccess(order.getId())).isNull();
+
+		verify(outboxService, never()).savePaymentRefundRequestedEvent(any(), anyString(), anyString());
+	}
+
+	private void expiring(OrderStatus status, Order order) {
+		when(orderRepository.lockExpiredOrders(eq(status.name()), any(LocalDateTime.class), eq(10)))
+				.thenReturn(List.of(order));
+	}
+
+	private static Order order(OrderStatus status) {
+		Order order = Order.builder()
+				.id(7)
+				.userId(42)
+				.status(status)
+				.totalAmount(new BigDecimal("99.00"))
+				.deadline(LocalDateTime.now().minusSeconds(1))
+				.build();
+		order.addOrderItem(1000, 2);
+		return order;
+	}
+}
@@ -0,0 +1,103 @@
+package com.app.order_service.service.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SagaIdGeneratorTests {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 200_000;
+
+	@Test
+	void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+		SagaIdGenerator generator = new SagaIdGenerator(42);
+		Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					long previous = Long.MIN_VALUE;
+					boolean increasing = true;
+					for (int i = 0; i < IDS_PER_THREAD; i++) {
+						long id = generator.nextId();
+						increasing &= id > previous;
+						previous = id;
+						ids.add(id);
+					}
+					return increasing;
+				}));
+			}
+			start.countDown();
+
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+	}
+
+	@Test
+	void clockMovingBackwardsNeverRepeatsIds() {
+		AtomicLong clock = new AtomicLong(SagaIdGenerator.EPOCH_MILLIS + 10_000);
+		SagaIdGenerator generator = new SagaIdGenerator(1, clock::get);
+
+		long beforeRollback = generator.nextId();
+		clock.addAndGet(-5_000);
+
+		assertThat(generator.nextId()).isGreaterThan(beforeRollback);
+	}
+
+	@Test
+	void exhaustedSequenceBorrowsTheNextMillisecond() {
+		SagaIdGenerator generator = new SagaIdGenerator(1, () -> SagaIdGenerator.EPOCH_MILLIS + 10_000);
+
+		long previous = generator.nextId();
+		for (int i = 0; i < 10_000; i++) {
+			long id = generator.nextId();
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+	}
+
+	@Test
+	void stringFormSortsLikeTheId() {
+		SagaIdGenerator generator = new SagaIdGenerator(7);
+
+		String first = generator.nextIdString();
+		String second = generator.nextIdString();
+
+		assertThat(first).hasSize(13);
+		assertThat(second).isGreaterThan(first);
+		assertThat(SagaIdGenerator.encode(1L)).isLessThan(SagaIdGenerator.encode(Long.MAX_VALUE));
+	}
+
+	@Test
+	void uuidsAreVersion7AndTimeOrdered() {
+		SagaIdGenerator generator = new SagaIdGenerator(7);
+
+		var first = generator.nextUuid();
+		var second = generator.nextUuid();
+
+		assertThat(first.version()).isEqualTo(7);
+		assertThat(first.variant()).isEqualTo(2);
+		assertThat(Long.compareUnsigned(second.getMostSignificantBits(), first.getMostSignificantBits())).isPositive();
+	}
+}
@@ -0,0 +1,164 @@
+package com.app.order_service.service.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.app.order_service.repository.SagaIdNodeRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SagaIdNodeLeaseTests {
+
+	private static final String OWNER = "test-instance";
+	private static final Duration TTL = Duration.ofSeconds(60);
+	// Database clock; the local clock is deliberately somewhere else
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+	private static final long LOCAL_MILLIS = SagaIdGenerator.EPOCH_MILLIS + 1_000_000;
+
+	@Mock
+	private SagaIdNodeRepository repository;
+
+	private final AtomicLong localClock = new AtomicLong(LOCAL_MILLIS);
+
+	@Test
+	void leasesTheFirstSlotNobodyHolds() {
+		when(repository.existsById(anyInt())).thenAnswer(invocation -> (int) invocation.getArgument(0) < 2);
+
+		try (SagaIdNodeLease lease = lease(2)) {
+			// Slots 0 and 1 are held, slot 2 has never been used
+			assertThat(lease.acquire()).isEqualTo((2 << SagaIdNodeLease.INSTANCE_SLOT_BITS) | 2);
+			verify(repository).insert(2, OWNER, NOW.plus(TTL));
+		}
+	}
+
+	@Test
+	void expiredSlotIsTakenOver() {
+		when(repository.claim(0, OWNER, NOW, NOW.plus(TTL))).thenReturn(1);
+
+		try (SagaIdNodeLease lease = lease(0)) {
+			assertThat(lease.acquire()).isZero();
+			verify(repository, never()).insert(anyInt(), eq(OWNER), eq(NOW.plus(TTL)));
+		}
+	}
+
+	@Test
+	void slotInsertedByAnotherInstanceFirstIsSkipped() {
+		when(repository.insert(anyInt(), eq(OWNER), eq(NOW.plus(TTL)))).thenAnswer(invocation -> {
+			if ((int) invocation.getArgument(0) == 0) {
+				throw new DataIntegrityViolationException("duplicate");
+			}
+			return 1;
+		});
+
+		try (SagaIdNodeLease lease = lease(1)) {
+			assertThat(lease.acquire()).isEqualTo((1 << SagaIdNodeLease.INSTANCE_SLOT_BITS) | 1);
+		}
+	}
+
+	@Test
+	void failsWhenEverySlotIsLeased() {
+		when(repository.existsById(anyInt())).thenReturn(true);
+
+		try (SagaIdNodeLease lease = lease(0)) {
+			assertThatThrownBy(lease::acquire)
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("saga.id.node-id");
+		}
+	}
+
+	@Test
+	void lostLeaseIsClaimedBackWhenStillFree() {
+		when(repository.claim(0, OWNER, NOW, NOW.plus(TTL))).thenReturn(1);
+		when(repository.renew(eq(0), eq(OWNER), any())).thenReturn(0);
+
+		try (SagaIdNodeLease lease = lease(0)) {
+			lease.acquire();
+
+			lease.renew();
+
+			verify(repository, times(2)).claim(0, OWNER, NOW, NOW.plus(TTL));
+			assertThat(lease.validUntilMillis()).isEqualTo(LOCAL_MILLIS + TTL.toMillis());
+		}
+	}
+
+	@Test
+	void noIdsAreIssuedOnceTheSlotIsClaimedByAnotherInstance() {
+		when(repository.claim(anyInt(), eq(OWNER), eq(NOW), eq(NOW.plus(TTL)))).thenReturn(1, 0);
+		when(repository.existsById(0)).thenReturn(true);
+		when(repository.renew(eq(0), eq(OWNER), any())).thenReturn(0);
+
+		try (SagaIdNodeLease lease = lease(0)) {
+			SagaIdGenerator generator = new SagaIdGenerator(lease.acquire(), localClock::get, lease::validUntilMillis);
+			generator.nextId();
+
+			// The instance stalled, another one took the slot over
+			lease.renew();
+
+			assertThat(lease.validUntilMillis()).isZero();
+			assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+			assertThatThrownBy(generator::nextUuid).isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	void noIdsAreIssuedOnceTheLeaseRunsOutWithoutRenewal() {
+		when(repository.claim(0, OWNER, NOW, NOW.plus(TTL))).thenReturn(1);
+
+		try (SagaIdNodeLease lease = lease(0)) {
+			SagaIdGenerator generator = new SagaIdGenerator(lease.acquire(), localClock::get, lease::validUntilMillis);
+			assertThat(lease.validUntilMillis()).isEqualTo(LOCAL_MILLIS + TTL.toMillis());
+
+			// Database unreachable: the beats fail and the lease is not extended
+			localClock.addAndGet(TTL.toMillis() - 1);
+			generator.nextId();
+			localClock.incrementAndGet();
+			assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+
+			// Back once a renewal gets through
+			when(repository.renew(eq(0), eq(OWNER), any())).thenReturn(1);
+			lease.renew();
+			assertThat(lease.validUntilMillis()).isEqualTo(localClock.get() + TTL.toMillis());
+			generator.nextId();
+		}
+	}
+
+	@Test
+	void closeExpiresTheLease() {
+		SagaIdNodeLease lease = lease(0);
+		lease.acquire();
+
+		lease.close();
+
+		verify(repository).renew(0, OWNER, NOW);
+	}
+
+	@Test
+	void serviceSlotMustFitTheNodeId() {
+		assertThatThrownBy(() -> lease(SagaIdNodeLease.MAX_SERVICE_SLOT + 1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private SagaIdNodeLease lease(int serviceSlot) {
+		lenient().when(repository.databaseNow()).thenReturn(NOW);
+		return new SagaIdNodeLease(repository, TransactionOperations.withoutTransaction(), serviceSlot, TTL, OWNER,
+				localClock::get);
+	}
+}
@@ -0,0 +1,62 @@
+package com.app.order_service.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+class OutboxTraceContextTests {
+
+	@Test
+	void sampledSpanIsWrittenWithFlags01() {
+		Tracer tracer = tracer(Sampler.alwaysOn());
+
+		String traceParent = inSpan(tracer, new OutboxTraceContext(tracer));
+
+		assertThat(traceParent).matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01");
+	}
+
+	@Test
+	void unsampledSpanIsWrittenWithFlags00() {
+		Tracer tracer = tracer(Sampler.alwaysOff());
+
+		String traceParent = inSpan(tracer, new OutboxTraceContext(tracer));
+
+		assertThat(traceParent).matches("00-[0-9a-f]{32}-[0-9a-f]{16}-00");
+	}
+
+	@Test
+	void noSpanWritesNoTraceParent() {
+		Tracer tracer = tracer(Sampler.alwaysOn());
+
+		assertThat(new OutboxTraceContext(tracer).currentTraceParent()).isNull();
+	}
+
+	static Tracer tracer(Sampler sampler) {
+		io.opentelemetry.api.trace.Tracer otelTracer = SdkTracerProvider.builder()
+				.setSampler(sampler)
+				.build()
+				.get("outbox-trace-context");
+		OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+		return new OtelTracer(otelTracer, currentTraceContext, event -> {
+		}, new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+	}
+
+	private static String inSpan(Tracer tracer, OutboxTraceContext traceContext) {
+		Span span = tracer.nextSpan().name("outbox").start();
+		try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+			return traceContext.currentTraceParent();
+		} finally {
+			span.end();
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.distribute.payment.config;
+
+/**
+ * Offset commit strategy for the payment listeners.
+ *
+ * RECORD           - container commits after every record (one broker round trip each)
+ * BATCH            - container commits once per poll, regardless of DB outcome
+ * TRANSACTION_SYNC - offsets are acknowledged only after the JPA transaction that
+ *                    handled the record commits, and flushed in count/time batches
+ */
+public enum ConsumerAckMode {
+    RECORD,
+    BATCH,
+    TRANSACTION_SYNC
+}
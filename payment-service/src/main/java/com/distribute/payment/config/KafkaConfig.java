@@ -1,25 +1,42 @@
 package com.distribute.payment.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import com.distribute.payment.kafka.consumer.SagaHopMetricsInterceptor;
+import com.distribute.payment.kafka.consumer.TransactionalAckCoordinator;
+import com.distribute.payment.kafka.topic.KafkaTopics;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
+
+    public static final String PAYMENT_AUTHORIZE_TOPIC = KafkaTopics.PAYMENT_AUTHORIZE;
+    public static final String PAYMENT_AUTHORIZE_REPLAY_TOPIC = PAYMENT_AUTHORIZE_TOPIC + "-payment-authorize-retry-0";
+    public static final String PAYMENT_AUTHORIZE_DLT_TOPIC = PAYMENT_AUTHORIZE_TOPIC + "-payment-authorize-dlt";
     
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
@@ -27,6 +44,30 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
     
+    @Value("${kafka.consumer.ack-mode:TRANSACTION_SYNC}")
+    private ConsumerAckMode ackMode;
+    
+    @Value("${kafka.consumer.commit-interval-ms:500}")
+    private long commitIntervalMs;
+    
+    @Autowired
+    private TransactionalAckCoordinator ackCoordinator;
+    
+    @Autowired
+    private SagaHopMetricsInterceptor sagaHopMetricsInterceptor;
+    
+    @Value("${kafka.retry.attempts:4}")
+    private int retryAttempts;
+    
+    @Value("${kafka.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+    
+    @Value("${kafka.retry.multiplier:2.0}")
+    private double retryMultiplier;
+    
+    @Value("${kafka.retry.max-delay-ms:10000}")
+    private long retryMaxDelayMs;
+    
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -43,7 +84,10 @@ public class KafkaConfig {
     
     @Bean
     public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory());
+        // Propagate the current trace as a traceparent header
+        template.setObservationEnabled(true);
+        return template;
     }
     
     // Consumer Configuration
@@ -55,8 +99,8 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-        configProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+        // Offsets are committed by the listener container, never by the client in the background
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
         configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
         configProps.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
@@ -70,8 +114,13 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         
-        // Enable manual acknowledgment if needed
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        applyAckMode(factory.getContainerProperties(), ackMode);
+        
+        // Per-hop saga latency (CDC lag, queue wait, handler time)
+        factory.setRecordInterceptor(sagaHopMetricsInterceptor);
+        
+        // Continue the trace carried in the traceparent header (outbox or direct publish)
+        factory.getContainerProperties().setObservationEnabled(true);
         
         // Set concurrency level (number of consumer threads)
         factory.setConcurrency(1);
@@ -81,4 +130,81 @@ public class KafkaConfig {
         
         return factory;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Batch listener factory for PAYMENT_AUTHORIZE: a whole poll goes to
+     * PaymentAuthorizationPipeline and the offsets of the poll are committed after it returns,
+     * i.e. after every payment of the poll has been authorized and committed.
+     *
+     * Non-blocking retry topics do not support batch listeners, so failures are retried in
+     * place with the kafka.retry backoff and then dead-lettered to the same DLT as before.
+     * Malformed events go straight to the DLT. DLT replays land on the first retry topic,
+     * which the listener also consumes.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> paymentAuthorizeBatchContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = 
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setBatchInterceptor(sagaHopMetricsInterceptor);
+        factory.getContainerProperties().setObservationEnabled(true);
+        
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryAttempts - 1);
+        backOff.setInitialInterval(retryInitialDelayMs);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxDelayMs);
+        
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate(),
+                (record, exception) -> new TopicPartition(PAYMENT_AUTHORIZE_DLT_TOPIC, -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        // IllegalArgumentException covers NumberFormatException and invalid AuthorizationCommands
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class, IllegalArgumentException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        
+        factory.setConcurrency(1);
+        factory.setAutoStartup(true);
+        return factory;
+    }
+    
+    @Bean
+    public NewTopic paymentAuthorizeReplayTopic() {
+        return TopicBuilder.name(PAYMENT_AUTHORIZE_REPLAY_TOPIC).partitions(1).build();
+    }
+    
+    @Bean
+    public NewTopic paymentAuthorizeDeadLetterTopic() {
+        return TopicBuilder.name(PAYMENT_AUTHORIZE_DLT_TOPIC).partitions(1).build();
+    }
+    
+    /**
+     * Resumes partitions of the OrderEventListener retry topics once a record's backoff has
+     * elapsed. The PAYMENT_AUTHORIZE batch listener retries in place and does not use it.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler retryTopicTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("payment-retry-");
+        return scheduler;
+    }
+    
+    /**
+     * Map the configured commit strategy onto the container properties.
+     * TRANSACTION_SYNC relies on the listeners calling
+     * {@link TransactionalAckCoordinator#acknowledgeAfterCommit} inside their transaction.
+     */
+    public void applyAckMode(ContainerProperties containerProperties, ConsumerAckMode mode) {
+        switch (mode) {
+            case RECORD -> containerProperties.setAckMode(ContainerProperties.AckMode.RECORD);
+            case BATCH -> containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+            case TRANSACTION_SYNC -> {
+                containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+                // Idle events flush the tail of a commit batch once the topic goes quiet
+                containerProperties.setIdleEventInterval(commitIntervalMs);
+                containerProperties.setConsumerRebalanceListener(ackCoordinator);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.distribute.payment.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.distribute.payment.kafka.dlt.DltReplayService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/payments/dlt")
+@Slf4j
+public class DeadLetterController {
+
+    @Autowired
+    private DltReplayService dltReplayService;
+
+    /**
+     * Re-inject dead-lettered records, e.g. topic=PAYMENT_AUTHORIZE-payment-authorize-dlt
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "100") int max) {
+        log.info("Received request to replay up to {} records from {}", max, topic);
+
+        int replayed = dltReplayService.replay(topic, max);
+        return ResponseEntity.ok(Map.of("topic", topic, "replayed", replayed));
+    }
+}
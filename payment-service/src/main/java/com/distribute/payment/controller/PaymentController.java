@@ -1,6 +1,7 @@
 package com.distribute.payment.controller;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,13 +22,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.distribute.payment.dto.CursorPage;
 import com.distribute.payment.dto.PaymentProcessDto;
 import com.distribute.payment.dto.PaymentRefundDto;
 import com.distribute.payment.dto.PaymentRequestDto;
 import com.distribute.payment.dto.PaymentResponseDto;
+import com.distribute.payment.dto.PaymentSearchCriteria;
 import com.distribute.payment.dto.PaymentStatusUpdateDto;
+import com.distribute.payment.dto.RefundJobDto;
+import com.distribute.payment.entity.PaymentMethod;
 import com.distribute.payment.entity.PaymentStatus;
 import com.distribute.payment.service.PaymentService;
+import com.distribute.payment.service.RefundJobService;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -40,9 +46,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PaymentController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private RefundJobService refundJobService;
+
     @PostMapping
     public ResponseEntity<PaymentResponseDto> createPayment(@Valid @RequestBody PaymentRequestDto requestDto) {
         log.info("Received request to create payment for order: {}", requestDto.getOrderId());
@@ -111,13 +122,50 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Accept a refund; it runs in the background. Poll the returned job for the outcome.
+     */
     @PostMapping("/refund")
-    public ResponseEntity<PaymentResponseDto> refundPayment(
+    public ResponseEntity<RefundJobDto> refundPayment(
             @RequestBody PaymentRefundDto refundDto) {
 
         log.info("Received request to refund payment with ID: {}", refundDto.getPaymentId());
 
-        PaymentResponseDto response = paymentService.refundPayment(refundDto);
+        RefundJobDto job = refundJobService.enqueue(refundDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/payments/refund-jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/refund-jobs/{jobId}")
+    public ResponseEntity<RefundJobDto> getRefundJob(@PathVariable Long jobId) {
+        log.info("Received request to get refund job with ID: {}", jobId);
+
+        RefundJobDto job = refundJobService.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<PaymentResponseDto>> searchPayments(
+            @RequestParam(required = false) Integer orderId,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) PaymentMethod method,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "Size must be positive") int size) {
+
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.builder()
+                .orderId(orderId)
+                .status(status)
+                .method(method)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
+        log.info("Received request to search payments: {}, cursor: {}, size: {}", criteria, cursor, size);
+
+        CursorPage<PaymentResponseDto> response =
+                paymentService.searchPayments(criteria, cursor, Math.min(size, MAX_SEARCH_PAGE_SIZE));
         return ResponseEntity.ok(response);
     }
 
@@ -137,6 +185,14 @@ public class PaymentController {
         return ResponseEntity.ok(statistics);
     }
 
+    @PostMapping("/statistics/rebuild")
+    public ResponseEntity<Integer> rebuildPaymentStatistics() {
+        log.info("Received request to rebuild payment statistics");
+
+        int rows = paymentService.rebuildPaymentStatistics();
+        return ResponseEntity.ok(rows);
+    }
+
     @GetMapping("/order/{orderId}/exists")
     public ResponseEntity<Boolean> checkPaymentExistsForOrder(
             @PathVariable @Min(value = 1, message = "Order ID must be positive") Integer orderId) {
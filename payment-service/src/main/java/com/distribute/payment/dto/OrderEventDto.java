@@ -52,6 +52,10 @@ public class OrderEventDto {
     
     @JsonProperty("currency")
     private String currency;
+
+    // Set on PAYMENT_REFUND_REQUESTED
+    @JsonProperty("reason")
+    private String reason;
     
     // Helper method to check if this is an order creation event
     public boolean isOrderCreatedEvent() {
@@ -63,6 +67,11 @@ public class OrderEventDto {
         return "ORDER_CONFIRMED".equalsIgnoreCase(eventType);
     }
     
+    // Helper method to check if the order asks for its payment back
+    public boolean isPaymentRefundRequestedEvent() {
+        return "PAYMENT_REFUND_REQUESTED".equalsIgnoreCase(eventType);
+    }
+    
     // Helper method to check if payment should be created
     public boolean shouldCreatePayment() {
         return isOrderCreatedEvent() || isOrderConfirmedEvent();
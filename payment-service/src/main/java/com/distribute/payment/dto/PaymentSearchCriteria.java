@@ -0,0 +1,31 @@
+package com.distribute.payment.dto;
+
+import java.math.BigDecimal;
+
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional payment search filters; null fields are not filtered on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentSearchCriteria {
+
+    private Integer orderId;
+
+    private PaymentStatus status;
+
+    private PaymentMethod method;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+}
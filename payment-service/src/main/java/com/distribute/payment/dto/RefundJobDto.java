@@ -0,0 +1,40 @@
+package com.distribute.payment.dto;
+
+import java.time.LocalDateTime;
+
+import com.distribute.payment.entity.RefundJob;
+import com.distribute.payment.entity.RefundJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJobDto {
+
+    private Long jobId;
+    private Integer paymentId;
+    private RefundJobStatus status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime gatewayApprovedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static RefundJobDto fromEntity(RefundJob job) {
+        return RefundJobDto.builder()
+                .jobId(job.getId())
+                .paymentId(job.getPaymentId())
+                .status(job.getStatus())
+                .attempts(job.getAttempts())
+                .lastError(job.getLastError())
+                .gatewayApprovedAt(job.getGatewayApprovedAt())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Entity
@@ -15,10 +17,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Outbox {
+public class Outbox implements Persistable<UUID> {
     
+    // Time-ordered UUID from SagaIdGenerator, assigned by OutboxServiceImpl; Debezium publishes it as the event id
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     
     @Column(name = "aggregate_type", nullable = false, length = 255)
@@ -33,7 +35,28 @@ public class Outbox {
     @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
     private String payload;
     
+    // W3C traceparent of the writing span, forwarded by Debezium as the traceparent header
+    @Column(name = "trace_parent", length = 55)
+    private String traceParent;
+    
+    // Stored as UTC, Debezium forwards it as the outboxCreatedAt header (epoch based) for hop latency
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime createdAt = LocalDateTime.now(ZoneOffset.UTC);
+    
+    // The id is assigned before save, so without this Spring Data would merge (SELECT, then INSERT)
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+    
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+    
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
 }
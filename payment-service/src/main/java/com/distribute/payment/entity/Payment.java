@@ -12,14 +12,26 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // One payment per order; also what makes payment creation idempotent
+        @Index(name = "uk_payments_order_id", columnList = "order_id", unique = true),
+        @Index(name = "idx_payments_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_payments_method_created", columnList = "method, created_at"),
+        @Index(name = "idx_payments_amount", columnList = "amount"),
+        @Index(name = "idx_payments_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,4 +59,27 @@ public class Payment {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Status and method last counted in payment_stats_rollups, see PaymentStatisticsService
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private PaymentStatus countedStatus;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private PaymentMethod countedMethod;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean counted;
+
+    @PostLoad
+    void markCounted() {
+        countedStatus = status;
+        countedMethod = method;
+        counted = true;
+    }
 }
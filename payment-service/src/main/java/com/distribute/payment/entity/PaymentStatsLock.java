@@ -0,0 +1,28 @@
+package com.distribute.payment.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row that orders rollup writers against a rebuild: transactions writing rollup deltas
+ * hold it shared, a rebuild holds it exclusively. The row is created by the first rebuild, so
+ * its presence also means the rollup has been seeded from the payments table.
+ */
+@Entity
+@Table(name = "payment_stats_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatsLock {
+
+    public static final int ROLLUP = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+}
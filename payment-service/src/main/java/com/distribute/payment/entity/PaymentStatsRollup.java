@@ -0,0 +1,58 @@
+package com.distribute.payment.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Count and amount of the payments currently in one status, for one method and creation day.
+ * Each key is spread over a few slots so concurrent payments do not queue on one row lock.
+ */
+@Entity
+@Table(name = "payment_stats_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_stats_key",
+                columnNames = {"status", "method", "bucket_date", "slot"}),
+        indexes = @Index(name = "idx_payment_stats_method", columnList = "method"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentStatsRollup {
+
+    // Stored for payments without a method, so the unique key never contains NULL
+    public static final String NO_METHOD = "UNSPECIFIED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "status", nullable = false, length = 32)
+    private String status;
+
+    @Column(name = "method", nullable = false, length = 32)
+    private String method;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "slot", nullable = false)
+    private int slot;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+}
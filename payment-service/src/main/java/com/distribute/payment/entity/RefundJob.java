@@ -0,0 +1,75 @@
+package com.distribute.payment.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A refund accepted by the API and executed by RefundWorkerPool.
+ * QUEUED jobs become claimable at availableAt; a RUNNING job whose lease (lockedUntil)
+ * expired belongs to a dead worker and is claimed again.
+ */
+@Entity
+@Table(name = "refund_jobs", indexes = {
+        @Index(name = "idx_refund_jobs_claim", columnList = "status, available_at"),
+        @Index(name = "idx_refund_jobs_payment", columnList = "payment_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Integer paymentId;
+
+    @Column(name = "reason", nullable = false, length = 500)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private RefundJobStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    // Set once the gateway returned the money; a retry after that only completes the job
+    @Column(name = "gateway_approved_at")
+    private LocalDateTime gatewayApprovedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.distribute.payment.entity;
+
+public enum RefundJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
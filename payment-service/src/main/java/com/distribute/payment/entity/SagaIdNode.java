@@ -0,0 +1,30 @@
+package com.distribute.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on one instance slot of this service's SagaIdGenerator node ids. A running instance
+ * owns its slot until lease_until (UTC); an expired lease can be claimed by the next instance.
+ */
+@Entity
+@Table(name = "saga_id_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaIdNode {
+
+    @Id
+    @Column(name = "instance_slot")
+    private Integer instanceSlot;
+
+    @Column(name = "owner", nullable = false, length = 255)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,8 @@
+package com.distribute.payment.exception;
+
+public class RefundJobNotFoundException extends RuntimeException {
+    
+    public RefundJobNotFoundException(String message) {
+        super(message);
+    }
+}
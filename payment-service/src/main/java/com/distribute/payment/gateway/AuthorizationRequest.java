@@ -0,0 +1,8 @@
+package com.distribute.payment.gateway;
+
+import java.math.BigDecimal;
+
+import com.distribute.payment.entity.PaymentMethod;
+
+public record AuthorizationRequest(Integer paymentId, Integer orderId, BigDecimal amount, PaymentMethod method) {
+}
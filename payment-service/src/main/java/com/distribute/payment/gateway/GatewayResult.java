@@ -0,0 +1,15 @@
+package com.distribute.payment.gateway;
+
+/**
+ * Gateway answer to an authorization or refund; reason is only set for declines.
+ */
+public record GatewayResult(boolean approved, String reason) {
+
+    public static GatewayResult approve() {
+        return new GatewayResult(true, null);
+    }
+
+    public static GatewayResult decline(String reason) {
+        return new GatewayResult(false, reason);
+    }
+}
@@ -0,0 +1,14 @@
+package com.distribute.payment.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * External payment provider. Calls never block the caller; the order id is the idempotency
+ * key, so authorizing the same order twice yields the provider's first answer.
+ */
+public interface PaymentGateway {
+
+    CompletableFuture<GatewayResult> authorize(AuthorizationRequest request);
+
+    CompletableFuture<GatewayResult> refund(RefundRequest request);
+}
@@ -0,0 +1,6 @@
+package com.distribute.payment.gateway;
+
+import java.math.BigDecimal;
+
+public record RefundRequest(Integer paymentId, Integer orderId, BigDecimal amount, String reason) {
+}
@@ -0,0 +1,78 @@
+package com.distribute.payment.gateway;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for a real provider: answers after a random latency without holding a thread
+ * while waiting. Amounts over the limit are always declined (insufficient funds).
+ */
+@Slf4j
+@Component
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final BigDecimal AMOUNT_LIMIT = new BigDecimal("10000");
+
+    @Value("${payment.gateway.min-latency-ms:100}")
+    private long minLatencyMs;
+
+    @Value("${payment.gateway.max-latency-ms:500}")
+    private long maxLatencyMs;
+
+    @Value("${payment.gateway.approval-rate:0.8}")
+    private double approvalRate;
+
+    @Value("${payment.gateway.refund-latency-ms:2000}")
+    private long refundLatencyMs;
+
+    @Value("${payment.gateway.refund-approval-rate:0.95}")
+    private double refundApprovalRate;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public CompletableFuture<GatewayResult> authorize(AuthorizationRequest request) {
+        CompletableFuture<GatewayResult> result = new CompletableFuture<>();
+        long latencyMs = minLatencyMs + ThreadLocalRandom.current().nextLong(Math.max(1, maxLatencyMs - minLatencyMs + 1));
+
+        timer.schedule(() -> {
+            if (request.amount().compareTo(AMOUNT_LIMIT) > 0) {
+                log.info("Payment amount {} exceeds limit, declining order: {}", request.amount(), request.orderId());
+                result.complete(GatewayResult.decline("Payment declined by gateway"));
+            } else if (ThreadLocalRandom.current().nextDouble() < approvalRate) {
+                result.complete(GatewayResult.approve());
+            } else {
+                result.complete(GatewayResult.decline("Payment declined by gateway"));
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> refund(RefundRequest request) {
+        CompletableFuture<GatewayResult> result = new CompletableFuture<>();
+        timer.schedule(() -> result.complete(ThreadLocalRandom.current().nextDouble() < refundApprovalRate
+                ? GatewayResult.approve()
+                : GatewayResult.decline("Refund processing failed")), refundLatencyMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -1,17 +1,26 @@
 package com.distribute.payment.kafka.consumer;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.distribute.payment.dto.OrderEventDto;
 import com.distribute.payment.dto.PaymentRequestDto;
 import com.distribute.payment.dto.PaymentResponseDto;
 import com.distribute.payment.exception.PaymentProcessingException;
+import com.distribute.payment.kafka.dlt.DeadLetterHeaders;
 import com.distribute.payment.service.PaymentService;
+import com.distribute.payment.service.RefundJobService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -24,33 +33,58 @@ public class OrderEventListener {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private RefundJobService refundJobService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
-    private static final String ORDER_TOPIC = "outbox.event.Order";
-    private static final String GROUP = "payment-service-group";
+    @Autowired
+    private TransactionalAckCoordinator ackCoordinator;
 
+    public static final String ORDER_TOPIC = "outbox.event.Order";
+    private static final String GROUP = "payment-service-group";
+    // Also used by DltReplayService to route replays
+    public static final String RETRY_TOPIC_SUFFIX = "-payment-order-retry";
+    public static final String DLT_TOPIC_SUFFIX = "-payment-order-dlt";
+
+    /**
+     * Failures are retried on outbox.event.Order-payment-order-retry-N with exponential
+     * backoff and end up on outbox.event.Order-payment-order-dlt, so a poison record
+     * never blocks the main partition.
+     */
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.retry.max-delay-ms:10000}"),
+            retryTopicSuffix = RETRY_TOPIC_SUFFIX,
+            dltTopicSuffix = DLT_TOPIC_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = JsonProcessingException.class)
     @KafkaListener(topics = ORDER_TOPIC, groupId = GROUP, containerFactory = "kafkaListenerContainerFactory")
+    @Transactional
     public void handleOrderEvent(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
+            @Header(value = "eventType", required = false) String eventType,
+            @Header(name = KafkaHeaders.ACKNOWLEDGMENT, required = false) Acknowledgment acknowledgment)
+            throws JsonProcessingException {
 
         log.info("Received message from topic: {}, partition: {}, offset: {}, eventType: {}", 
                 topic, partition, offset, eventType);
         log.debug("Message content: {}", message);
 
+        // Offset is released only if this transaction commits
+        ackCoordinator.acknowledgeAfterCommit(topic, partition, acknowledgment);
+
         try {
-            // Parse the JSON message into OrderEventDto
+            // A malformed record is not retried, it goes straight to the DLT
             OrderEventDto orderEvent = parseOrderEvent(message);
 
-            if (orderEvent == null) {
-                log.warn("Failed to parse order event message: {}", message);
-                return;
-            }
-
             // Set eventType from Kafka header (Debezium Outbox pattern)
             if (eventType != null) {
                 orderEvent.setEventType(eventType);
@@ -63,61 +97,58 @@ public class OrderEventListener {
             // Process the order event if it's a payment-triggering event
             if (orderEvent.shouldCreatePayment()) {
                 processOrderEventForPayment(orderEvent);
+            } else if (orderEvent.isPaymentRefundRequestedEvent()) {
+                // Order was canceled after the payment was authorized
+                refundJobService.enqueueForOrder(orderEvent.getOrderId(), orderEvent.getReason());
             } else {
                 log.debug("Order event {} does not require payment processing", orderEvent.getEventType());
             }
 
         } catch (Exception e) {
             log.error("Failed to process order event message: {}", message, e);
-            // In a production environment, you might want to send this to a dead letter
-            // queue
-            // or implement retry logic with exponential backoff
+            // Rethrow so the transaction rolls back and the record moves to the retry topic
+            throw e;
         }
     }
 
-    private OrderEventDto parseOrderEvent(String message) {
-        try {
-            // Parse Debezium Outbox Router format
-            // Message structure with expanded JSON: { "schema": {...}, "payload": {...actual event data...} }
-            com.fasterxml.jackson.databind.JsonNode rootNode = objectMapper.readTree(message);
-            
-            // Check if message has "payload" field (Debezium Outbox format with schema)
-            if (rootNode.has("payload") && rootNode.has("schema")) {
-                // Payload is already expanded as JSON object (not string)
-                com.fasterxml.jackson.databind.JsonNode payloadNode = rootNode.get("payload");
-                return objectMapper.treeToValue(payloadNode, OrderEventDto.class);
-            } else if (rootNode.has("payload")) {
-                // Fallback: payload might be a string
-                String payloadString = rootNode.get("payload").asText();
-                return objectMapper.readValue(payloadString, OrderEventDto.class);
-            } else {
-                // Fallback: try to parse directly
-                return objectMapper.readValue(message, OrderEventDto.class);
-            }
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse order event JSON: {}", message, e);
-            return null;
+    @DltHandler
+    public void handleDeadLetter(
+            ConsumerRecord<String, String> record,
+            @Header(name = KafkaHeaders.ACKNOWLEDGMENT, required = false) Acknowledgment acknowledgment) {
+        log.error("Order event dead-lettered to {} after {} attempts, key: {}, reason: {}",
+                record.topic(), DeadLetterHeaders.attempts(record), record.key(), DeadLetterHeaders.reason(record));
+        ackCoordinator.acknowledgeAfterCommit(record.topic(), record.partition(), acknowledgment);
+    }
+
+    private OrderEventDto parseOrderEvent(String message) throws JsonProcessingException {
+        // Parse Debezium Outbox Router format
+        // Message structure with expanded JSON: { "schema": {...}, "payload": {...actual event data...} }
+        com.fasterxml.jackson.databind.JsonNode rootNode = objectMapper.readTree(message);
+
+        // Check if message has "payload" field (Debezium Outbox format with schema)
+        if (rootNode.has("payload") && rootNode.has("schema")) {
+            // Payload is already expanded as JSON object (not string)
+            com.fasterxml.jackson.databind.JsonNode payloadNode = rootNode.get("payload");
+            return objectMapper.treeToValue(payloadNode, OrderEventDto.class);
+        } else if (rootNode.has("payload")) {
+            // Fallback: payload might be a string
+            String payloadString = rootNode.get("payload").asText();
+            return objectMapper.readValue(payloadString, OrderEventDto.class);
+        } else {
+            // Fallback: try to parse directly
+            return objectMapper.readValue(message, OrderEventDto.class);
         }
     }
 
     private void processOrderEventForPayment(OrderEventDto orderEvent) {
         try {
-            // Check if payment already exists for this order
-            boolean paymentExists = paymentService.existsByOrderId(orderEvent.getOrderId());
-
-            if (paymentExists) {
-                log.info("Payment already exists for order: {}, skipping payment creation",
-                        orderEvent.getOrderId());
-                return;
-            }
-
             // Create payment request from order event
             PaymentRequestDto paymentRequest = createPaymentRequest(orderEvent);
 
-            // Create the payment
+            // Create the payment; a redelivered event gets the payment created the first time
             PaymentResponseDto createdPayment = paymentService.createPayment(paymentRequest);
 
-            log.info("Successfully created payment ID: {} for order: {} with amount: {}",
+            log.info("Payment ID: {} for order: {} with amount: {}",
                     createdPayment.getId(), orderEvent.getOrderId(), orderEvent.getTotalAmount());
 
             // Optionally, you can trigger automatic payment processing here
@@ -0,0 +1,124 @@
+package com.distribute.payment.kafka.consumer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acknowledges Kafka records only after the JPA transaction that handled them commits,
+ * and hands the acknowledgments to the container in batches (by count or by age).
+ *
+ * Used with AckMode.MANUAL: acknowledging the newest record of a partition commits every
+ * earlier offset of that partition, so only the latest ack per partition is kept.
+ * afterCommit callbacks, idle events and rebalance callbacks all run on the consumer
+ * thread of the container that owns the record, so pending acks are kept per thread.
+ */
+@Slf4j
+@Component
+public class TransactionalAckCoordinator implements ConsumerAwareRebalanceListener {
+
+    @Value("${kafka.consumer.commit-batch-size:50}")
+    private int commitBatchSize;
+
+    @Value("${kafka.consumer.commit-interval-ms:500}")
+    private long commitIntervalMs;
+
+    private final ThreadLocal<PendingAcks> pending = ThreadLocal.withInitial(PendingAcks::new);
+
+    /**
+     * Register the acknowledgment to be released when the current transaction commits.
+     * A rolled back transaction never acknowledges, so the record is redelivered.
+     * A null acknowledgment means the container owns the commit (RECORD / BATCH modes).
+     */
+    public void acknowledgeAfterCommit(String topic, int partition, Acknowledgment acknowledgment) {
+        if (acknowledgment == null) {
+            return;
+        }
+
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(topicPartition, acknowledgment);
+                }
+            });
+        } else {
+            enqueue(topicPartition, acknowledgment);
+        }
+    }
+
+    private void enqueue(TopicPartition topicPartition, Acknowledgment acknowledgment) {
+        PendingAcks acks = pending.get();
+        acks.add(topicPartition, acknowledgment);
+
+        if (acks.count >= commitBatchSize
+                || System.currentTimeMillis() - acks.firstPendingAt >= commitIntervalMs) {
+            flush();
+        }
+    }
+
+    /**
+     * Release every pending acknowledgment of the calling consumer thread.
+     * The container commits them on its next poll cycle.
+     */
+    public void flush() {
+        PendingAcks acks = pending.get();
+        if (acks.count == 0) {
+            return;
+        }
+
+        acks.latest.values().forEach(Acknowledgment::acknowledge);
+        log.debug("Released {} acknowledgments across {} partitions", acks.count, acks.latest.size());
+        acks.clear();
+    }
+
+    /**
+     * Flush the tail of a batch when the topic goes quiet, so the last records of a burst
+     * do not wait for the next record to be committed.
+     */
+    @EventListener
+    public void onContainerIdle(ListenerContainerIdleEvent event) {
+        flush();
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Hand over what we have before the container commits and gives the partitions away
+        flush();
+    }
+
+    private static final class PendingAcks {
+
+        private final Map<TopicPartition, Acknowledgment> latest = new HashMap<>();
+        private int count;
+        private long firstPendingAt;
+
+        void add(TopicPartition topicPartition, Acknowledgment acknowledgment) {
+            if (count == 0) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+            latest.put(topicPartition, acknowledgment);
+            count++;
+        }
+
+        void clear() {
+            latest.clear();
+            count = 0;
+        }
+    }
+}
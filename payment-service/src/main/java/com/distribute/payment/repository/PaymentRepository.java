@@ -2,11 +2,15 @@ package com.distribute.payment.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,11 +19,24 @@ import com.distribute.payment.entity.Payment;
 import com.distribute.payment.entity.PaymentMethod;
 import com.distribute.payment.entity.PaymentStatus;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Integer> {
+public interface PaymentRepository extends JpaRepository<Payment, Integer>, JpaSpecificationExecutor<Payment> {
     
     // Find payments by order ID
     List<Payment> findByOrderId(Integer orderId);
+
+    // Locking read: sees a row another transaction committed after this one's snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Payment> findWithLockByOrderId(Integer orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<Payment> findWithLockByOrderIdIn(Collection<Integer> orderIds);
+
+    // Exclusive: only one writer moves a payment out of PENDING
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Payment> findForUpdateByIdIn(Collection<Integer> ids);
     
     // Find payments by status
     List<Payment> findByStatus(PaymentStatus status);
@@ -37,21 +54,6 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     // Find payments created within date range
     List<Payment> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
     
-    // Find payments by multiple criteria
-    @Query("SELECT p FROM Payment p WHERE " +
-           "(:orderId IS NULL OR p.orderId = :orderId) AND " +
-           "(:status IS NULL OR p.status = :status) AND " +
-           "(:method IS NULL OR p.method = :method) AND " +
-           "(:minAmount IS NULL OR p.amount >= :minAmount) AND " +
-           "(:maxAmount IS NULL OR p.amount <= :maxAmount)")
-    Page<Payment> findPaymentsByCriteria(
-            @Param("orderId") Integer orderId,
-            @Param("status") PaymentStatus status,
-            @Param("method") PaymentMethod method,
-            @Param("minAmount") BigDecimal minAmount,
-            @Param("maxAmount") BigDecimal maxAmount,
-            Pageable pageable);
-    
     // Get total amount by status
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status")
     BigDecimal getTotalAmountByStatus(@Param("status") PaymentStatus status);
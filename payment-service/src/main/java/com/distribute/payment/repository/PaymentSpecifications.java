@@ -0,0 +1,78 @@
+package com.distribute.payment.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.distribute.payment.dto.PaymentCursor;
+import com.distribute.payment.dto.PaymentSearchCriteria;
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+
+/**
+ * Payment search predicates. Only the filters that are set end up in the WHERE clause, so
+ * MySQL can use uk_payments_order_id, idx_payments_status_created, idx_payments_method_created
+ * or idx_payments_amount instead of scanning for "(:x IS NULL OR p.x = :x)".
+ */
+public final class PaymentSpecifications {
+
+    // Keyset order; (status|method, created_at) indexes end with the primary key on InnoDB
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private PaymentSpecifications() {
+    }
+
+    public static Specification<Payment> matching(PaymentSearchCriteria criteria) {
+        List<Specification<Payment>> filters = new ArrayList<>();
+        if (criteria.getOrderId() != null) {
+            filters.add(hasOrderId(criteria.getOrderId()));
+        }
+        if (criteria.getStatus() != null) {
+            filters.add(hasStatus(criteria.getStatus()));
+        }
+        if (criteria.getMethod() != null) {
+            filters.add(hasMethod(criteria.getMethod()));
+        }
+        if (criteria.getMinAmount() != null) {
+            filters.add(amountAtLeast(criteria.getMinAmount()));
+        }
+        if (criteria.getMaxAmount() != null) {
+            filters.add(amountAtMost(criteria.getMaxAmount()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Payment> hasOrderId(Integer orderId) {
+        return (root, query, cb) -> cb.equal(root.get("orderId"), orderId);
+    }
+
+    public static Specification<Payment> hasStatus(PaymentStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Payment> hasMethod(PaymentMethod method) {
+        return (root, query, cb) -> cb.equal(root.get("method"), method);
+    }
+
+    public static Specification<Payment> amountAtLeast(BigDecimal minAmount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+    }
+
+    public static Specification<Payment> amountAtMost(BigDecimal maxAmount) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), maxAmount);
+    }
+
+    /**
+     * Rows after the cursor in NEWEST_FIRST order
+     */
+    public static Specification<Payment> before(PaymentCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
@@ -0,0 +1,31 @@
+package com.distribute.payment.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.distribute.payment.entity.PaymentStatsLock;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface PaymentStatsLockRepository extends JpaRepository<PaymentStatsLock, Integer> {
+
+    // Held by every transaction that writes rollup deltas; they do not block each other
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<PaymentStatsLock> findSharedById(Integer id);
+
+    // Held by a rebuild; waits for the writers in progress and holds back new ones
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<PaymentStatsLock> findExclusiveById(Integer id);
+
+    @Modifying
+    @Query(value = "INSERT INTO payment_stats_locks (id) VALUES (:id) ON DUPLICATE KEY UPDATE id = id",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") int id);
+}
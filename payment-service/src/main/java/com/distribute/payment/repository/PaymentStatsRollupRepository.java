@@ -0,0 +1,48 @@
+package com.distribute.payment.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.distribute.payment.entity.PaymentStatsRollup;
+
+@Repository
+public interface PaymentStatsRollupRepository extends JpaRepository<PaymentStatsRollup, Long> {
+
+    // Add to one rollup row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO payment_stats_rollups (status, method, bucket_date, slot, payment_count, total_amount) "
+            + "VALUES (:status, :method, :bucketDate, :slot, :count, :amount) "
+            + "ON DUPLICATE KEY UPDATE payment_count = payment_count + :count, total_amount = total_amount + :amount",
+            nativeQuery = true)
+    int upsert(@Param("status") String status,
+               @Param("method") String method,
+               @Param("bucketDate") LocalDate bucketDate,
+               @Param("slot") int slot,
+               @Param("count") long count,
+               @Param("amount") BigDecimal amount);
+
+    // Get total amount by status
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM PaymentStatsRollup r WHERE r.status = :status")
+    BigDecimal getTotalAmountByStatus(@Param("status") String status);
+
+    // [method, count, amount] over every status, like PaymentRepository.getPaymentStatisticsByMethod
+    @Query("SELECT r.method, SUM(r.paymentCount), COALESCE(SUM(r.totalAmount), 0) FROM PaymentStatsRollup r "
+            + "GROUP BY r.method HAVING SUM(r.paymentCount) > 0")
+    List<Object[]> getStatisticsByMethod();
+
+    @Modifying
+    @Query(value = "DELETE FROM payment_stats_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    // [status, method, creation day, count, amount] of the payments table; a plain (non-locking) read
+    @Query("SELECT p.status, p.method, CAST(p.createdAt AS LocalDate), COUNT(p), SUM(p.amount) FROM Payment p "
+            + "GROUP BY p.status, p.method, CAST(p.createdAt AS LocalDate)")
+    List<Object[]> aggregatePayments();
+}
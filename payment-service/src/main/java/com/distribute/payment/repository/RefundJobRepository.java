@@ -0,0 +1,35 @@
+package com.distribute.payment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.distribute.payment.entity.RefundJob;
+import com.distribute.payment.entity.RefundJobStatus;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    // Jobs due now, locked for this transaction; rows another worker holds are skipped, not waited on
+    @Query(value = "SELECT * FROM refund_jobs "
+            + "WHERE (status = 'QUEUED' AND available_at <= :now) "
+            + "OR (status = 'RUNNING' AND locked_until < :now) "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<RefundJob> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // The job as its claimant left it; empty once the lease expired and another worker claimed it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RefundJob> findWithLockByIdAndStatusAndAttempts(Long id, RefundJobStatus status, int attempts);
+
+    // Queued or running refund of a payment, so a repeated request reuses it
+    Optional<RefundJob> findFirstByPaymentIdAndStatusIn(Integer paymentId, Collection<RefundJobStatus> statuses);
+}
@@ -0,0 +1,265 @@
+package com.distribute.payment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.exception.PaymentProcessingException;
+import com.distribute.payment.gateway.AuthorizationRequest;
+import com.distribute.payment.gateway.GatewayResult;
+import com.distribute.payment.gateway.PaymentGateway;
+import com.distribute.payment.repository.PaymentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authorizes a batch of orders in three steps:
+ *
+ * 1. one transaction inserts the PENDING payments of the whole batch (ON DUPLICATE KEY, so
+ *    orders that already have a payment keep it) and reads them back;
+ * 2. every PENDING payment is sent to the gateway at once, up to max-in-flight;
+ * 3. answers are written as they arrive: whatever has completed is saved, with its outbox
+ *    events, in one transaction per wave.
+ *
+ * A second request for an order that is already at the gateway joins the request in flight.
+ * The caller returns once every answer is committed, so Kafka offsets are only committed
+ * after that; a crash in between redelivers the batch and re-authorizes what is still PENDING.
+ * A gateway error or timeout is not a decline: the payment stays PENDING and authorize throws
+ * once the answered ones are written, so the batch is redelivered and, in the end, dead-lettered.
+ * The gateway keys authorizations on the order, so asking again cannot charge twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentAuthorizationPipeline {
+
+    private static final String INSERT_PENDING_SQL =
+            "INSERT INTO payments (order_id, amount, method, status, created_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE id = id";
+
+    private static final PaymentMethod DEFAULT_METHOD = PaymentMethod.CARD_PAYMENT;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PaymentStatisticsService paymentStatisticsService;
+    private final PaymentGateway paymentGateway;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, CompletableFuture<GatewayResult>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${payment.authorization.gateway-timeout-ms:5000}")
+    private long gatewayTimeoutMs;
+
+    private Semaphore inFlightPermits;
+
+    @Value("${payment.authorization.max-in-flight:64}")
+    void setMaxInFlight(int maxInFlight) {
+        this.inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    public record AuthorizationCommand(Integer orderId, BigDecimal amount) {
+
+        public AuthorizationCommand {
+            if (orderId == null || orderId <= 0) {
+                throw new IllegalArgumentException("Invalid order ID: " + orderId);
+            }
+            if (amount == null || amount.signum() <= 0) {
+                throw new IllegalArgumentException("Invalid amount for order " + orderId + ": " + amount);
+            }
+        }
+    }
+
+    public void authorize(List<AuthorizationCommand> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, AuthorizationCommand> byOrder = new LinkedHashMap<>();
+        for (AuthorizationCommand command : commands) {
+            byOrder.putIfAbsent(command.orderId(), command);
+        }
+
+        List<Payment> pending = transactionTemplate.execute(status -> insertPending(List.copyOf(byOrder.values())));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        for (Payment payment : pending) {
+            acquirePermit();
+            submit(payment).whenComplete((result, error) -> {
+                inFlightPermits.release();
+                completions.add(new Completion(payment.getId(), result, error));
+            });
+        }
+
+        int remaining = pending.size();
+        int waves = 0;
+        int unanswered = 0;
+        Throwable lastError = null;
+        while (remaining > 0) {
+            List<Completion> wave = new ArrayList<>();
+            wave.add(takeCompletion(completions));
+            completions.drainTo(wave);
+
+            transactionTemplate.executeWithoutResult(status -> writeResults(wave));
+            for (Completion completion : wave) {
+                if (completion.error() != null) {
+                    unanswered++;
+                    lastError = completion.error();
+                }
+            }
+            remaining -= wave.size();
+            waves++;
+        }
+        log.info("Authorized {} payments for {} orders in {} waves", pending.size() - unanswered, byOrder.size(), waves);
+
+        if (unanswered > 0) {
+            throw new PaymentProcessingException(unanswered + " payments got no gateway answer and stay PENDING",
+                    lastError);
+        }
+    }
+
+    /**
+     * Insert the missing PENDING payments and return the ones still waiting for authorization.
+     */
+    private List<Payment> insertPending(List<AuthorizationCommand> commands) {
+        List<Integer> orderIds = commands.stream().map(AuthorizationCommand::orderId).toList();
+
+        // Rewritten (multi-row) batches report SUCCESS_NO_INFO for every row, so the new rows
+        // are the orders the unique key had no payment for. The locking read holds that answer:
+        // on MySQL it also locks the gaps, so no other transaction inserts those orders meanwhile.
+        Set<Integer> existing = paymentRepository.findWithLockByOrderIdIn(orderIds).stream()
+                .map(Payment::getOrderId)
+                .collect(Collectors.toSet());
+
+        LocalDateTime insertedAt = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(commands.size());
+        for (AuthorizationCommand command : commands) {
+            if (!existing.contains(command.orderId())) {
+                rows.add(new Object[] { command.orderId(), command.amount(), DEFAULT_METHOD.name(),
+                        PaymentStatus.PENDING.name(), insertedAt });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PENDING_SQL, rows);
+        }
+
+        Map<Integer, Payment> payments = paymentRepository.findWithLockByOrderIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Payment::getOrderId, Function.identity()));
+
+        List<Payment> pending = new ArrayList<>();
+        for (AuthorizationCommand command : commands) {
+            Payment payment = payments.get(command.orderId());
+            if (!existing.contains(command.orderId())) {
+                paymentStatisticsService.recordCreated(payment);
+            }
+            if (payment.getStatus() == PaymentStatus.PENDING) {
+                pending.add(payment);
+            } else {
+                log.info("Payment {} for order: {} already {}, skipping authorization",
+                        payment.getId(), payment.getOrderId(), payment.getStatus());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Send the payment to the gateway, or join the request already in flight for its order.
+     */
+    private CompletableFuture<GatewayResult> submit(Payment payment) {
+        CompletableFuture<GatewayResult> mine = new CompletableFuture<>();
+        CompletableFuture<GatewayResult> existing = inFlight.putIfAbsent(payment.getOrderId(), mine);
+        if (existing != null) {
+            return existing;
+        }
+
+        paymentGateway.authorize(new AuthorizationRequest(payment.getId(), payment.getOrderId(),
+                        payment.getAmount(), payment.getMethod()))
+                .orTimeout(gatewayTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    inFlight.remove(payment.getOrderId(), mine);
+                    if (error != null) {
+                        mine.completeExceptionally(error);
+                    } else {
+                        mine.complete(result);
+                    }
+                });
+        return mine;
+    }
+
+    private void writeResults(List<Completion> wave) {
+        Map<Integer, Payment> payments = paymentRepository
+                .findForUpdateByIdIn(wave.stream().map(Completion::paymentId).toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        for (Completion completion : wave) {
+            // No answer: leave the payment PENDING for the redelivery
+            if (completion.error() != null) {
+                log.warn("No gateway answer for payment {}: {}", completion.paymentId(), completion.error().toString());
+                continue;
+            }
+            Payment payment = payments.get(completion.paymentId());
+            // Another batch holding the same order may have written the answer already
+            if (payment == null || payment.getStatus() != PaymentStatus.PENDING) {
+                continue;
+            }
+            if (completion.result().approved()) {
+                payment.setStatus(PaymentStatus.PAID);
+                paymentService.savePaymentAuthorizeSucceeded(payment);
+            } else {
+                payment.setStatus(PaymentStatus.FAILED);
+                paymentService.savePaymentAuthorizeFailed(payment, completion.result().reason());
+            }
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted while waiting for a gateway slot");
+        }
+    }
+
+    private Completion takeCompletion(BlockingQueue<Completion> completions) {
+        try {
+            // Every request times out at the gateway, so this only guards against a lost callback
+            Completion completion = completions.poll(gatewayTimeoutMs * 2, TimeUnit.MILLISECONDS);
+            if (completion == null) {
+                throw new PaymentProcessingException("Gateway answers missing after " + gatewayTimeoutMs * 2 + " ms");
+            }
+            return completion;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted while waiting for gateway answers");
+        }
+    }
+
+    private record Completion(Integer paymentId, GatewayResult result, Throwable error) {
+    }
+}
@@ -1,24 +1,32 @@
 package com.distribute.payment.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.distribute.payment.dto.CursorPage;
+import com.distribute.payment.dto.PaymentCursor;
 import com.distribute.payment.dto.PaymentProcessDto;
-import com.distribute.payment.dto.PaymentRefundDto;
 import com.distribute.payment.dto.PaymentRequestDto;
 import com.distribute.payment.dto.PaymentResponseDto;
+import com.distribute.payment.dto.PaymentSearchCriteria;
 import com.distribute.payment.dto.PaymentStatusUpdateDto;
 import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
 import com.distribute.payment.entity.PaymentStatus;
 import com.distribute.payment.exception.PaymentNotFoundException;
 import com.distribute.payment.exception.PaymentProcessingException;
 import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.repository.PaymentSpecifications;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,12 +35,21 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class PaymentService {
 
+    private static final String INSERT_PENDING_SQL =
+            "INSERT INTO payments (order_id, amount, method, status, created_at) VALUES (?, ?, ?, ?, ?)";
+
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private OutboxService outboxService;
 
+    @Autowired
+    private PaymentStatisticsService paymentStatisticsService;
+
     // @Autowired
     // private PaymentProducer paymentProducer;
 
@@ -40,19 +57,9 @@ public class PaymentService {
         log.info("Creating payment for order: {}", requestDto.getOrderId());
 
         try {
-            // Create payment entity
-            Payment payment = Payment.builder()
-                    .orderId(requestDto.getOrderId())
-                    .amount(requestDto.getAmount())
-                    .method(requestDto.getMethod())
-                    .status(PaymentStatus.PENDING)
-                    .build();
-
-            // Save payment
-            Payment savedPayment = paymentRepository.save(payment);
-            log.info("Payment created with ID: {}", savedPayment.getId());
-
-            return convertToResponseDto(savedPayment);
+            Payment payment = createPendingPaymentIfAbsent(
+                    requestDto.getOrderId(), requestDto.getAmount(), requestDto.getMethod());
+            return convertToResponseDto(payment);
 
         } catch (Exception e) {
             log.error("Error creating payment for order: {}", requestDto.getOrderId(), e);
@@ -60,6 +67,38 @@ public class PaymentService {
         }
     }
 
+    /**
+     * Insert a PENDING payment unless the order already has one, and return the order's payment.
+     * The unique index on order_id decides: concurrent or redelivered creations for the same
+     * order all end up with the one row, without a separate existence check.
+     */
+    public Payment createPendingPaymentIfAbsent(Integer orderId, BigDecimal amount, PaymentMethod method) {
+        if (orderId == null || amount == null) {
+            throw new IllegalArgumentException("Order ID and amount are required");
+        }
+
+        // Plain JDBC on the transaction's connection: a duplicate key only fails this statement,
+        // where the same error through JPA would mark the whole transaction rollback-only
+        boolean inserted;
+        try {
+            jdbcTemplate.update(INSERT_PENDING_SQL, orderId, amount,
+                    method != null ? method.name() : null, PaymentStatus.PENDING.name(), LocalDateTime.now());
+            inserted = true;
+        } catch (DuplicateKeyException e) {
+            inserted = false;
+        }
+        Payment payment = paymentRepository.findWithLockByOrderId(orderId)
+                .orElseThrow(() -> new PaymentProcessingException("Payment for order " + orderId + " not found after insert"));
+
+        if (inserted) {
+            paymentStatisticsService.recordCreated(payment);
+            log.info("Payment created with ID: {} for order: {}", payment.getId(), orderId);
+        } else {
+            log.info("Payment already exists for order: {}, reusing payment ID: {}", orderId, payment.getId());
+        }
+        return payment;
+    }
+
     @Transactional(readOnly = true)
     public PaymentResponseDto getPaymentById(Integer id) {
         log.info("Retrieving payment with ID: {}", id);
@@ -96,6 +135,31 @@ public class PaymentService {
         return payments.map(this::convertToResponseDto);
     }
 
+    /**
+     * One keyset page of payments matching the criteria, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentResponseDto> searchPayments(PaymentSearchCriteria criteria, String cursor, int size) {
+        log.info("Searching payments: {}, cursor: {}, size: {}", criteria, cursor, size);
+
+        Specification<Payment> spec = PaymentSpecifications.matching(criteria);
+        if (cursor != null) {
+            spec = spec.and(PaymentSpecifications.before(PaymentCursor.decode(cursor)));
+        }
+
+        // One extra row tells whether another page exists without a COUNT query
+        List<Payment> payments = paymentRepository.findBy(spec,
+                query -> query.sortBy(PaymentSpecifications.NEWEST_FIRST).limit(size + 1).all());
+
+        String nextCursor = null;
+        if (payments.size() > size) {
+            payments = payments.subList(0, size);
+            Payment last = payments.get(size - 1);
+            nextCursor = new PaymentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(payments.stream().map(this::convertToResponseDto).toList(), nextCursor);
+    }
+
     public PaymentResponseDto updatePaymentStatus(Integer id, PaymentStatusUpdateDto statusUpdateDto) {
         log.info("Updating payment status for ID: {} to {}", id, statusUpdateDto.getStatus());
 
@@ -106,6 +170,7 @@ public class PaymentService {
         payment.setStatus(statusUpdateDto.getStatus());
 
         Payment updatedPayment = paymentRepository.save(payment);
+        paymentStatisticsService.record(updatedPayment);
         log.info("Payment status updated from {} to {} for ID: {}", oldStatus, statusUpdateDto.getStatus(), id);
 
         // Send event to Kafka
@@ -141,6 +206,7 @@ public class PaymentService {
             payment.setMethod(paymentProcessDto.getMethod());
 
             Payment updatedPayment = paymentRepository.save(payment);
+            paymentStatisticsService.record(updatedPayment);
 
             // ✅ Save event to outbox (Debezium will publish this to Kafka)
             outboxService.savePaymentProcessedEvent(updatedPayment, id.toString());
@@ -150,6 +216,7 @@ public class PaymentService {
         } catch (Exception e) {
             payment.setStatus(PaymentStatus.FAILED);
             Payment failedPayment = paymentRepository.save(payment);
+            paymentStatisticsService.record(failedPayment);
             
             // ✅ Save failed event to outbox
             outboxService.savePaymentFailedEvent(failedPayment, id.toString(), e.getMessage());
@@ -159,52 +226,51 @@ public class PaymentService {
         }
     }
 
-    public PaymentResponseDto refundPayment(PaymentRefundDto refundDto) {
-        Integer id = refundDto.getPaymentId();
-        String reason = refundDto.getReason();
-
-        Payment payment = paymentRepository.findById(id)
+    /**
+     * Mark a payment refunded once the gateway has returned the money. Runs in the caller's
+     * transaction (RefundJobService.complete), so the payment, its outbox event and the job
+     * commit together. A payment that is already REFUND is left as it is.
+     */
+    public Payment completeRefund(Integer id, String reason) {
+        Payment payment = paymentRepository.findForUpdateByIdIn(List.of(id)).stream()
+                .findFirst()
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with ID: " + id));
 
+        if (payment.getStatus() == PaymentStatus.REFUND) {
+            log.info("Payment already refunded for ID: {}", id);
+            return payment;
+        }
         if (payment.getStatus() != PaymentStatus.PAID) {
             throw new PaymentProcessingException(
                     "Only PAID payments can be refunded. Current status: " + payment.getStatus());
         }
 
-        try {
-            // Simulate refund processing
-            boolean refundResult = simulateRefundProcessing(payment);
-
-            if (refundResult) {
-                payment.setStatus(PaymentStatus.REFUND);
-                log.info("Payment refunded successfully for ID: {}", id);
-            } else {
-                throw new PaymentProcessingException("Refund processing failed");
-            }
-
-            Payment updatedPayment = paymentRepository.save(payment);
-
-            // ✅ Save event to outbox (Debezium will publish this to Kafka)
-            outboxService.savePaymentRefundedEvent(updatedPayment, id.toString(), reason);
+        payment.setStatus(PaymentStatus.REFUND);
+        Payment updatedPayment = paymentRepository.save(payment);
+        paymentStatisticsService.record(updatedPayment);
 
-            return convertToResponseDto(updatedPayment);
+        // ✅ Save event to outbox (Debezium will publish this to Kafka)
+        outboxService.savePaymentRefundedEvent(updatedPayment, id.toString(), reason);
 
-        } catch (Exception e) {
-            log.error("Error processing refund for payment ID: {}", id, e);
-            throw new PaymentProcessingException("Failed to process refund: " + e.getMessage());
-        }
+        log.info("Payment refunded successfully for ID: {}", id);
+        return updatedPayment;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
         log.info("Calculating total amount for status: {}", status);
-        return paymentRepository.getTotalAmountByStatus(status);
+        return paymentStatisticsService.getTotalAmountByStatus(status);
     }
 
     @Transactional(readOnly = true)
     public List<Object[]> getPaymentStatisticsByMethod() {
         log.info("Retrieving payment statistics by method");
-        return paymentRepository.getPaymentStatisticsByMethod();
+        return paymentStatisticsService.getStatisticsByMethod();
+    }
+
+    public int rebuildPaymentStatistics() {
+        log.info("Rebuilding payment statistics from the payments table");
+        return paymentStatisticsService.rebuild();
     }
 
     @Transactional(readOnly = true)
@@ -216,6 +282,7 @@ public class PaymentService {
     public void savePaymentAuthorizeSucceeded(Payment payment) {
         // Save payment and event to outbox in same transaction
         paymentRepository.save(payment);
+        paymentStatisticsService.record(payment);
         outboxService.savePaymentAuthorizeSucceededEvent(payment, payment.getOrderId().toString());
     }
 
@@ -223,6 +290,7 @@ public class PaymentService {
     public void savePaymentAuthorizeFailed(Payment payment, String reason) {
         // Save payment and event to outbox in same transaction
         paymentRepository.save(payment);
+        paymentStatisticsService.record(payment);
         outboxService.savePaymentAuthorizeFailedEvent(payment, payment.getOrderId().toString(), reason);
     }
 
@@ -242,21 +310,6 @@ public class PaymentService {
         return Math.random() > 0.1;
     }
 
-    private boolean simulateRefundProcessing(Payment payment) {
-        // Simulate refund processing logic
-        log.info("Simulating refund processing for payment ID: {}, amount: {}",
-                payment.getId(), payment.getAmount());
-
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        // Simulate success rate of 95%
-        return Math.random() > 0.05;
-    }
-
     // private void sendPaymentEvent(String eventType, Payment payment) {
     //     try {
     //         // String message =
@@ -0,0 +1,22 @@
+package com.distribute.payment.service;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Seeds the statistics rollup once the beans are ready but before the Kafka listeners and the
+ * web server start, so no payment change reaches an unseeded rollup from this instance.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentStatisticsSeeder implements SmartInitializingSingleton {
+
+    private final PaymentStatisticsService paymentStatisticsService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        paymentStatisticsService.seedIfNeeded();
+    }
+}
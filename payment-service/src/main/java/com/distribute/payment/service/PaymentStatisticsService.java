@@ -0,0 +1,216 @@
+package com.distribute.payment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatsLock;
+import com.distribute.payment.entity.PaymentStatsRollup;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.repository.PaymentStatsLockRepository;
+import com.distribute.payment.repository.PaymentStatsRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps payment_stats_rollups (status x method x creation day) in step with the payments table
+ * so the statistics endpoints read a handful of rollup rows instead of scanning payments.
+ *
+ * Changes are written in the transaction that changes the payment, so the rollup is exact.
+ * They are collected per transaction and written just before commit, which keeps the row
+ * locks short even when the transaction waits on a payment gateway.
+ *
+ * A rebuild recomputes the rollup while payments keep changing. Writers hold the
+ * payment_stats_locks row shared while they write deltas and the rebuild holds it exclusively,
+ * so a payment committed before the rebuild is in its snapshot and one committed after adds
+ * its delta to the rebuilt rows. The rebuild reads payments without locking them, so a writer
+ * holding a payment row never waits on the rebuild while the rebuild waits on it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStatisticsService {
+
+    private final PaymentStatsRollupRepository rollupRepository;
+
+    private final PaymentStatsLockRepository lockRepository;
+
+    @Value("${payment.statistics.slots:8}")
+    private int slots;
+
+    /**
+     * Count the payment under its current status and method, moving it out of the ones it was
+     * counted under before. Call after every save that creates a payment or changes its status.
+     */
+    public void record(Payment payment) {
+        if (payment.isCounted()
+                && payment.getCountedStatus() == payment.getStatus()
+                && payment.getCountedMethod() == payment.getMethod()) {
+            return;
+        }
+
+        LocalDate bucketDate = bucketOf(payment.getCreatedAt());
+        Map<Key, Delta> deltas = currentDeltas();
+        if (payment.isCounted()) {
+            deltas.computeIfAbsent(new Key(payment.getCountedStatus(), payment.getCountedMethod(), bucketDate),
+                    k -> new Delta()).add(-1, payment.getAmount().negate());
+        }
+        deltas.computeIfAbsent(new Key(payment.getStatus(), payment.getMethod(), bucketDate),
+                k -> new Delta()).add(1, payment.getAmount());
+
+        payment.setCountedStatus(payment.getStatus());
+        payment.setCountedMethod(payment.getMethod());
+        payment.setCounted(true);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(deltas);
+        }
+    }
+
+    /**
+     * Count a payment that was inserted without going through the entity (and so was loaded,
+     * which marks it as already counted).
+     */
+    public void recordCreated(Payment payment) {
+        payment.setCounted(false);
+        record(payment);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
+        return rollupRepository.getTotalAmountByStatus(status.name());
+    }
+
+    /**
+     * [method, count, amount] rows; payments without a method are reported under null
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getStatisticsByMethod() {
+        List<Object[]> statistics = new ArrayList<>();
+        for (Object[] row : rollupRepository.getStatisticsByMethod()) {
+            String method = (String) row[0];
+            statistics.add(new Object[] {
+                    PaymentStatsRollup.NO_METHOD.equals(method) ? null : PaymentMethod.valueOf(method),
+                    row[1],
+                    row[2] });
+        }
+        return statistics;
+    }
+
+    /**
+     * Recompute the rollup from the payments table, safe to run during live traffic.
+     */
+    @Transactional
+    public int rebuild() {
+        lockRepository.insertIfAbsent(PaymentStatsLock.ROLLUP);
+        lockRepository.findExclusiveById(PaymentStatsLock.ROLLUP);
+
+        int removed = rollupRepository.deleteAllRows();
+        List<PaymentStatsRollup> rows = new ArrayList<>();
+        for (Object[] row : rollupRepository.aggregatePayments()) {
+            PaymentMethod method = (PaymentMethod) row[1];
+            rows.add(PaymentStatsRollup.builder()
+                    .status(((PaymentStatus) row[0]).name())
+                    .method(method != null ? method.name() : PaymentStatsRollup.NO_METHOD)
+                    .bucketDate((LocalDate) row[2])
+                    .slot(0)
+                    .paymentCount(((Number) row[3]).longValue())
+                    .totalAmount((BigDecimal) row[4])
+                    .build());
+        }
+        rollupRepository.saveAll(rows);
+        log.info("Rebuilt payment statistics rollup: {} rows replaced by {}", removed, rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Build the rollup from the payments table the first time this version runs against a
+     * database. Until then the rollup only holds the deltas of recent changes, and a payment
+     * created before it existed would be subtracted from a row that never counted it.
+     */
+    @Transactional
+    public void seedIfNeeded() {
+        // Plain read: a locking read of the missing row would take a gap lock that two
+        // instances seeding at once could deadlock on when they insert it
+        if (lockRepository.existsById(PaymentStatsLock.ROLLUP)) {
+            return;
+        }
+        log.info("Payment statistics rollup was never built, seeding it from the payments table");
+        rebuild();
+    }
+
+    private Map<Key, Delta> currentDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+
+        // Synchronizations are suspended with their transaction, so REQUIRES_NEW gets its own deltas
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof RollupWriter writer && writer.owner() == this) {
+                return writer.deltas();
+            }
+        }
+        RollupWriter writer = new RollupWriter(this, new HashMap<>());
+        TransactionSynchronizationManager.registerSynchronization(writer);
+        return writer.deltas();
+    }
+
+    private void write(Map<Key, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Not there before the first seed; the seed then recomputes everything anyway
+        lockRepository.findSharedById(PaymentStatsLock.ROLLUP);
+        deltas.forEach((key, delta) -> {
+            if (delta.count != 0 || delta.amount.signum() != 0) {
+                rollupRepository.upsert(key.status().name(),
+                        key.method() != null ? key.method().name() : PaymentStatsRollup.NO_METHOD,
+                        key.bucketDate(),
+                        ThreadLocalRandom.current().nextInt(slots),
+                        delta.count,
+                        delta.amount);
+            }
+        });
+        deltas.clear();
+    }
+
+    private static LocalDate bucketOf(LocalDateTime createdAt) {
+        return (createdAt != null ? createdAt : LocalDateTime.now()).toLocalDate();
+    }
+
+    private record RollupWriter(PaymentStatisticsService owner, Map<Key, Delta> deltas)
+            implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            owner.write(deltas);
+        }
+    }
+
+    private record Key(PaymentStatus status, PaymentMethod method, LocalDate bucketDate) {
+    }
+
+    private static final class Delta {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private void add(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+    }
+}
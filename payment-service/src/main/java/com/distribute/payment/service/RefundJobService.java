@@ -0,0 +1,234 @@
+package com.distribute.payment.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.distribute.payment.dto.PaymentRefundDto;
+import com.distribute.payment.dto.RefundJobDto;
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.entity.RefundJob;
+import com.distribute.payment.entity.RefundJobStatus;
+import com.distribute.payment.exception.PaymentNotFoundException;
+import com.distribute.payment.exception.PaymentProcessingException;
+import com.distribute.payment.exception.RefundJobNotFoundException;
+import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.repository.RefundJobRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Table-backed queue of refunds. The API enqueues and returns the job at once; RefundWorkerPool
+ * claims due jobs with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent workers (in this
+ * instance or another) never pick the same row and never wait on each other's locks.
+ *
+ * A claimed job holds a lease: if its worker dies, the job becomes claimable again when
+ * lockedUntil passes. Completion writes the payment, its PAYMENT_REFUNDED outbox event and
+ * the job in one transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefundJobService {
+
+    private static final EnumSet<RefundJobStatus> ACTIVE = EnumSet.of(RefundJobStatus.QUEUED, RefundJobStatus.RUNNING);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RefundJobRepository refundJobRepository;
+
+    private final PaymentRepository paymentRepository;
+
+    private final PaymentService paymentService;
+
+    // Released after an enqueue commits, so an idle worker picks the job up without waiting a poll
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    @Value("${payment.refund.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${payment.refund.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${payment.refund.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    /**
+     * Accept a refund of a PAID payment. A payment with a refund already queued or running
+     * gets that job back instead of a second one.
+     */
+    @Transactional
+    public RefundJobDto enqueue(PaymentRefundDto refundDto) {
+        Integer paymentId = refundDto.getPaymentId();
+        // Locking the payment serializes concurrent requests for it, so only one creates a job
+        Payment payment = paymentRepository.findForUpdateByIdIn(List.of(paymentId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found with ID: " + paymentId));
+
+        RefundJob existing = refundJobRepository.findFirstByPaymentIdAndStatusIn(paymentId, ACTIVE).orElse(null);
+        if (existing != null) {
+            log.info("Refund of payment {} already queued as job {}", paymentId, existing.getId());
+            return RefundJobDto.fromEntity(existing);
+        }
+
+        if (payment.getStatus() != PaymentStatus.PAID) {
+            throw new PaymentProcessingException(
+                    "Only PAID payments can be refunded. Current status: " + payment.getStatus());
+        }
+
+        RefundJob job = refundJobRepository.save(RefundJob.builder()
+                .paymentId(paymentId)
+                .reason(refundDto.getReason())
+                .status(RefundJobStatus.QUEUED)
+                .availableAt(LocalDateTime.now())
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUps.release();
+            }
+        });
+
+        log.info("Refund of payment {} queued as job {}", paymentId, job.getId());
+        return RefundJobDto.fromEntity(job);
+    }
+
+    /**
+     * Refund the payment of an order that was canceled after its payment was authorized.
+     * Redelivered requests change nothing: a queued job is returned as is, and a payment
+     * that is no longer PAID has nothing left to refund.
+     */
+    @Transactional
+    public RefundJobDto enqueueForOrder(Integer orderId, String reason) {
+        Payment payment = paymentRepository.findByOrderId(orderId).stream().findFirst().orElse(null);
+        if (payment == null) {
+            log.warn("Refund requested for order {} which has no payment", orderId);
+            return null;
+        }
+        if (payment.getStatus() != PaymentStatus.PAID
+                && refundJobRepository.findFirstByPaymentIdAndStatusIn(payment.getId(), ACTIVE).isEmpty()) {
+            log.info("Refund requested for order {}, payment {} is {}, nothing to refund",
+                    orderId, payment.getId(), payment.getStatus());
+            return null;
+        }
+        return enqueue(PaymentRefundDto.builder()
+                .paymentId(payment.getId())
+                .reason(reason)
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public RefundJobDto getJob(Long jobId) {
+        return refundJobRepository.findById(jobId)
+                .map(RefundJobDto::fromEntity)
+                .orElseThrow(() -> new RefundJobNotFoundException("Refund job not found with ID: " + jobId));
+    }
+
+    /**
+     * Take up to limit due jobs and lease them to the caller. The row locks only last for
+     * this short transaction; the lease is what keeps other workers away afterwards.
+     */
+    @Transactional
+    public List<RefundJob> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<RefundJob> jobs = refundJobRepository.lockClaimable(now, limit);
+        for (RefundJob job : jobs) {
+            job.setStatus(RefundJobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedUntil(now.plus(leaseMs, ChronoUnit.MILLIS));
+        }
+        return refundJobRepository.saveAll(jobs);
+    }
+
+    /**
+     * Remember that the gateway returned the money, so a retry of the job (completion failed,
+     * worker died) completes it without calling the gateway again.
+     * @return false if the caller no longer holds the job
+     */
+    @Transactional
+    public boolean recordGatewayApproval(Long jobId, int claimedAttempts) {
+        RefundJob job = claimed(jobId, claimedAttempts);
+        if (job == null) {
+            return false;
+        }
+        job.setGatewayApprovedAt(LocalDateTime.now());
+        refundJobRepository.save(job);
+        return true;
+    }
+
+    /**
+     * The gateway returned the money: refund the payment and close the job together.
+     */
+    @Transactional
+    public void complete(Long jobId, int claimedAttempts) {
+        RefundJob job = claimed(jobId, claimedAttempts);
+        if (job == null) {
+            return;
+        }
+
+        paymentService.completeRefund(job.getPaymentId(), job.getReason());
+
+        job.setStatus(RefundJobStatus.SUCCEEDED);
+        job.setLockedUntil(null);
+        job.setLastError(null);
+        refundJobRepository.save(job);
+        log.info("Refund job {} succeeded for payment {}", jobId, job.getPaymentId());
+    }
+
+    /**
+     * Put the job back with a growing delay, or fail it once it has used its attempts.
+     */
+    @Transactional
+    public void retryOrFail(Long jobId, int claimedAttempts, String error) {
+        RefundJob job = claimed(jobId, claimedAttempts);
+        if (job == null) {
+            return;
+        }
+
+        job.setLockedUntil(null);
+        job.setLastError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(RefundJobStatus.FAILED);
+            log.warn("Refund job {} failed after {} attempts: {}", jobId, job.getAttempts(), error);
+        } else {
+            job.setStatus(RefundJobStatus.QUEUED);
+            job.setAvailableAt(LocalDateTime.now().plus(retryDelayMs * job.getAttempts(), ChronoUnit.MILLIS));
+            log.info("Refund job {} attempt {} failed, retrying: {}", jobId, job.getAttempts(), error);
+        }
+        refundJobRepository.save(job);
+    }
+
+    /**
+     * Lock the job if it is still RUNNING under the caller's claim. A worker whose lease ran out
+     * and whose job was claimed again (attempts moved on) or finished gets null, and its result
+     * is dropped instead of overwriting the current claimant's.
+     */
+    private RefundJob claimed(Long jobId, int claimedAttempts) {
+        RefundJob job = refundJobRepository
+                .findWithLockByIdAndStatusAndAttempts(jobId, RefundJobStatus.RUNNING, claimedAttempts)
+                .orElse(null);
+        if (job == null) {
+            log.warn("Refund job {} attempt {} no longer holds the job, dropping its result", jobId, claimedAttempts);
+        }
+        return job;
+    }
+
+    /**
+     * Block until a job is enqueued or the timeout passes; each enqueue wakes one idle worker.
+     */
+    public void awaitWork(long timeoutMs) throws InterruptedException {
+        wakeUps.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
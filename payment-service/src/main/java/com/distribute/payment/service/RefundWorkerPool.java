@@ -0,0 +1,156 @@
+package com.distribute.payment.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.RefundJob;
+import com.distribute.payment.gateway.GatewayResult;
+import com.distribute.payment.gateway.PaymentGateway;
+import com.distribute.payment.gateway.RefundRequest;
+import com.distribute.payment.repository.PaymentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fixed set of workers executing refund jobs. Each worker claims one job at a time, calls the
+ * gateway outside any transaction and records the outcome; with nothing due it sleeps until
+ * a refund is enqueued or the poll interval passes (jobs retried later or left by another
+ * instance are found by the poll).
+ *
+ * Workers start once the context is refreshed and stop before it is closed, and only when
+ * payment.refund.workers-enabled is set (off in the test profile, where they would claim the
+ * jobs a test is looking at).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefundWorkerPool implements SmartLifecycle {
+
+    private final RefundJobService refundJobService;
+
+    private final PaymentRepository paymentRepository;
+
+    private final PaymentGateway paymentGateway;
+
+    @Value("${payment.refund.workers-enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.refund.workers:4}")
+    private int workers;
+
+    @Value("${payment.refund.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${payment.refund.gateway-timeout-ms:10000}")
+    private long gatewayTimeoutMs;
+
+    private volatile boolean running;
+
+    private ExecutorService executor;
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("refund-worker-"));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        log.info("Started {} refund workers", workers);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                List<RefundJob> jobs = refundJobService.claim(1);
+                if (jobs.isEmpty()) {
+                    refundJobService.awaitWork(pollIntervalMs);
+                } else {
+                    jobs.forEach(this::execute);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Claiming failed (database unavailable): back off, the jobs stay in the table
+                log.error("Refund worker failed to claim jobs", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void execute(RefundJob job) {
+        int attempt = job.getAttempts();
+        try {
+            Payment payment = paymentRepository.findById(job.getPaymentId()).orElse(null);
+            if (payment == null) {
+                refundJobService.retryOrFail(job.getId(), attempt, "Payment not found with ID: " + job.getPaymentId());
+                return;
+            }
+
+            // An earlier attempt got the money back and then failed to complete: only complete
+            if (job.getGatewayApprovedAt() == null) {
+                // The payment id is the gateway's idempotency key, so a job re-run after a crash
+                // does not refund twice
+                GatewayResult result = paymentGateway.refund(new RefundRequest(
+                                payment.getId(), payment.getOrderId(), payment.getAmount(), job.getReason()))
+                        .get(gatewayTimeoutMs, TimeUnit.MILLISECONDS);
+
+                if (!result.approved()) {
+                    refundJobService.retryOrFail(job.getId(), attempt, result.reason());
+                    return;
+                }
+                if (!refundJobService.recordGatewayApproval(job.getId(), attempt)) {
+                    return;
+                }
+            }
+            refundJobService.complete(job.getId(), attempt);
+        } catch (InterruptedException e) {
+            // Shutting down: the lease runs out and another worker picks the job up
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            refundJobService.retryOrFail(job.getId(), attempt, "Refund gateway timed out");
+        } catch (ExecutionException e) {
+            refundJobService.retryOrFail(job.getId(), attempt, e.getCause().getMessage());
+        } catch (Exception e) {
+            log.error("Error executing refund job {}", job.getId(), e);
+            refundJobService.retryOrFail(job.getId(), attempt, e.getMessage());
+        }
+    }
+}
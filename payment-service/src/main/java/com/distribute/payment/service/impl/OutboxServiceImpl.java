@@ -4,6 +4,8 @@ import com.distribute.payment.entity.Outbox;
 import com.distribute.payment.entity.Payment;
 import com.distribute.payment.repository.OutboxRepository;
 import com.distribute.payment.service.OutboxService;
+import com.distribute.payment.service.utils.SagaIdGenerator;
+import com.distribute.payment.tracing.OutboxTraceContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +23,8 @@ public class OutboxServiceImpl implements OutboxService {
     
     private final OutboxRepository outboxRepository;
     private final ObjectMapper objectMapper;
+    private final OutboxTraceContext outboxTraceContext;
+    private final SagaIdGenerator sagaIdGenerator;
     
     @Override
     @Transactional(propagation = Propagation.MANDATORY)
@@ -33,10 +37,12 @@ public class OutboxServiceImpl implements OutboxService {
                 : "PAYMENT_FAILED";
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Payment")
                     .aggregateId(payment.getOrderId().toString())
                     .eventType(eventType)
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -55,10 +61,12 @@ public class OutboxServiceImpl implements OutboxService {
             String payload = buildPaymentPayload(payment, requestId, reason);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Payment")
                     .aggregateId(payment.getOrderId().toString())
                     .eventType("PAYMENT_REFUNDED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -77,10 +85,12 @@ public class OutboxServiceImpl implements OutboxService {
             String payload = buildPaymentPayload(payment, requestId, reason);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Payment")
                     .aggregateId(payment.getOrderId().toString())
                     .eventType("PAYMENT_FAILED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -99,10 +109,12 @@ public class OutboxServiceImpl implements OutboxService {
             String payload = buildPaymentPayload(payment, requestId, null);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Payment")
                     .aggregateId(payment.getOrderId().toString())
                     .eventType("PAYMENT_AUTHORIZE_SUCCEEDED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -121,10 +133,12 @@ public class OutboxServiceImpl implements OutboxService {
             String payload = buildPaymentPayload(payment, requestId, reason);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Payment")
                     .aggregateId(payment.getOrderId().toString())
                     .eventType("PAYMENT_AUTHORIZE_FAILED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
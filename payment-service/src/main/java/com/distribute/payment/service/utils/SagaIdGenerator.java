@@ -0,0 +1,90 @@
+package com.distribute.payment.service.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Copy of the order service's generator, reduced to what this service uses: time-ordered UUIDs
+ * for outbox event ids, built from milliseconds, a 10-bit node id and a 12-bit per-millisecond
+ * sequence.
+ *
+ * Ids are unique per node, strictly increasing per generator and sortable by creation time.
+ * Node ids come from SagaIdNodeLease, which keeps them distinct across instances and services.
+ * Generation is a single CAS on the last issued (millis, sequence) pair. When the sequence of a
+ * millisecond runs out, or the clock moves backwards, the generator continues from the last id
+ * (borrowing the next millisecond) instead of blocking, so it never waits and never repeats.
+ * A generator on a leased node id refuses to issue ids once the lease is no longer valid.
+ */
+public final class SagaIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final LongSupplier validUntilMillis;
+
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence, of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SagaIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Generator on the node id leased by {@code lease}, valid for as long as the lease is
+     */
+    public SagaIdGenerator(SagaIdNodeLease lease) {
+        this(lease.acquire(), System::currentTimeMillis, lease::validUntilMillis);
+    }
+
+    SagaIdGenerator(int nodeId, LongSupplier clock) {
+        this(nodeId, clock, () -> Long.MAX_VALUE);
+    }
+
+    SagaIdGenerator(int nodeId, LongSupplier clock, LongSupplier validUntilMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.validUntilMillis = validUntilMillis;
+    }
+
+    /**
+     * Time-ordered UUID (version 7 layout) for UUID keyed tables such as the outbox: inserts
+     * append to the end of the index instead of landing on random pages like random UUIDs.
+     */
+    public UUID nextUuid() {
+        long state = nextState();
+        long unixMillis = (state >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+        long mostSigBits = (unixMillis << 16) | (0x7L << 12) | (state & SEQUENCE_MASK);
+        long leastSigBits = (0x2L << 62)
+                | (nodeId << 52)
+                | (ThreadLocalRandom.current().nextLong() & ((1L << 52) - 1));
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private long nextState() {
+        long millis = clock.getAsLong();
+        if (millis >= validUntilMillis.getAsLong()) {
+            throw new IllegalStateException("Lease of saga id node " + nodeId
+                    + " has expired or was lost, no ids are issued under it");
+        }
+        long now = (millis - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            // A new millisecond restarts the sequence, anything else continues after the last id
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.distribute.payment.service.utils;
+
+import com.distribute.payment.repository.SagaIdNodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates this instance's SagaIdGenerator node id from the saga_id_nodes table, so two
+ * instances of the service never run with the same node id.
+ *
+ * The 10-bit node id is split into a service slot (high 2 bits, fixed per service: order 0,
+ * product 1, payment 2) and an instance slot (low 8 bits) leased here. The lease is renewed
+ * every third of its ttl and handed back on shutdown; the slot of a crashed instance is free
+ * again once its lease has run out.
+ *
+ * Lease times are taken from the database clock, which all instances share. Locally the lease
+ * counts as valid for one ttl from the start of the last successful claim or renewal, and
+ * SagaIdGenerator stops issuing ids once that has passed: after a database outage longer than
+ * the ttl, or once renewal finds the slot claimed by another instance.
+ */
+@Slf4j
+public class SagaIdNodeLease implements AutoCloseable {
+
+    public static final int INSTANCE_SLOT_BITS = 8;
+    public static final int MAX_INSTANCE_SLOT = (1 << INSTANCE_SLOT_BITS) - 1;
+    public static final int MAX_SERVICE_SLOT = SagaIdGenerator.MAX_NODE_ID >>> INSTANCE_SLOT_BITS;
+
+    private final SagaIdNodeRepository repository;
+    private final TransactionOperations transactions;
+    private final int serviceSlot;
+    private final Duration ttl;
+    private final String owner;
+    private final LongSupplier clock;
+
+    private ScheduledExecutorService heartbeat;
+    private volatile int instanceSlot = -1;
+    // Local clock millis up to which the slot is known to be ours; 0 once it is lost
+    private volatile long validUntilMillis;
+
+    public SagaIdNodeLease(SagaIdNodeRepository repository, TransactionOperations transactions,
+                           int serviceSlot, Duration ttl) {
+        this(repository, transactions, serviceSlot, ttl,
+                ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID(), System::currentTimeMillis);
+    }
+
+    SagaIdNodeLease(SagaIdNodeRepository repository, TransactionOperations transactions,
+                    int serviceSlot, Duration ttl, String owner, LongSupplier clock) {
+        if (serviceSlot < 0 || serviceSlot > MAX_SERVICE_SLOT) {
+            throw new IllegalArgumentException("Service slot must be between 0 and " + MAX_SERVICE_SLOT + ": " + serviceSlot);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Lease ttl must be positive: " + ttl);
+        }
+        this.repository = repository;
+        this.transactions = transactions;
+        this.serviceSlot = serviceSlot;
+        this.ttl = ttl;
+        this.owner = owner;
+        this.clock = clock;
+    }
+
+    /**
+     * Lease the lowest free instance slot and keep renewing it. Returns the full node id.
+     */
+    public synchronized int acquire() {
+        if (instanceSlot < 0) {
+            for (int slot = 0; slot <= MAX_INSTANCE_SLOT && instanceSlot < 0; slot++) {
+                if (tryClaim(slot)) {
+                    instanceSlot = slot;
+                }
+            }
+            if (instanceSlot < 0) {
+                throw new IllegalStateException("All " + (MAX_INSTANCE_SLOT + 1)
+                        + " saga id instance slots are leased; wait for stale leases to expire or set saga.id.node-id");
+            }
+            startHeartbeat();
+            log.info("Leased saga id instance slot {} (node id {}) as {}", instanceSlot, nodeId(), owner);
+        }
+        return nodeId();
+    }
+
+    public int nodeId() {
+        return (serviceSlot << INSTANCE_SLOT_BITS) | instanceSlot;
+    }
+
+    /**
+     * Local clock millis (System.currentTimeMillis) up to which ids may be issued under
+     * {@link #nodeId()}
+     */
+    public long validUntilMillis() {
+        return validUntilMillis;
+    }
+
+    /**
+     * Extend the lease. A lease that was lost (the instance stalled for longer than the ttl)
+     * is taken back if nobody claimed the slot in between; if somebody did, the lease stays
+     * invalid and no more ids are issued under this node id.
+     */
+    void renew() {
+        int slot = instanceSlot;
+        long started = clock.getAsLong();
+        LocalDateTime until = repository.databaseNow().plus(ttl);
+        Integer renewed = transactions.execute(status -> repository.renew(slot, owner, until));
+        if (renewed != null && renewed > 0) {
+            validUntilMillis = started + ttl.toMillis();
+        } else if (!tryClaim(slot)) {
+            validUntilMillis = 0;
+            log.error("Saga id instance slot {} was claimed by another instance; ids are no longer issued "
+                    + "under node id {}, restart this instance to lease a new slot", slot, nodeId());
+        }
+    }
+
+    boolean tryClaim(int slot) {
+        long started = clock.getAsLong();
+        LocalDateTime now = repository.databaseNow();
+        LocalDateTime until = now.plus(ttl);
+        Integer claimed = transactions.execute(status -> repository.claim(slot, owner, now, until));
+        if (claimed == null || claimed == 0) {
+            if (repository.existsById(slot)) {
+                return false;
+            }
+            try {
+                transactions.executeWithoutResult(status -> repository.insert(slot, owner, until));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the same slot first
+                return false;
+            }
+        }
+        validUntilMillis = started + ttl.toMillis();
+        return true;
+    }
+
+    /**
+     * Stop renewing and expire the lease so the slot is free for the next instance right away
+     */
+    @Override
+    public synchronized void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (instanceSlot >= 0) {
+            int slot = instanceSlot;
+            validUntilMillis = 0;
+            try {
+                transactions.execute(status -> repository.renew(slot, owner, repository.databaseNow()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to release saga id instance slot {}, it frees up when the lease expires: {}",
+                        slot, e.getMessage());
+            }
+        }
+    }
+
+    private void startHeartbeat() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saga-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMs = Math.max(1, ttl.toMillis() / 3);
+        heartbeat.scheduleAtFixedRate(() -> {
+            try {
+                renew();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; ids stop being issued if no beat succeeds within the ttl
+                log.warn("Failed to renew saga id instance slot {}: {}", instanceSlot, e.getMessage());
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+}
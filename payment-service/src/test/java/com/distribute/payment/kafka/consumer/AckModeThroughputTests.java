@@ -0,0 +1,162 @@
+package com.distribute.payment.kafka.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.distribute.payment.config.ConsumerAckMode;
+import com.distribute.payment.config.KafkaConfig;
+import com.distribute.payment.entity.Outbox;
+import com.distribute.payment.repository.OutboxRepository;
+import com.distribute.payment.service.utils.SagaIdGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput of the three commit strategies against an embedded broker and H2.
+ * Each record is handled in its own JPA transaction (one outbox insert), and a run
+ * only ends once every offset is committed, so commit cost is part of the figure.
+ *
+ * Run with: mvn test -Dtest=AckModeThroughputTests -Dperf=true
+ *
+ * Rates are logged and published as report entries (target/surefire-reports); record
+ * them in the "Kafka Offset Commits" table of the service README.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "eureka.client.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.distribute.payment=INFO"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, topics = AckModeThroughputTests.TOPIC)
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+class AckModeThroughputTests {
+
+    static final String TOPIC = "ack-mode-throughput";
+    private static final int RECORDS = 5_000;
+
+    @Autowired
+    private KafkaConfig kafkaConfig;
+
+    @Autowired
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionalAckCoordinator ackCoordinator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private SagaIdGenerator sagaIdGenerator;
+
+    @Test
+    void compareAckModes(TestReporter reporter) throws Exception {
+        for (int i = 0; i < RECORDS; i++) {
+            kafkaTemplate.send(TOPIC, String.valueOf(i % 100), "{\"orderId\":" + i + ",\"amount\":\"10.00\"}");
+        }
+        kafkaTemplate.flush();
+
+        Map<ConsumerAckMode, Double> recordsPerSecond = new EnumMap<>(ConsumerAckMode.class);
+        for (ConsumerAckMode mode : ConsumerAckMode.values()) {
+            recordsPerSecond.put(mode, measure(mode));
+        }
+
+        recordsPerSecond.forEach((mode, rate) -> {
+            log.info("{} {} records/s", mode, Math.round(rate));
+            reporter.publishEntry("ack-mode." + mode.name() + ".records-per-second", String.valueOf(Math.round(rate)));
+        });
+        assertThat(recordsPerSecond).hasSize(ConsumerAckMode.values().length);
+    }
+
+    private double measure(ConsumerAckMode mode) throws Exception {
+        String groupId = "ack-bench-" + mode.name().toLowerCase();
+
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setGroupId(groupId);
+        kafkaConfig.applyAckMode(containerProperties, mode);
+
+        CountDownLatch processed = new CountDownLatch(RECORDS);
+        containerProperties.setMessageListener((AcknowledgingMessageListener<String, String>) (record, ack) -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                outboxRepository.save(Outbox.builder()
+                        .id(sagaIdGenerator.nextUuid())
+                        .aggregateType("Bench")
+                        .aggregateId(String.valueOf(record.offset()))
+                        .eventType(mode.name())
+                        .payload(record.value())
+                        .build());
+                ackCoordinator.acknowledgeAfterCommit(record.topic(), record.partition(), ack);
+            });
+            processed.countDown();
+        });
+
+        KafkaMessageListenerContainer<String, String> container =
+                new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setApplicationEventPublisher(eventPublisher);
+
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertThat(processed.await(2, TimeUnit.MINUTES)).isTrue();
+            awaitCommitted(groupId);
+            return RECORDS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            container.stop();
+        }
+    }
+
+    private void awaitCommitted(String groupId) throws Exception {
+        try (AdminClient admin = AdminClient.create(
+                Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (System.currentTimeMillis() < deadline) {
+                long committed = admin.listConsumerGroupOffsets(groupId)
+                        .partitionsToOffsetAndMetadata().get().values().stream()
+                        .mapToLong(OffsetAndMetadata::offset)
+                        .sum();
+                if (committed >= RECORDS) {
+                    return;
+                }
+                Thread.sleep(5);
+            }
+            throw new AssertionError("Offsets for " + groupId + " were not committed in time");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.distribute.payment.kafka.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.kafka.dlt.DeadLetterHeaders;
+import com.distribute.payment.repository.PaymentRepository;
+
+/**
+ * A record that is not JSON is not retried: it lands on the DLT after the first attempt.
+ * The retry backoff is longer than the test timeout, so a retried record would never get there.
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "eureka.client.enabled=false",
+        "spring.jpa.show-sql=false",
+        "kafka.retry.initial-delay-ms=300000",
+        "kafka.retry.max-delay-ms=300000"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 1, topics = { OrderEventListener.ORDER_TOPIC, OrderEventDeadLetterTests.DLT_TOPIC })
+class OrderEventDeadLetterTests {
+
+    static final String DLT_TOPIC = OrderEventListener.ORDER_TOPIC + OrderEventListener.DLT_TOPIC_SUFFIX;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void malformedOrderEventGoesStraightToTheDlt() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("order-dlt-test", "false", broker);
+        props.put("auto.offset.reset", "earliest");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, DLT_TOPIC);
+
+            kafkaTemplate.send(OrderEventListener.ORDER_TOPIC, "42", "{not json").join();
+
+            ConsumerRecord<String, String> deadLetter =
+                    KafkaTestUtils.getSingleRecord(consumer, DLT_TOPIC, Duration.ofSeconds(60));
+            assertThat(deadLetter.key()).isEqualTo("42");
+            assertThat(deadLetter.value()).isEqualTo("{not json");
+            // Straight from the main topic, no retry topic in between
+            assertThat(header(deadLetter, KafkaHeaders.ORIGINAL_TOPIC)).isEqualTo(OrderEventListener.ORDER_TOPIC);
+            assertThat(header(deadLetter, KafkaHeaders.EXCEPTION_CAUSE_FQCN)).endsWith("JsonParseException");
+            assertThat(DeadLetterHeaders.reason(deadLetter)).contains("Unexpected character");
+        }
+        assertThat(paymentRepository.findByOrderId(42)).isEmpty();
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
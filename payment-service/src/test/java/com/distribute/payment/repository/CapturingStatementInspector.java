@@ -0,0 +1,23 @@
+package com.distribute.payment.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Keeps the last SELECT Hibernate prepared on the calling thread so tests can EXPLAIN it.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_SELECT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.regionMatches(true, 0, "select", 0, 6)) {
+            LAST_SELECT.set(sql);
+        }
+        return sql;
+    }
+
+    static String lastSelect() {
+        return LAST_SELECT.get();
+    }
+}
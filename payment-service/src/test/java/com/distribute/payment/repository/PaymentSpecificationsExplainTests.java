@@ -0,0 +1,144 @@
+package com.distribute.payment.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.dto.PaymentSearchCriteria;
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.service.PaymentService;
+
+/**
+ * For every combination of search filters: the generated SQL filters on exactly the columns
+ * that were set, and EXPLAIN shows an index on one of them instead of a table scan.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.distribute.payment.repository.CapturingStatementInspector"
+})
+@ActiveProfiles("test")
+class PaymentSpecificationsExplainTests {
+
+    private static final int ORDER_ID = 1;
+    private static final int STATUS = 2;
+    private static final int METHOD = 4;
+    private static final int MIN_AMOUNT = 8;
+    private static final int MAX_AMOUNT = 16;
+
+    private static final int SEED_PAYMENTS = 500;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (paymentRepository.count() >= SEED_PAYMENTS) {
+            return;
+        }
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < SEED_PAYMENTS; i++) {
+            payments.add(Payment.builder()
+                    .orderId(100_000 + i)
+                    .amount(BigDecimal.valueOf(1 + i % 1000))
+                    .method(PaymentMethod.values()[i % PaymentMethod.values().length])
+                    .status(PaymentStatus.values()[i % PaymentStatus.values().length])
+                    .build());
+        }
+        paymentRepository.saveAll(payments);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static IntStream filterCombinations() {
+        return IntStream.range(0, 32);
+    }
+
+    @ParameterizedTest(name = "filters {0}")
+    @MethodSource("filterCombinations")
+    void searchUsesAnIndexOfAPresentFilter(int filters) {
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria();
+        List<Object> args = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        if ((filters & ORDER_ID) != 0) {
+            criteria.setOrderId(100_042);
+            args.add(100_042);
+            indexes.add("uk_payments_order_id");
+        }
+        if ((filters & STATUS) != 0) {
+            criteria.setStatus(PaymentStatus.PAID);
+            args.add(PaymentStatus.PAID.name());
+            indexes.add("idx_payments_status_created");
+        }
+        if ((filters & METHOD) != 0) {
+            criteria.setMethod(PaymentMethod.CASH);
+            args.add(PaymentMethod.CASH.name());
+            indexes.add("idx_payments_method_created");
+        }
+        if ((filters & MIN_AMOUNT) != 0) {
+            criteria.setMinAmount(new BigDecimal("990"));
+            args.add(new BigDecimal("990"));
+            indexes.add("idx_payments_amount");
+        }
+        if ((filters & MAX_AMOUNT) != 0) {
+            criteria.setMaxAmount(new BigDecimal("10"));
+            args.add(new BigDecimal("10"));
+            indexes.add("idx_payments_amount");
+        }
+
+        paymentService.searchPayments(criteria, null, PAGE_SIZE);
+        String sql = CapturingStatementInspector.lastSelect();
+        assertThat(sql).isNotNull();
+
+        String where = whereClause(sql);
+        assertThat(where.contains("order_id")).isEqualTo((filters & ORDER_ID) != 0);
+        assertThat(where.contains("status")).isEqualTo((filters & STATUS) != 0);
+        assertThat(where.contains("method")).isEqualTo((filters & METHOD) != 0);
+        assertThat(where.contains("amount")).isEqualTo((filters & (MIN_AMOUNT | MAX_AMOUNT)) != 0);
+        assertThat(where).doesNotContainIgnoringCase("is null");
+
+        if (filters == 0) {
+            return;
+        }
+
+        // Remaining placeholders belong to the row limit
+        while (args.size() < sql.chars().filter(c -> c == '?').count()) {
+            args.add(PAGE_SIZE + 1);
+        }
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args.toArray()));
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        assertThat(indexes).anySatisfy(index -> assertThat(plan).containsIgnoringCase(index));
+    }
+
+    private static String whereClause(String sql) {
+        String lower = sql.toLowerCase().replaceAll("\\s+", " ");
+        int where = lower.indexOf(" where ");
+        if (where < 0) {
+            return "";
+        }
+        int orderBy = lower.indexOf(" order by ", where);
+        return lower.substring(where, orderBy < 0 ? lower.length() : orderBy);
+    }
+}
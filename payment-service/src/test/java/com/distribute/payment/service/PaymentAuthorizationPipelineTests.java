@@ -0,0 +1,90 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.repository.OutboxRepository;
+import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.service.PaymentAuthorizationPipeline.AuthorizationCommand;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "payment.gateway.min-latency-ms=1",
+        "payment.gateway.max-latency-ms=20",
+        "payment.gateway.approval-rate=1.0"
+})
+@ActiveProfiles("test")
+class PaymentAuthorizationPipelineTests {
+
+    @Autowired
+    private PaymentAuthorizationPipeline pipeline;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Test
+    void batchIsAuthorizedOncePerOrder() {
+        List<AuthorizationCommand> commands = new ArrayList<>();
+        for (int orderId = 70_000; orderId < 70_050; orderId++) {
+            commands.add(new AuthorizationCommand(orderId, new BigDecimal("99.00")));
+        }
+        // Duplicate inside the batch and an amount the gateway always declines
+        commands.add(new AuthorizationCommand(70_000, new BigDecimal("99.00")));
+        commands.add(new AuthorizationCommand(70_050, new BigDecimal("20000.00")));
+
+        pipeline.authorize(commands);
+        // Redelivery of the same batch changes nothing
+        pipeline.authorize(commands);
+
+        for (int orderId = 70_000; orderId < 70_050; orderId++) {
+            assertThat(paymentRepository.findByOrderId(orderId))
+                    .singleElement()
+                    .satisfies(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PAID));
+            assertThat(outboxRepository.findByAggregateId(String.valueOf(orderId)))
+                    .singleElement()
+                    .satisfies(outbox -> assertThat(outbox.getEventType()).isEqualTo("PAYMENT_AUTHORIZE_SUCCEEDED"));
+        }
+        assertThat(paymentRepository.findByOrderId(70_050))
+                .singleElement()
+                .satisfies(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.FAILED));
+        assertThat(outboxRepository.findByAggregateId("70050"))
+                .singleElement()
+                .satisfies(outbox -> assertThat(outbox.getEventType()).isEqualTo("PAYMENT_AUTHORIZE_FAILED"));
+    }
+
+    @Test
+    void commandsWithoutOrderOrAmountAreRejected() {
+        assertThatThrownBy(() -> new AuthorizationCommand(null, BigDecimal.TEN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuthorizationCommand(0, BigDecimal.TEN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuthorizationCommand(70_100, BigDecimal.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuthorizationCommand(70_100, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyBatchTouchesNothing() {
+        long payments = paymentRepository.count();
+
+        pipeline.authorize(List.of());
+
+        assertThat(paymentRepository.count()).isEqualTo(payments);
+    }
+}
@@ -0,0 +1,55 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.exception.PaymentProcessingException;
+import com.distribute.payment.repository.OutboxRepository;
+import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.service.PaymentAuthorizationPipeline.AuthorizationCommand;
+
+/**
+ * A gateway that does not answer in time is not a decline.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "payment.gateway.min-latency-ms=500",
+        "payment.gateway.max-latency-ms=600",
+        "payment.authorization.gateway-timeout-ms=50"
+})
+@ActiveProfiles("test")
+class PaymentAuthorizationTimeoutTests {
+
+    @Autowired
+    private PaymentAuthorizationPipeline pipeline;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Test
+    void timedOutPaymentStaysPendingAndTheBatchFails() {
+        List<AuthorizationCommand> commands = List.of(new AuthorizationCommand(71_000, new BigDecimal("99.00")));
+
+        assertThatThrownBy(() -> pipeline.authorize(commands))
+                .isInstanceOf(PaymentProcessingException.class);
+
+        assertThat(paymentRepository.findByOrderId(71_000))
+                .singleElement()
+                .satisfies(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING));
+        assertThat(outboxRepository.findByAggregateId("71000")).isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.dto.PaymentRequestDto;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.repository.PaymentRepository;
+
+/**
+ * Racing creations for one order must all resolve to a single payment row.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class PaymentIdempotencyTests {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void concurrentCreationsForOneOrderShareOnePayment() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                int orderId = 50_000 + round;
+                Set<Integer> paymentIds = ConcurrentHashMap.newKeySet();
+                CountDownLatch start = new CountDownLatch(1);
+
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        paymentIds.add(paymentService.createPayment(PaymentRequestDto.builder()
+                                .orderId(orderId)
+                                .amount(new BigDecimal("25.00"))
+                                .method(PaymentMethod.CASH)
+                                .build()).getId());
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> result : results) {
+                    result.get();
+                }
+
+                assertThat(paymentIds).hasSize(1);
+                assertThat(paymentRepository.findByOrderId(orderId)).hasSize(1);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void repeatedCreationReturnsTheExistingPayment() {
+        PaymentRequestDto request = PaymentRequestDto.builder()
+                .orderId(60_001)
+                .amount(new BigDecimal("10.00"))
+                .method(PaymentMethod.CARD_PAYMENT)
+                .build();
+
+        Integer first = paymentService.createPayment(request).getId();
+        Integer second = paymentService.createPayment(request).getId();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(paymentRepository.findByOrderId(60_001))
+                .singleElement()
+                .satisfies(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING));
+    }
+}
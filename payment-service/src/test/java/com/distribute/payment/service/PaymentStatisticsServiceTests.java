@@ -0,0 +1,119 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.dto.PaymentRequestDto;
+import com.distribute.payment.dto.PaymentResponseDto;
+import com.distribute.payment.dto.PaymentStatusUpdateDto;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.entity.PaymentStatsLock;
+import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.repository.PaymentStatsLockRepository;
+import com.distribute.payment.repository.PaymentStatsRollupRepository;
+
+/**
+ * The rollup must always agree with the aggregate queries over the payments table.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class PaymentStatisticsServiceTests {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentStatisticsService paymentStatisticsService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentStatsRollupRepository rollupRepository;
+
+    @Autowired
+    private PaymentStatsLockRepository lockRepository;
+
+    @Test
+    void rollupFollowsCreatesAndStatusChanges() {
+        PaymentResponseDto card = create(9001, "120.50", PaymentMethod.CARD_PAYMENT);
+        PaymentResponseDto wallet = create(9002, "75.00", PaymentMethod.DIGITAL_WALLET);
+        create(9003, "10.00", null);
+
+        paymentService.updatePaymentStatus(card.getId(), PaymentStatusUpdateDto.builder().status(PaymentStatus.PAID).build());
+        paymentService.updatePaymentStatus(wallet.getId(), PaymentStatusUpdateDto.builder().status(PaymentStatus.FAILED).build());
+        paymentService.updatePaymentStatus(card.getId(), PaymentStatusUpdateDto.builder().status(PaymentStatus.REFUND).build());
+
+        assertMatchesPaymentsTable();
+    }
+
+    @Test
+    void rebuildReproducesTheIncrementalRollup() {
+        PaymentResponseDto payment = create(9101, "42.00", PaymentMethod.BANK_TRANSFER);
+        paymentService.updatePaymentStatus(payment.getId(), PaymentStatusUpdateDto.builder().status(PaymentStatus.PAID).build());
+
+        paymentStatisticsService.rebuild();
+
+        assertMatchesPaymentsTable();
+    }
+
+    @Test
+    void unseededRollupIsBuiltOnce() {
+        PaymentResponseDto payment = create(9201, "18.00", PaymentMethod.CASH);
+        // As on a database that had payments before the rollup existed
+        rollupRepository.deleteAll();
+        lockRepository.deleteAll();
+        paymentService.updatePaymentStatus(payment.getId(), PaymentStatusUpdateDto.builder().status(PaymentStatus.PAID).build());
+
+        paymentStatisticsService.seedIfNeeded();
+
+        assertThat(lockRepository.existsById(PaymentStatsLock.ROLLUP)).isTrue();
+        assertMatchesPaymentsTable();
+
+        // Seeded: later deltas are kept, not replaced by another rebuild
+        create(9202, "7.00", PaymentMethod.CASH);
+        paymentStatisticsService.seedIfNeeded();
+        assertMatchesPaymentsTable();
+    }
+
+    private PaymentResponseDto create(int orderId, String amount, PaymentMethod method) {
+        return paymentService.createPayment(PaymentRequestDto.builder()
+                .orderId(orderId)
+                .amount(new BigDecimal(amount))
+                .method(method)
+                .build());
+    }
+
+    private void assertMatchesPaymentsTable() {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            assertThat(paymentService.getTotalAmountByStatus(status))
+                    .as("total amount for %s", status)
+                    .isEqualByComparingTo(paymentRepository.getTotalAmountByStatus(status));
+        }
+        assertThat(byMethod(paymentService.getPaymentStatisticsByMethod()))
+                .isEqualTo(byMethod(paymentRepository.getPaymentStatisticsByMethod()));
+    }
+
+    private static Map<PaymentMethod, String> byMethod(List<Object[]> rows) {
+        Map<PaymentMethod, String> statistics = new HashMap<>();
+        for (Object[] row : rows) {
+            BigDecimal amount = new BigDecimal(row[2].toString()).stripTrailingZeros();
+            statistics.put((PaymentMethod) row[0], ((Number) row[1]).longValue() + "/" + amount.toPlainString());
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,132 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.dto.PaymentRefundDto;
+import com.distribute.payment.dto.PaymentRequestDto;
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.entity.RefundJob;
+import com.distribute.payment.entity.RefundJobStatus;
+import com.distribute.payment.repository.PaymentRepository;
+import com.distribute.payment.repository.RefundJobRepository;
+
+/**
+ * A worker whose lease ran out must not overwrite the result of the worker that claimed the
+ * job after it. Workers are off (test profile), the test plays both of them.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "payment.refund.max-attempts=3"
+})
+@ActiveProfiles("test")
+class RefundJobFencingTests {
+
+    @Autowired
+    private RefundJobService refundJobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RefundJobRepository refundJobRepository;
+
+    @Test
+    void expiredClaimCannotOverwriteTheNextOne() {
+        Payment payment = paidPayment(81_000);
+        Long jobId = enqueue(payment);
+
+        RefundJob first = claim(jobId);
+        expireLease(jobId);
+        RefundJob second = claim(jobId);
+        assertThat(second.getAttempts()).isEqualTo(first.getAttempts() + 1);
+
+        // The first worker comes back late with its outcome
+        refundJobService.retryOrFail(jobId, first.getAttempts(), "late failure");
+        refundJobService.complete(jobId, first.getAttempts());
+
+        RefundJob current = refundJobRepository.findById(jobId).orElseThrow();
+        assertThat(current.getStatus()).isEqualTo(RefundJobStatus.RUNNING);
+        assertThat(current.getLastError()).isNull();
+        assertThat(paymentRepository.findById(payment.getId()))
+                .hasValueSatisfying(p -> assertThat(p.getStatus()).isEqualTo(PaymentStatus.PAID));
+
+        refundJobService.complete(jobId, second.getAttempts());
+
+        assertThat(refundJobRepository.findById(jobId))
+                .hasValueSatisfying(job -> assertThat(job.getStatus()).isEqualTo(RefundJobStatus.SUCCEEDED));
+        assertThat(paymentRepository.findById(payment.getId()))
+                .hasValueSatisfying(p -> assertThat(p.getStatus()).isEqualTo(PaymentStatus.REFUND));
+    }
+
+    @Test
+    void gatewayApprovalSurvivesAFailedCompletion() {
+        Payment payment = paidPayment(81_001);
+        Long jobId = enqueue(payment);
+
+        RefundJob claimed = claim(jobId);
+        assertThat(refundJobService.recordGatewayApproval(jobId, claimed.getAttempts())).isTrue();
+        refundJobService.retryOrFail(jobId, claimed.getAttempts(), "completion failed");
+
+        RefundJob retried = refundJobRepository.findById(jobId).orElseThrow();
+        assertThat(retried.getStatus()).isEqualTo(RefundJobStatus.QUEUED);
+        assertThat(retried.getGatewayApprovedAt()).isNotNull();
+    }
+
+    @Test
+    void expiredClaimCannotRecordAnApproval() {
+        Long jobId = enqueue(paidPayment(81_002));
+
+        RefundJob first = claim(jobId);
+        expireLease(jobId);
+        claim(jobId);
+
+        assertThat(refundJobService.recordGatewayApproval(jobId, first.getAttempts())).isFalse();
+    }
+
+    private Long enqueue(Payment payment) {
+        return refundJobService.enqueue(PaymentRefundDto.builder()
+                .paymentId(payment.getId())
+                .reason("Customer request")
+                .build()).getJobId();
+    }
+
+    private RefundJob claim(Long jobId) {
+        // Other classes may have left due jobs behind; take all of them and keep ours
+        return refundJobService.claim(100).stream()
+                .filter(job -> job.getId().equals(jobId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void expireLease(Long jobId) {
+        RefundJob job = refundJobRepository.findById(jobId).orElseThrow();
+        job.setLockedUntil(LocalDateTime.now().minusSeconds(1));
+        refundJobRepository.save(job);
+    }
+
+    private Payment paidPayment(int orderId) {
+        Integer id = paymentService.createPayment(PaymentRequestDto.builder()
+                .orderId(orderId)
+                .amount(new BigDecimal("40.00"))
+                .method(PaymentMethod.CASH)
+                .build()).getId();
+        Payment payment = paymentRepository.findById(id).orElseThrow();
+        payment.setStatus(PaymentStatus.PAID);
+        return paymentRepository.save(payment);
+    }
+}
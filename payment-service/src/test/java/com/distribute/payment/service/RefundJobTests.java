@@ -0,0 +1,107 @@
+package com.distribute.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.distribute.payment.dto.PaymentRefundDto;
+import com.distribute.payment.dto.PaymentRequestDto;
+import com.distribute.payment.dto.RefundJobDto;
+import com.distribute.payment.entity.Payment;
+import com.distribute.payment.entity.PaymentMethod;
+import com.distribute.payment.entity.PaymentStatus;
+import com.distribute.payment.entity.RefundJobStatus;
+import com.distribute.payment.exception.PaymentProcessingException;
+import com.distribute.payment.repository.OutboxRepository;
+import com.distribute.payment.repository.PaymentRepository;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "payment.gateway.refund-latency-ms=200",
+        "payment.gateway.refund-approval-rate=1.0",
+        "payment.refund.poll-interval-ms=50",
+        "payment.refund.workers-enabled=true"
+})
+@ActiveProfiles("test")
+class RefundJobTests {
+
+    @Autowired
+    private RefundJobService refundJobService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Test
+    void refundIsAcceptedThenCompletedByAWorker() throws Exception {
+        Payment payment = paidPayment(80_000);
+        PaymentRefundDto request = PaymentRefundDto.builder()
+                .paymentId(payment.getId())
+                .reason("Customer request")
+                .build();
+
+        RefundJobDto job = refundJobService.enqueue(request);
+        assertThat(job.getStatus()).isEqualTo(RefundJobStatus.QUEUED);
+        // A repeated request while the refund is pending gets the same job
+        assertThat(refundJobService.enqueue(request).getJobId()).isEqualTo(job.getJobId());
+
+        RefundJobDto done = awaitFinished(job.getJobId());
+        assertThat(done.getStatus()).isEqualTo(RefundJobStatus.SUCCEEDED);
+        assertThat(done.getAttempts()).isEqualTo(1);
+        assertThat(paymentRepository.findById(payment.getId()))
+                .hasValueSatisfying(refunded -> assertThat(refunded.getStatus()).isEqualTo(PaymentStatus.REFUND));
+        assertThat(outboxRepository.findByAggregateId(String.valueOf(payment.getOrderId())))
+                .filteredOn(outbox -> "PAYMENT_REFUNDED".equals(outbox.getEventType()))
+                .hasSize(1);
+    }
+
+    @Test
+    void onlyPaidPaymentsAreAccepted() {
+        Integer pendingId = paymentService.createPayment(PaymentRequestDto.builder()
+                .orderId(80_001)
+                .amount(new BigDecimal("40.00"))
+                .method(PaymentMethod.CASH)
+                .build()).getId();
+
+        assertThatThrownBy(() -> refundJobService.enqueue(PaymentRefundDto.builder()
+                .paymentId(pendingId)
+                .reason("Customer request")
+                .build()))
+                .isInstanceOf(PaymentProcessingException.class);
+    }
+
+    private Payment paidPayment(int orderId) {
+        Integer id = paymentService.createPayment(PaymentRequestDto.builder()
+                .orderId(orderId)
+                .amount(new BigDecimal("40.00"))
+                .method(PaymentMethod.CASH)
+                .build()).getId();
+        Payment payment = paymentRepository.findById(id).orElseThrow();
+        payment.setStatus(PaymentStatus.PAID);
+        return paymentRepository.save(payment);
+    }
+
+    private RefundJobDto awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RefundJobDto job = refundJobService.getJob(jobId);
+        while (job.getStatus() != RefundJobStatus.SUCCEEDED && job.getStatus() != RefundJobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = refundJobService.getJob(jobId);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,21 @@
+package com.distribute.products.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Resumes partitions of the ProductConsumer retry topics (stock reservation and release)
+     * once a record's backoff has elapsed, one thread per retry listener.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler retryTopicTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("product-retry-");
+        return scheduler;
+    }
+}
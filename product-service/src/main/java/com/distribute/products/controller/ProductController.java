@@ -4,6 +4,7 @@ import com.distribute.products.dto.request.CalcTotalAmontRequest;
 import com.distribute.products.dto.request.UpdateStockRequest;
 import com.distribute.products.dto.response.ApiResponse;
 import com.distribute.products.entity.Product;
+import com.distribute.products.kafka.dlt.DltReplayService;
 import com.distribute.products.kafka.event.Item;
 import com.distribute.products.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +25,8 @@ public class ProductController {
     @Autowired
     private final ProductService productService;
 
+    private final DltReplayService dltReplayService;
+
     @GetMapping()
     public List<Product> findAllProducts() {
         return productService.findAllProducts();
@@ -43,4 +46,16 @@ public class ProductController {
         return ResponseEntity.ok(apiResponse);
     }
 
+    /**
+     * Re-inject dead-lettered records, e.g. topic=outbox.event.Order-product-order-dlt
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<ApiResponse<Integer>> replayDeadLetters(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "100") int max) {
+        ApiResponse<Integer> apiResponse = new ApiResponse<>(200, "Dead letters replayed successfully",
+                dltReplayService.replay(topic, max));
+        return ResponseEntity.ok(apiResponse);
+    }
+
 }
@@ -1,15 +1,22 @@
 package com.distribute.products.kafka.consumer;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 
+import com.distribute.products.kafka.dlt.DeadLetterHeaders;
 import com.distribute.products.kafka.event.CreateOrderEvent;
 import com.distribute.products.kafka.event.StockReserveReleaseEvent;
 import com.distribute.products.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -18,6 +25,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Component
 public class ProductConsumer {
+
+    // Retry and DLT topic suffixes per listener, also used by DltReplayService to route replays
+    public static final String RESERVE_RETRY_SUFFIX = "-product-order-retry";
+    public static final String RESERVE_DLT_SUFFIX = "-product-order-dlt";
+    public static final String RELEASE_RETRY_SUFFIX = "-product-release-retry";
+    public static final String RELEASE_DLT_SUFFIX = "-product-release-dlt";
     
     @Autowired
     private ObjectMapper objectMapper;
@@ -30,7 +43,19 @@ public class ProductConsumer {
      * Topic: outbox.event.Order (Debezium outbox transformed topic)
      * Filter by event_type: ORDER_CREATED
      * Reserve stock and respond with STOCK_RESERVE_SUCCEEDED or STOCK_RESERVE_FAILED
+     * Failures are retried on outbox.event.Order-product-order-retry-N, then dead-lettered
      */
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${kafka.retry.multiplier:2.0}",
+            maxDelayExpression = "${kafka.retry.max-delay-ms:10000}"),
+        retryTopicSuffix = RESERVE_RETRY_SUFFIX,
+        dltTopicSuffix = RESERVE_DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = JsonProcessingException.class
+    )
     @KafkaListener(
         topics = "${spring.kafka.topics.order-outbox:outbox.event.Order}", 
         groupId = "product-service-order-group"
@@ -40,7 +65,7 @@ public class ProductConsumer {
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
+            @Header(value = "eventType", required = false) String eventType) throws JsonProcessingException {
         try {
             log.info("Received order event from topic: {}, partition: {}, offset: {}, eventType: {}", 
                     topic, partition, offset, eventType);
@@ -48,18 +73,7 @@ public class ProductConsumer {
             
             // Only process ORDER_CREATED events
             if ("ORDER_CREATED".equals(eventType)) {
-                // Parse event payload (already transformed by Debezium Outbox Router)
-                // Message has schema + payload structure, extract payload
-                JsonNode rootNode = objectMapper.readTree(message);
-                CreateOrderEvent event;
-                
-                if (rootNode.has("payload") && rootNode.has("schema")) {
-                    // Payload is expanded as JSON object
-                    event = objectMapper.treeToValue(rootNode.get("payload"), CreateOrderEvent.class);
-                } else {
-                    // Fallback: parse directly
-                    event = objectMapper.readValue(message, CreateOrderEvent.class);
-                }
+                CreateOrderEvent event = readEvent(objectMapper, message, CreateOrderEvent.class);
                 
                 log.info("Processing ORDER_CREATED: orderId={}, items count={}", 
                     event.getOrderId(), event.getItems().size());
@@ -72,6 +86,8 @@ public class ProductConsumer {
 
         } catch (Exception e) {
             log.error("Failed to process order outbox event: {}", message, e);
+            // Rethrow so the record moves to the retry topic instead of being dropped
+            throw e;
         }
     }
 
@@ -80,7 +96,19 @@ public class ProductConsumer {
      * Topic: outbox.event.Order (Debezium outbox transformed topic)
      * Filter by event_type: STOCK_RESERVE_RELEASE
      * This is triggered when payment fails or order is cancelled
+     * Failures are retried on outbox.event.Order-product-release-retry-N, then dead-lettered
      */
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${kafka.retry.multiplier:2.0}",
+            maxDelayExpression = "${kafka.retry.max-delay-ms:10000}"),
+        retryTopicSuffix = RELEASE_RETRY_SUFFIX,
+        dltTopicSuffix = RELEASE_DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = JsonProcessingException.class
+    )
     @KafkaListener(
         topics = "${spring.kafka.topics.order-outbox:outbox.event.Order}", 
         groupId = "product-service-release-group"
@@ -90,7 +118,7 @@ public class ProductConsumer {
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            @Header(value = "eventType", required = false) String eventType) {
+            @Header(value = "eventType", required = false) String eventType) throws JsonProcessingException {
         try {
             log.info("Received order event from topic: {}, partition: {}, offset: {}, eventType: {}", 
                     topic, partition, offset, eventType);
@@ -98,18 +126,7 @@ public class ProductConsumer {
             
             // Only process STOCK_RESERVE_RELEASE events
             if ("STOCK_RESERVE_RELEASE".equals(eventType)) {
-                // Parse event payload (already transformed by Debezium Outbox Router)
-                // Message has schema + payload structure, extract payload
-                JsonNode rootNode = objectMapper.readTree(message);
-                StockReserveReleaseEvent event;
-                
-                if (rootNode.has("payload") && rootNode.has("schema")) {
-                    // Payload is expanded as JSON object
-                    event = objectMapper.treeToValue(rootNode.get("payload"), StockReserveReleaseEvent.class);
-                } else {
-                    // Fallback: parse directly
-                    event = objectMapper.readValue(message, StockReserveReleaseEvent.class);
-                }
+                StockReserveReleaseEvent event = readEvent(objectMapper, message, StockReserveReleaseEvent.class);
                 
                 log.info("Received STOCK_RESERVE_RELEASE for Order ID: {}", event.orderId());
                 
@@ -123,7 +140,23 @@ public class ProductConsumer {
 
         } catch (Exception e) {
             log.error("Failed to process order stock release event: {}", message, e);
+            // Rethrow so the record moves to the retry topic instead of being dropped
+            throw e;
+        }
+    }
+
+    /**
+     * Parse event payload (already transformed by Debezium Outbox Router). The message is
+     * either the schema + payload envelope, whose payload is the expanded JSON object, or the
+     * plain payload. Package-private for the benchmarks module.
+     */
+    static <T> T readEvent(ObjectMapper objectMapper, String message, Class<T> type) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(message);
+        if (rootNode.has("payload") && rootNode.has("schema")) {
+            return objectMapper.treeToValue(rootNode.get("payload"), type);
         }
+        // Fallback: parse directly
+        return objectMapper.readValue(message, type);
     }
 
     /**
@@ -153,4 +186,10 @@ public class ProductConsumer {
         }
     }
 
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, String> record) {
+        log.error("Order event dead-lettered to {} after {} attempts, key: {}, reason: {}",
+                record.topic(), DeadLetterHeaders.attempts(record), record.key(), DeadLetterHeaders.reason(record));
+    }
+
 }
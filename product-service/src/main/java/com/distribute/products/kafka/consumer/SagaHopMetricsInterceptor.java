@@ -0,0 +1,121 @@
+package com.distribute.products.kafka.consumer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-hop saga latency for every event consumed from a saga topic, tagged by hop and eventType:
+ *
+ * saga.hop.cdc.lag    - outbox row created -> published by Debezium (outboxCreatedAt header vs record timestamp)
+ * saga.hop.queue.wait - record timestamp -> picked up by this service
+ * saga.hop.handler    - listener invocation, including its transaction
+ *
+ * Timers publish fixed percentile-histogram buckets, so p99 can be aggregated across instances.
+ * Retry and DLT topics are not measured, their timestamps include the backoff.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaHopMetricsInterceptor implements RecordInterceptor<Object, Object> {
+
+    private static final Map<String, String> HOPS = Map.of(
+            "outbox.event.Order", "order-to-product");
+
+    private static final String CREATED_AT_HEADER = "outboxCreatedAt";
+    private static final String EVENT_TYPE_HEADER = "eventType";
+
+    // Debezium sends DATETIME(6) as epoch micros and DATETIME(0-3) as epoch millis
+    private static final long MICROS_THRESHOLD = 100_000_000_000_000L;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, HopTimers> timers = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<InFlight> inFlight = ThreadLocal.withInitial(InFlight::new);
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        String hop = HOPS.get(record.topic());
+        if (hop == null) {
+            return record;
+        }
+
+        String eventType = headerValue(record, EVENT_TYPE_HEADER);
+        HopTimers hopTimers = timersFor(hop, eventType != null ? eventType : record.topic());
+
+        long createdAt = outboxCreatedAtMillis(record);
+        if (createdAt > 0) {
+            hopTimers.cdcLag.record(Math.max(0, record.timestamp() - createdAt), TimeUnit.MILLISECONDS);
+        }
+        hopTimers.queueWait.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+
+        InFlight current = inFlight.get();
+        current.timers = hopTimers;
+        current.startNanos = System.nanoTime();
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        InFlight current = inFlight.get();
+        if (current.timers != null) {
+            current.timers.handler.record(System.nanoTime() - current.startNanos, TimeUnit.NANOSECONDS);
+            current.timers = null;
+        }
+    }
+
+    private HopTimers timersFor(String hop, String eventType) {
+        return timers.computeIfAbsent(hop + ':' + eventType, key -> new HopTimers(
+                timer("saga.hop.cdc.lag", hop, eventType),
+                timer("saga.hop.queue.wait", hop, eventType),
+                timer("saga.hop.handler", hop, eventType)));
+    }
+
+    private Timer timer(String name, String hop, String eventType) {
+        return Timer.builder(name)
+                .tag("hop", hop)
+                .tag("eventType", eventType)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry);
+    }
+
+    private long outboxCreatedAtMillis(ConsumerRecord<?, ?> record) {
+        String value = headerValue(record, CREATED_AT_HEADER);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            long createdAt = Long.parseLong(value);
+            return createdAt > MICROS_THRESHOLD ? createdAt / 1_000 : createdAt;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String headerValue(ConsumerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private record HopTimers(Timer cdcLag, Timer queueWait, Timer handler) {
+    }
+
+    private static final class InFlight {
+        private HopTimers timers;
+        private long startNanos;
+    }
+}
@@ -0,0 +1,42 @@
+package com.distribute.products.kafka.dlt;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+
+/**
+ * Reads the failure metadata the retry-topic infrastructure stamps on the records ProductConsumer
+ * forwards: the exception message of the last failure and the number of attempts made so far.
+ */
+public final class DeadLetterHeaders {
+
+    private DeadLetterHeaders() {
+    }
+
+    public static String reason(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.EXCEPTION_MESSAGE);
+        return header == null ? "unknown" : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    public static int attempts(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        return header == null ? 1 : new BigInteger(header.value()).intValue();
+    }
+
+    /**
+     * Failure and retry headers must not follow a replayed record, otherwise it would be
+     * treated as already exhausted.
+     */
+    public static boolean isFailureHeader(Header header) {
+        String key = header.key();
+        return key.startsWith(KafkaHeaders.PREFIX + "dlt-")
+                || key.startsWith(KafkaHeaders.PREFIX + "exception-")
+                || key.startsWith(KafkaHeaders.PREFIX + "key-exception-")
+                || key.startsWith(KafkaHeaders.PREFIX + "original-")
+                || key.startsWith("retry_topic-");
+    }
+}
@@ -0,0 +1,22 @@
+package com.distribute.products.kafka.event;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Body of an outbox event, written field by field by OutboxPayloadEncoder so no Map or
+ * tree is built in between. Field names are the ones the consumers' event classes expect.
+ */
+public interface OutboxPayload {
+
+    void writeTo(JsonGenerator generator) throws IOException;
+
+    static void writeNumberField(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value.intValue());
+        }
+    }
+}
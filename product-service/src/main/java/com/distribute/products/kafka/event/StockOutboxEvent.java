@@ -0,0 +1,30 @@
+package com.distribute.products.kafka.event;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * STOCK_RESERVE_SUCCEEDED / STOCK_RESERVE_FAILED / STOCK_RELEASED payload. Items are the
+ * event's own lines, not a copy.
+ */
+public record StockOutboxEvent(Integer orderId, String requestId, List<Item> items) implements OutboxPayload {
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        OutboxPayload.writeNumberField(generator, "orderId", orderId);
+        generator.writeStringField("requestId", requestId);
+        generator.writeArrayFieldStart("items");
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            generator.writeStartObject();
+            OutboxPayload.writeNumberField(generator, "productId", item.getProductId());
+            OutboxPayload.writeNumberField(generator, "quantity", item.getQuantity());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,45 @@
+package com.distribute.products.repository;
+
+import com.distribute.products.entity.SagaIdNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SagaIdNodeRepository extends JpaRepository<SagaIdNode, Integer> {
+
+    /**
+     * Lease times come from the database clock, the one clock all instances share
+     */
+    @Query("SELECT LOCAL DATETIME")
+    LocalDateTime databaseNow();
+
+    /**
+     * Take over a slot whose lease ran out (or that this owner already holds)
+     */
+    @Modifying
+    @Query("UPDATE SagaIdNode n SET n.owner = :owner, n.leaseUntil = :until "
+            + "WHERE n.instanceSlot = :slot AND (n.leaseUntil < :now OR n.owner = :owner)")
+    int claim(@Param("slot") Integer slot, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Plain INSERT so that a slot inserted concurrently by another instance fails with a
+     * duplicate key instead of being merged over
+     */
+    @Modifying
+    @Query(value = "INSERT INTO saga_id_nodes (instance_slot, owner, lease_until) VALUES (:slot, :owner, :until)",
+            nativeQuery = true)
+    int insert(@Param("slot") Integer slot, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    /**
+     * Extend the lease, only while this owner still holds it
+     */
+    @Modifying
+    @Query("UPDATE SagaIdNode n SET n.leaseUntil = :until WHERE n.instanceSlot = :slot AND n.owner = :owner")
+    int renew(@Param("slot") Integer slot, @Param("owner") String owner, @Param("until") LocalDateTime until);
+}
@@ -2,19 +2,19 @@ package com.distribute.products.service.impl;
 
 import com.distribute.products.entity.Outbox;
 import com.distribute.products.kafka.event.Item;
+import com.distribute.products.kafka.event.StockOutboxEvent;
+import com.distribute.products.kafka.producer.OutboxPayloadEncoder;
 import com.distribute.products.repository.OutboxRepository;
 import com.distribute.products.service.OutboxService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.distribute.products.service.utils.SagaIdGenerator;
+import com.distribute.products.tracing.OutboxTraceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,19 +22,23 @@ import java.util.stream.Collectors;
 public class OutboxServiceImpl implements OutboxService {
     
     private final OutboxRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxPayloadEncoder payloadEncoder;
+    private final OutboxTraceContext outboxTraceContext;
+    private final SagaIdGenerator sagaIdGenerator;
     
     @Override
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveStockUpdatedEvent(Integer orderId, List<Item> items, String eventType, String requestId) {
         try {
-            String payload = buildStockPayload(orderId, items, requestId);
+            byte[] payload = buildStockPayload(orderId, items, requestId);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Product")
                     .aggregateId(orderId.toString())
                     .eventType(eventType)
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -49,13 +53,15 @@ public class OutboxServiceImpl implements OutboxService {
     @Transactional(propagation = Propagation.MANDATORY)
     public void saveStockReleasedEvent(Integer orderId, List<Item> items, String requestId) {
         try {
-            String payload = buildStockPayload(orderId, items, requestId);
+            byte[] payload = buildStockPayload(orderId, items, requestId);
             
             Outbox outbox = Outbox.builder()
+                    .id(sagaIdGenerator.nextUuid())
                     .aggregateType("Product")
                     .aggregateId(orderId.toString())
                     .eventType("STOCK_RELEASED")
                     .payload(payload)
+                    .traceParent(outboxTraceContext.currentTraceParent())
                     .build();
             
             outboxRepository.save(outbox);
@@ -66,28 +72,8 @@ public class OutboxServiceImpl implements OutboxService {
         }
     }
     
-    private String buildStockPayload(Integer orderId, List<Item> items, String requestId) {
-        try {
-            Map<String, Object> payloadMap = new HashMap<>();
-            payloadMap.put("orderId", orderId);
-            payloadMap.put("requestId", requestId);
-            
-            // Convert items to simple list format
-            List<Map<String, Integer>> itemList = items.stream()
-                    .map(item -> {
-                        Map<String, Integer> itemMap = new HashMap<>();
-                        itemMap.put("productId", item.getProductId());
-                        itemMap.put("quantity", item.getQuantity());
-                        return itemMap;
-                    })
-                    .collect(Collectors.toList());
-            
-            payloadMap.put("items", itemList);
-            
-            return objectMapper.writeValueAsString(payloadMap);
-        } catch (Exception e) {
-            log.error("Failed to build stock payload: {}", e.getMessage());
-            throw new RuntimeException("Failed to serialize stock payload", e);
-        }
+    // Package-private for the benchmarks module
+    byte[] buildStockPayload(Integer orderId, List<Item> items, String requestId) {
+        return payloadEncoder.encode(new StockOutboxEvent(orderId, requestId, items));
     }
 }
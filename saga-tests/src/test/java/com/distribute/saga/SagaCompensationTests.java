@@ -0,0 +1,273 @@
+package com.distribute.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import com.distribute.saga.harness.SagaHarness;
+import com.distribute.saga.harness.SagaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Paid orders next to orders the payment gateway always declines (amount over its limit).
+ * Every declined saga has to be compensated exactly once: order-service publishes one
+ * STOCK_RESERVE_RELEASE, product-service answers with one STOCK_RELEASED and the customer
+ * gets a PAYMENT_FAILURE notification. Stock ends where the paid orders alone left it.
+ */
+@Slf4j
+class SagaCompensationTests {
+
+    private static final int ORDERS = 200;
+    private static final int CLIENTS = 8;
+    private static final long TIMEOUT_MS = 120_000;
+
+    private static final int INITIAL_STOCK = 100_000;
+    private static final BigDecimal CHEAP_PRICE = new BigDecimal("10.00");
+    // Two of these make 12000, over the simulated gateway's 10000 limit
+    private static final BigDecimal EXPENSIVE_PRICE = new BigDecimal("6000.00");
+
+    private static final String TERMINAL_ORDERS_SQL =
+            "SELECT COUNT(*) FROM orders WHERE status IN ('PAID', 'PAYMENT_FAILED', 'STOCK_FAILED', 'CANCELED')";
+
+    private static SagaHarness harness;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startServices() {
+        harness = SagaHarness.builder()
+                .property(SagaService.PAYMENT, "payment.gateway.min-latency-ms", "1")
+                .property(SagaService.PAYMENT, "payment.gateway.max-latency-ms", "5")
+                .property(SagaService.PAYMENT, "payment.gateway.approval-rate", "1.0")
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.email.stub-latency-ms", "0")
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.sms.stub-latency-ms", "0")
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.webhook.stub-latency-ms", "0")
+                .start();
+    }
+
+    @AfterAll
+    static void stopServices() {
+        if (harness != null) {
+            harness.close();
+        }
+    }
+
+    @Test
+    void declinedPaymentsReleaseTheirStockExactlyOnce(TestReporter reporter) throws Exception {
+        int cheap = createProduct("Cheap", CHEAP_PRICE);
+        int expensive = createProduct("Expensive", EXPENSIVE_PRICE);
+        Set<Integer> paid = ConcurrentHashMap.newKeySet();
+        Set<Integer> declined = ConcurrentHashMap.newKeySet();
+        AtomicInteger paidCheapUnits = new AtomicInteger();
+
+        try (EventRecorder events = new EventRecorder(harness.brokers(), "outbox.event.Order", "outbox.event.Product")) {
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            try {
+                List<Future<?>> responses = new ArrayList<>(ORDERS);
+                for (int i = 0; i < ORDERS; i++) {
+                    int userId = i;
+                    responses.add(clients.submit(() -> {
+                        if (userId % 2 == 0) {
+                            int quantity = 1 + userId % 3;
+                            paid.add(placeOrder(userId, List.of(line(cheap, quantity))));
+                            paidCheapUnits.addAndGet(quantity);
+                        } else {
+                            // The cheap line is reserved as well and has to come back
+                            declined.add(placeOrder(userId, List.of(line(expensive, 2), line(cheap, 1))));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> response : responses) {
+                    response.get();
+                }
+            } finally {
+                clients.shutdown();
+            }
+
+            awaitCount(SagaService.ORDER, TERMINAL_ORDERS_SQL, ORDERS);
+            // STOCK_RELEASED is the last hop of a compensated saga
+            await(() -> events.keys("STOCK_RELEASED").size(), declined.size(), "STOCK_RELEASED events");
+            awaitCount(SagaService.NOTIFICATION, "SELECT COUNT(*) FROM notifications", ORDERS);
+
+            reporter.publishEntry("saga.compensation.declined-orders", String.valueOf(declined.size()));
+            reporter.publishEntry("saga.compensation.relayed-events", String.valueOf(harness.relayedEvents()));
+            log.info("{} paid and {} declined sagas settled, {} outbox events relayed",
+                    paid.size(), declined.size(), harness.relayedEvents());
+
+            // One release request and one release per declined order, none for paid orders
+            assertThat(events.keys("STOCK_RESERVE_RELEASE")).containsExactlyInAnyOrderElementsOf(ids(declined));
+            assertThat(events.keys("STOCK_RELEASED")).containsExactlyInAnyOrderElementsOf(ids(declined));
+            declined.forEach(orderId -> {
+                assertThat(events.count("STOCK_RESERVE_RELEASE", orderId)).as("releases requested for order %d", orderId).isEqualTo(1);
+                assertThat(events.count("STOCK_RELEASED", orderId)).as("releases of order %d", orderId).isEqualTo(1);
+            });
+        }
+
+        assertThat(count(SagaService.ORDER, "SELECT COUNT(*) FROM orders WHERE status = 'PAID'")).isEqualTo(paid.size());
+        assertThat(count(SagaService.ORDER,
+                "SELECT COUNT(*) FROM orders WHERE status = 'PAYMENT_FAILED' AND stock_released = TRUE"))
+                .isEqualTo(declined.size());
+        assertThat(count(SagaService.PAYMENT, "SELECT COUNT(*) FROM payments WHERE status = 'FAILED'"))
+                .isEqualTo(declined.size());
+        assertThat(count(SagaService.NOTIFICATION,
+                "SELECT COUNT(DISTINCT order_id) FROM notifications WHERE type = 'PAYMENT_FAILURE'"))
+                .isEqualTo(declined.size());
+
+        // Declined orders gave everything back
+        assertThat(stock(expensive)).isEqualTo(INITIAL_STOCK);
+        assertThat(stock(cheap)).isEqualTo(INITIAL_STOCK - paidCheapUnits.get());
+    }
+
+    private int createProduct(String name, BigDecimal price) throws Exception {
+        HttpResponse<String> response = post(harness.url(SagaService.PRODUCT) + "/api/products",
+                Map.of("name", name, "price", price, "stock", INITIAL_STOCK));
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body()).path("id").asInt();
+    }
+
+    private static Map<String, Integer> line(int productId, int quantity) {
+        return Map.of("productId", productId, "quantity", quantity);
+    }
+
+    private int placeOrder(int userId, List<Map<String, Integer>> items) throws Exception {
+        HttpResponse<String> response = post(harness.url(SagaService.ORDER) + "/api/v1/orders",
+                Map.of("userId", userId, "items", items));
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body()).path("data").asInt();
+    }
+
+    private HttpResponse<String> post(String url, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<String> ids(Set<Integer> orderIds) {
+        return orderIds.stream().map(String::valueOf).toList();
+    }
+
+    private long count(SagaService service, String sql) {
+        return harness.jdbc(service).queryForObject(sql, Long.class);
+    }
+
+    private int stock(int productId) {
+        return harness.jdbc(SagaService.PRODUCT).queryForObject(
+                "SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private void awaitCount(SagaService service, String sql, long expected) throws InterruptedException {
+        await(() -> count(service, sql), expected, service.serviceName() + ": " + sql);
+    }
+
+    private void await(CountSupplier actual, long expected, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        long count = 0;
+        while (System.currentTimeMillis() < deadline) {
+            count = actual.get();
+            if (count >= expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError(what + " reached " + count + " of " + expected + " within " + TIMEOUT_MS + " ms");
+    }
+
+    @FunctionalInterface
+    private interface CountSupplier {
+        long get();
+    }
+
+    /**
+     * Counts the records the relays publish, by eventType header and record key (the order id)
+     */
+    private static final class EventRecorder implements AutoCloseable {
+
+        private final Map<String, Map<String, AtomicInteger>> counts = new ConcurrentHashMap<>();
+        private final KafkaConsumer<String, String> consumer;
+        private final Thread poller;
+
+        EventRecorder(String brokers, String... topics) {
+            Properties properties = new Properties();
+            properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+            properties.put(ConsumerConfig.GROUP_ID_CONFIG, "saga-compensation-" + UUID.randomUUID());
+            properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+            properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+            properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+            consumer = new KafkaConsumer<>(properties);
+            consumer.subscribe(List.of(topics));
+
+            poller = new Thread(this::poll, "saga-event-recorder");
+            poller.setDaemon(true);
+            poller.start();
+        }
+
+        Set<String> keys(String eventType) {
+            return counts.getOrDefault(eventType, Map.of()).keySet();
+        }
+
+        int count(String eventType, int orderId) {
+            AtomicInteger count = counts.getOrDefault(eventType, Map.of()).get(String.valueOf(orderId));
+            return count != null ? count.get() : 0;
+        }
+
+        private void poll() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                        Header eventType = record.headers().lastHeader("eventType");
+                        if (eventType != null) {
+                            counts.computeIfAbsent(new String(eventType.value(), StandardCharsets.UTF_8),
+                                            type -> new ConcurrentHashMap<>())
+                                    .computeIfAbsent(record.key(), key -> new AtomicInteger())
+                                    .incrementAndGet();
+                        }
+                    }
+                }
+            } catch (WakeupException e) {
+                // close()
+            } finally {
+                consumer.close();
+            }
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            consumer.wakeup();
+            poller.join(10_000);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.distribute.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import com.distribute.saga.harness.SagaHarness;
+import com.distribute.saga.harness.SagaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives saga.orders orders through the full choreography (order -> stock reservation ->
+ * payment authorization -> PAID -> notification) and checks every saga ended correctly and
+ * that the run kept at least saga.min-throughput completed sagas per second.
+ */
+@Slf4j
+class SagaThroughputTests {
+
+    private static final int ORDERS = Integer.getInteger("saga.orders", 2000);
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("saga.min-throughput", "25"));
+    private static final int CLIENTS = 16;
+    private static final long TIMEOUT_MS = 300_000;
+
+    private static final int PRODUCTS = 10;
+    private static final int INITIAL_STOCK = 1_000_000;
+    private static final BigDecimal PRICE = new BigDecimal("10.00");
+
+    private static final String TERMINAL_ORDERS_SQL =
+            "SELECT COUNT(*) FROM orders WHERE status IN ('PAID', 'PAYMENT_FAILED', 'STOCK_FAILED', 'CANCELED')";
+
+    private static SagaHarness harness;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startServices() {
+        harness = SagaHarness.builder()
+                .property(SagaService.PAYMENT, "payment.gateway.min-latency-ms", "1")
+                .property(SagaService.PAYMENT, "payment.gateway.max-latency-ms", "5")
+                .property(SagaService.PAYMENT, "payment.gateway.approval-rate", "1.0")
+                // Delivery runs after the notification is stored and is not part of the saga
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.email.stub-latency-ms", "0")
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.sms.stub-latency-ms", "0")
+                .property(SagaService.NOTIFICATION, "notification.delivery.channels.webhook.stub-latency-ms", "0")
+                .start();
+    }
+
+    @AfterAll
+    static void stopServices() {
+        if (harness != null) {
+            harness.close();
+        }
+    }
+
+    @Test
+    void sagasCompleteCorrectlyAboveThroughputFloor(TestReporter reporter) throws Exception {
+        List<Integer> productIds = createProducts();
+        AtomicIntegerArray ordered = new AtomicIntegerArray(PRODUCTS);
+
+        long start = System.nanoTime();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                int userId = i;
+                responses.add(clients.submit(() -> placeOrder(userId, productIds, ordered)));
+            }
+            for (Future<Integer> response : responses) {
+                assertThat(response.get()).isEqualTo(200);
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        awaitCount(SagaService.ORDER, TERMINAL_ORDERS_SQL, ORDERS);
+        // The PAYMENT_SUCCESS notification is the last hop of each saga
+        awaitCount(SagaService.NOTIFICATION, "SELECT COUNT(*) FROM notifications", ORDERS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = ORDERS / seconds;
+        reporter.publishEntry("saga.throughput.sagas-per-second", String.format("%.1f", throughput));
+        reporter.publishEntry("saga.throughput.relayed-events", String.valueOf(harness.relayedEvents()));
+        log.info("{} sagas in {} s: {} sagas/s, {} outbox events relayed",
+                ORDERS, String.format("%.1f", seconds), String.format("%.1f", throughput), harness.relayedEvents());
+
+        assertCorrectness(productIds, ordered);
+        assertThat(throughput)
+                .as("saga throughput (sagas/s)")
+                .isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+    }
+
+    private void assertCorrectness(List<Integer> productIds, AtomicIntegerArray ordered) {
+        // Every order paid once, for the amount the order recorded
+        assertThat(harness.jdbc(SagaService.ORDER).queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE status = 'PAID'", Long.class)).isEqualTo(ORDERS);
+        Map<Integer, BigDecimal> orderTotals = totals(SagaService.ORDER,
+                "SELECT id, total_amount FROM orders");
+        Map<Integer, BigDecimal> paid = totals(SagaService.PAYMENT,
+                "SELECT order_id, amount FROM payments WHERE status = 'PAID'");
+        assertThat(harness.jdbc(SagaService.PAYMENT).queryForObject(
+                "SELECT COUNT(*) FROM payments", Long.class)).isEqualTo(ORDERS);
+        assertThat(paid).hasSize(ORDERS);
+        orderTotals.forEach((orderId, total) ->
+                assertThat(paid.get(orderId)).as("payment of order %d", orderId).isEqualByComparingTo(total));
+
+        // Stock reserved exactly once per order line
+        for (int i = 0; i < PRODUCTS; i++) {
+            assertThat(harness.jdbc(SagaService.PRODUCT).queryForObject(
+                    "SELECT stock FROM products WHERE id = ?", Integer.class, productIds.get(i)))
+                    .as("stock of product %d", productIds.get(i))
+                    .isEqualTo(INITIAL_STOCK - ordered.get(i));
+        }
+
+        // One notification per order, no duplicates from redelivery
+        assertThat(harness.jdbc(SagaService.NOTIFICATION).queryForObject(
+                "SELECT COUNT(DISTINCT order_id) FROM notifications", Long.class)).isEqualTo(ORDERS);
+    }
+
+    private List<Integer> createProducts() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Map<String, Object> product = Map.of(
+                    "name", "Saga product " + i,
+                    "price", PRICE,
+                    "stock", INITIAL_STOCK);
+            HttpResponse<String> response = post(harness.url(SagaService.PRODUCT) + "/api/products", product);
+            assertThat(response.statusCode()).isEqualTo(200);
+            ids.add(objectMapper.readTree(response.body()).path("id").asInt());
+        }
+        return ids;
+    }
+
+    private int placeOrder(int userId, List<Integer> productIds, AtomicIntegerArray ordered) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(PRODUCTS);
+        int lines = 1 + random.nextInt(3);
+
+        List<Map<String, Integer>> items = new ArrayList<>();
+        for (int line = 0; line < lines; line++) {
+            // Distinct products per order: order items are keyed by (order, product)
+            int product = (first + line) % PRODUCTS;
+            int quantity = 1 + random.nextInt(2);
+            items.add(Map.of("productId", productIds.get(product), "quantity", quantity));
+            ordered.addAndGet(product, quantity);
+        }
+
+        return post(harness.url(SagaService.ORDER) + "/api/v1/orders",
+                Map.of("userId", userId, "items", items)).statusCode();
+    }
+
+    private HttpResponse<String> post(String url, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Map<Integer, BigDecimal> totals(SagaService service, String sql) {
+        Map<Integer, BigDecimal> totals = new HashMap<>();
+        harness.jdbc(service).query(sql, rs -> {
+            totals.put(rs.getInt(1), rs.getBigDecimal(2));
+        });
+        return totals;
+    }
+
+    private void awaitCount(SagaService service, String sql, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        long count = 0;
+        while (System.currentTimeMillis() < deadline) {
+            count = harness.jdbc(service).queryForObject(sql, Long.class);
+            if (count >= expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError(service.serviceName() + " reached " + count + " of " + expected
+                + " within " + TIMEOUT_MS + " ms: " + sql);
+    }
+}
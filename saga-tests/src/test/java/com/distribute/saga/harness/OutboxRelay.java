@@ -0,0 +1,153 @@
+package com.distribute.saga.harness;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stands in for Debezium and the outbox EventRouter: polls one service's outbox table and
+ * publishes each row the way the connector would, to outbox.event.{aggregate_type} keyed by
+ * aggregate_id, with the payload as value and eventType, id, outboxCreatedAt and traceparent
+ * headers. Rows are deleted once Kafka acknowledged them, so delivery is at least once, as
+ * with the connector.
+ *
+ * Rows go out in created_at order. Unlike the binlog this is not commit order, but events of
+ * one aggregate are written by one transaction at a time, so per-key order holds.
+ */
+@Slf4j
+class OutboxRelay implements Runnable {
+
+    private static final String SELECT_SQL = "SELECT id, aggregate_type, aggregate_id, event_type, payload, "
+            + "trace_parent, created_at FROM outbox ORDER BY created_at LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox WHERE id = ?";
+
+    private static final String TOPIC_PREFIX = "outbox.event.";
+
+    private final SagaService service;
+    private final JdbcTemplate jdbcTemplate;
+    private final Producer<String, String> producer;
+    private final int batchSize;
+    private final long idleSleepMs;
+
+    private volatile boolean running = true;
+    private volatile long relayed;
+
+    OutboxRelay(SagaService service, JdbcTemplate jdbcTemplate, Producer<String, String> producer,
+            int batchSize, long idleSleepMs) {
+        this.service = service;
+        this.jdbcTemplate = jdbcTemplate;
+        this.producer = producer;
+        this.batchSize = batchSize;
+        this.idleSleepMs = idleSleepMs;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (relayBatch() < batchSize) {
+                    Thread.sleep(idleSleepMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Table not created yet, or the context is closing: the rows stay and are retried
+                if (running) {
+                    log.warn("Outbox relay for {} failed: {}", service.serviceName(), e.getMessage());
+                    try {
+                        Thread.sleep(idleSleepMs * 10);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    int relayBatch() throws InterruptedException, ExecutionException, TimeoutException {
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new OutboxRow(
+                rs.getObject("id"),
+                rs.getString("aggregate_type"),
+                rs.getString("aggregate_id"),
+                rs.getString("event_type"),
+                payload(rs),
+                rs.getString("trace_parent"),
+                rs.getTimestamp("created_at")), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<RecordMetadata>> sends = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            sends.add(producer.send(toRecord(row)));
+        }
+        for (Future<RecordMetadata> send : sends) {
+            send.get(30, TimeUnit.SECONDS);
+        }
+
+        jdbcTemplate.batchUpdate(DELETE_SQL, rows.stream().map(row -> new Object[] { row.id() }).toList());
+        relayed += rows.size();
+        return rows.size();
+    }
+
+    private ProducerRecord<String, String> toRecord(OutboxRow row) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(
+                TOPIC_PREFIX + row.aggregateType(), row.aggregateId(), row.payload());
+        record.headers().add(header("id", row.id().toString()));
+        record.headers().add(header("eventType", row.eventType()));
+        // created_at is stored as UTC; the connector forwards it as epoch time
+        record.headers().add(header("outboxCreatedAt",
+                String.valueOf(row.createdAt().toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli())));
+        if (row.traceParent() != null) {
+            record.headers().add(header("traceparent", row.traceParent()));
+        }
+        return record;
+    }
+
+    /**
+     * Order and product store the payload as UTF-8 bytes (BLOB), payment still as text
+     */
+    private static String payload(ResultSet rs) throws SQLException {
+        int type = rs.getMetaData().getColumnType(rs.findColumn("payload"));
+        if (type == Types.BLOB || type == Types.VARBINARY || type == Types.LONGVARBINARY || type == Types.BINARY) {
+            return new String(rs.getBytes("payload"), StandardCharsets.UTF_8);
+        }
+        return rs.getString("payload");
+    }
+
+    private static RecordHeader header(String key, String value) {
+        return new RecordHeader(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    long relayed() {
+        return relayed;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    private record OutboxRow(Object id, String aggregateType, String aggregateId, String eventType,
+            String payload, String traceParent, Timestamp createdAt) {
+    }
+}
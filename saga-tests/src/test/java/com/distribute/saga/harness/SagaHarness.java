@@ -0,0 +1,236 @@
+package com.distribute.saga.harness;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Boots the saga services in one JVM: one embedded Kafka broker, one H2 database per
+ * service (MySQL mode, so native upserts and SKIP LOCKED behave as in production) and one
+ * {@link OutboxRelay} per outbox in place of Debezium.
+ *
+ * Each service runs from its own application.yaml; the harness only overrides what points
+ * at infrastructure (datasource, brokers, Eureka, ports, trace export). Scenario settings
+ * go through {@link Builder#property}:
+ *
+ * <pre>
+ * try (SagaHarness harness = SagaHarness.builder()
+ *         .property(SagaService.PAYMENT, "payment.gateway.approval-rate", "1.0")
+ *         .start()) {
+ *     harness.url(SagaService.ORDER); // http://localhost:port
+ * }
+ * </pre>
+ */
+@Slf4j
+public final class SagaHarness implements AutoCloseable {
+
+    // Topics written by the relays and by order-service directly; retry and DLT topics are
+    // created by the services themselves
+    private static final String[] TOPICS = {
+            "outbox.event.Order", "outbox.event.Product", "outbox.event.Payment", "PAYMENT_AUTHORIZE"
+    };
+
+    private final EmbeddedKafkaBroker broker;
+    private final Map<SagaService, ConfigurableApplicationContext> contexts = new EnumMap<>(SagaService.class);
+    private final List<OutboxRelay> relays = new ArrayList<>();
+    private final Producer<String, String> relayProducer;
+    private final ExecutorService relayExecutor;
+
+    private SagaHarness(Builder builder) {
+        broker = new EmbeddedKafkaKraftBroker(1, builder.partitions, TOPICS)
+                .brokerProperty("auto.create.topics.enable", "true");
+        broker.afterPropertiesSet();
+        log.info("Embedded Kafka at {}", broker.getBrokersAsString());
+
+        relayProducer = new KafkaProducer<>(producerProperties(broker.getBrokersAsString()));
+        relayExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("outbox-relay-"));
+
+        try {
+            for (SagaService service : SagaService.values()) {
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(service.application())
+                        .logStartupInfo(false)
+                        .run(arguments(service, builder.properties.get(service)));
+                contexts.put(service, context);
+                log.info("{} started on port {}", service.serviceName(), port(service));
+
+                if (service.writesOutbox()) {
+                    OutboxRelay relay = new OutboxRelay(service, new JdbcTemplate(context.getBean(DataSource.class)),
+                            relayProducer, builder.relayBatchSize, builder.relayIdleMs);
+                    relays.add(relay);
+                    relayExecutor.execute(relay);
+                }
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public ConfigurableApplicationContext context(SagaService service) {
+        return contexts.get(service);
+    }
+
+    public <T> T bean(SagaService service, Class<T> type) {
+        return context(service).getBean(type);
+    }
+
+    public JdbcTemplate jdbc(SagaService service) {
+        return new JdbcTemplate(bean(service, DataSource.class));
+    }
+
+    public int port(SagaService service) {
+        return ((WebServerApplicationContext) context(service)).getWebServer().getPort();
+    }
+
+    public String url(SagaService service) {
+        return "http://localhost:" + port(service);
+    }
+
+    public String brokers() {
+        return broker.getBrokersAsString();
+    }
+
+    /**
+     * Outbox rows published so far, over all relays
+     */
+    public long relayedEvents() {
+        return relays.stream().mapToLong(OutboxRelay::relayed).sum();
+    }
+
+    @Override
+    public void close() {
+        relays.forEach(OutboxRelay::stop);
+        relayExecutor.shutdownNow();
+        try {
+            relayExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relayProducer.close();
+
+        // Reverse start order: order-service stops calling product-service before it goes away
+        List<SagaService> started = new ArrayList<>(contexts.keySet());
+        for (int i = started.size() - 1; i >= 0; i--) {
+            contexts.get(started.get(i)).close();
+        }
+        broker.destroy();
+    }
+
+    private String[] arguments(SagaService service, Map<String, String> overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.config.location", "classpath:/" + service.serviceName() + "/application.yaml");
+
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:saga-" + service.serviceName() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.show-sql", "false");
+
+        properties.put("spring.kafka.bootstrap-servers", broker.getBrokersAsString());
+
+        // The Eureka client stays (order-service injects it) but never talks to a server
+        properties.put("eureka.client.register-with-eureka", "false");
+        properties.put("eureka.client.fetch-registry", "false");
+        properties.put("eureka.client.healthcheck.enabled", "false");
+        if (service == SagaService.ORDER) {
+            String productUrl = url(SagaService.PRODUCT);
+            properties.put("spring.cloud.discovery.client.simple.instances.product-service[0].uri", productUrl);
+            properties.put("product-service.fallback-url", productUrl);
+        }
+
+        properties.put("server.port", "0");
+        properties.put("management.tracing.sampling.probability", "0.0");
+        properties.put("management.otlp.tracing.export.enabled", "false");
+        // Per-event INFO logging would dominate a throughput run
+        properties.put("logging.level.com.app", "WARN");
+        properties.put("logging.level.com.distribute", "WARN");
+
+        properties.putAll(overrides);
+        return properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static Properties producerProperties(String brokers) {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return properties;
+    }
+
+    public static final class Builder {
+
+        private final Map<SagaService, Map<String, String>> properties = new EnumMap<>(SagaService.class);
+        private int partitions = 3;
+        private int relayBatchSize = 500;
+        private long relayIdleMs = 10;
+
+        private Builder() {
+            for (SagaService service : SagaService.values()) {
+                properties.put(service, new LinkedHashMap<>());
+            }
+        }
+
+        /**
+         * Set a property of one service, taking precedence over its application.yaml and
+         * over the harness defaults
+         */
+        public Builder property(SagaService service, String key, String value) {
+            properties.get(service).put(key, value);
+            return this;
+        }
+
+        public Builder partitions(int partitions) {
+            this.partitions = partitions;
+            return this;
+        }
+
+        public Builder relayBatchSize(int relayBatchSize) {
+            this.relayBatchSize = relayBatchSize;
+            return this;
+        }
+
+        public Builder relayIdleMs(long relayIdleMs) {
+            this.relayIdleMs = relayIdleMs;
+            return this;
+        }
+
+        public SagaHarness start() {
+            return new SagaHarness(this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.distribute.saga.harness;
+
+import com.app.order_service.OrderServiceApplication;
+import com.distribute.notifications.NotificationsApplication;
+import com.distribute.payment.PaymentApplication;
+import com.distribute.products.ProductsApplication;
+
+/**
+ * The services the harness boots, in start order: order-service resolves product-service
+ * over HTTP, so product-service has to be listening first.
+ */
+public enum SagaService {
+
+    PRODUCT("product-service", ProductsApplication.class, true),
+    PAYMENT("payment-service", PaymentApplication.class, true),
+    NOTIFICATION("notification-service", NotificationsApplication.class, false),
+    ORDER("order-service", OrderServiceApplication.class, true);
+
+    private final String serviceName;
+    private final Class<?> application;
+    private final boolean writesOutbox;
+
+    SagaService(String serviceName, Class<?> application, boolean writesOutbox) {
+        this.serviceName = serviceName;
+        this.application = application;
+        this.writesOutbox = writesOutbox;
+    }
+
+    public String serviceName() {
+        return serviceName;
+    }
+
+    Class<?> application() {
+        return application;
+    }
+
+    boolean writesOutbox() {
+        return writesOutbox;
+    }
+}